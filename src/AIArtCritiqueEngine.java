@@ -33,6 +33,12 @@ public class AIArtCritiqueEngine {
             case "Cellular Automata":
                 critique.append(cellularAutomataCritique(art));
                 break;
+            case "IFS Fractal":
+                critique.append(ifsCritique(art));
+                break;
+            case "Forest Scene":
+                critique.append(forestCritique(art));
+                break;
             default:
                 critique.append("This artwork type offers a unique recursive structure.\n");
         }
@@ -76,6 +82,18 @@ public class AIArtCritiqueEngine {
                 "The choice of rule set and grid size produces interesting variations across generations, with a good balance between order and complexity.\n";
     }
 
+    private static String ifsCritique(ArtWork art) {
+        return "The iterated function system builds its form from nothing but repeated random transforms. " +
+                "Density shading gives the structure depth, and the self-similar detail holds up at every scale.\n" +
+                "Complexity score: " + art.calculateComplexity() + ".\n";
+    }
+
+    private static String forestCritique(ArtWork art) {
+        return "The forest scene builds a convincing landscape from a handful of recursive trees. " +
+                "Receding sizes and fading colours give a clear sense of depth, and the placement avoids obvious repetition.\n" +
+                "Complexity score: " + art.calculateComplexity() + ".\n";
+    }
+
     private static String randomFinalComment() {
         String[] phrases = {
                 "Overall, this is a well-crafted example of recursive visual art.",
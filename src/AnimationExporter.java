@@ -0,0 +1,201 @@
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageOutputStream;
+
+/**
+ * AnimationExporter class to export an evolving artwork frame by frame:
+ * cellular automata generation by generation, L-systems and trees depth by depth.
+ * Frames are written as a numbered PNG sequence plus one looping animated GIF.
+ * Simulating and rendering the next frame runs on the calling thread while a
+ * second thread encodes the previous frames, so the two stages overlap.
+ */
+public class AnimationExporter {
+    // Rendered frames waiting for the encoder; small so memory stays bounded
+    private static final int QUEUE_CAPACITY = 4;
+
+    // Marks the end of the frame stream for the encoder
+    private static final BufferedImage END_OF_FRAMES = new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB);
+
+    /**
+     * Export every frame of an artwork
+     *
+     * @param artwork   The artwork to animate
+     * @param outputDir Directory for frame_NNN.png and animation.gif
+     * @param delayMs   Time each frame is shown in the GIF, in milliseconds
+     * @return Number of frames written
+     */
+    public static int exportAnimation(ArtWork artwork, File outputDir, int delayMs) throws IOException {
+        if (!outputDir.isDirectory() && !outputDir.mkdirs()) {
+            throw new IOException("Cannot create output directory " + outputDir);
+        }
+
+        BlockingQueue<BufferedImage> frames = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        ExecutorService encoderThread = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "animation-encoder");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Future<Integer> encoder = encoderThread.submit(() -> encodeFrames(frames, outputDir, delayMs));
+
+        try {
+            // Simulation stage: build and rasterize each frame, then hand it over
+            int frameCount = artwork.getFrameCount();
+            for (int i = 0; i < frameCount; i++) {
+                ArtWork frame = artwork.createFrame(i);
+                BufferedImage image = ArtRenderer.render(frame);
+                if (frame != artwork) {
+                    frame.releaseGeometry();
+                }
+                if (!handOver(frames, image, encoder)) {
+                    return encoder.get(); // encoder failed; get() throws its error
+                }
+            }
+            handOver(frames, END_OF_FRAMES, encoder);
+            return encoder.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while exporting " + artwork.getTitle(), e);
+        } catch (ExecutionException e) {
+            throw new IOException("Encoding frames failed for " + artwork.getTitle(), e.getCause());
+        } finally {
+            encoderThread.shutdownNow();
+        }
+    }
+
+    /**
+     * Queue a frame for the encoder, giving up if the encoder has stopped, so
+     * a failed encoder never leaves this thread waiting on a full queue
+     *
+     * @param frames  Queue read by the encoder
+     * @param image   The frame, or END_OF_FRAMES
+     * @param encoder The encoder's result
+     * @return true if the frame was queued, false if the encoder has finished
+     */
+    private static boolean handOver(BlockingQueue<BufferedImage> frames, BufferedImage image, Future<Integer> encoder)
+            throws InterruptedException {
+        while (!frames.offer(image, 100, TimeUnit.MILLISECONDS)) {
+            if (encoder.isDone()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Encoder stage: write each queued frame as a PNG and append it to the GIF
+     *
+     * @return Number of frames written
+     */
+    private static int encodeFrames(BlockingQueue<BufferedImage> frames, File outputDir, int delayMs)
+            throws IOException, InterruptedException {
+        ImageWriter gif = ImageIO.getImageWritersByFormatName("gif").next();
+        int written = 0;
+        try (ImageOutputStream gifOut = ImageIO.createImageOutputStream(new File(outputDir, "animation.gif"))) {
+            gif.setOutput(gifOut);
+            gif.prepareWriteSequence(null);
+
+            BufferedImage image;
+            while ((image = frames.take()) != END_OF_FRAMES) {
+                ArtRenderer.writePng(image, new File(outputDir, String.format("frame_%03d.png", written)));
+
+                ImageWriteParam param = gif.getDefaultWriteParam();
+                IIOMetadata metadata = gif.getDefaultImageMetadata(
+                        ImageTypeSpecifier.createFromRenderedImage(image), param);
+                setFrameTiming(metadata, delayMs, written == 0);
+                gif.writeToSequence(new IIOImage(image, null, metadata), param);
+                written++;
+            }
+            gif.endWriteSequence();
+        } finally {
+            gif.dispose();
+        }
+        return written;
+    }
+
+    /**
+     * Set the frame delay and, on the first frame, make the GIF loop forever
+     *
+     * @param metadata   Metadata of the frame being written
+     * @param delayMs    Frame delay in milliseconds
+     * @param firstFrame Whether this is the first frame
+     */
+    private static void setFrameTiming(IIOMetadata metadata, int delayMs, boolean firstFrame) throws IOException {
+        String format = metadata.getNativeMetadataFormatName();
+        IIOMetadataNode root = (IIOMetadataNode) metadata.getAsTree(format);
+
+        IIOMetadataNode control = child(root, "GraphicControlExtension");
+        control.setAttribute("disposalMethod", "none");
+        control.setAttribute("userInputFlag", "FALSE");
+        control.setAttribute("transparentColorFlag", "FALSE");
+        control.setAttribute("delayTime", Integer.toString(Math.max(1, delayMs / 10))); // hundredths of a second
+        control.setAttribute("transparentColorIndex", "0");
+
+        if (firstFrame) {
+            IIOMetadataNode loop = new IIOMetadataNode("ApplicationExtension");
+            loop.setAttribute("applicationID", "NETSCAPE");
+            loop.setAttribute("authenticationCode", "2.0");
+            loop.setUserObject(new byte[] { 1, 0, 0 }); // loop count 0 = forever
+            child(root, "ApplicationExtensions").appendChild(loop);
+        }
+
+        metadata.setFromTree(format, root);
+    }
+
+    /**
+     * Find a child metadata node by name, adding it if missing
+     */
+    private static IIOMetadataNode child(IIOMetadataNode parent, String name) {
+        for (int i = 0; i < parent.getLength(); i++) {
+            if (parent.item(i).getNodeName().equals(name)) {
+                return (IIOMetadataNode) parent.item(i);
+            }
+        }
+        IIOMetadataNode node = new IIOMetadataNode(name);
+        parent.appendChild(node);
+        return node;
+    }
+
+    /**
+     * Command line entry point: AnimationExporter portfolio.ser "Title" outputDir [delayMs]
+     */
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+
+        if (args.length < 3) {
+            System.out.println("Usage: java AnimationExporter <portfolio.ser> <title> <outputDir> [delayMs]");
+            return;
+        }
+
+        try {
+            ArtPortfolio portfolio = ArtPortfolio.loadFromFile(args[0]);
+            ArtWork artwork = portfolio.findArtworkByTitle(args[1]);
+            if (artwork == null) {
+                System.out.println("Artwork not found: " + args[1]);
+                return;
+            }
+
+            long start = System.nanoTime();
+            int delay = args.length > 3 ? Integer.parseInt(args[3]) : 200;
+            int frames = exportAnimation(artwork, new File(args[2]), delay);
+            System.out.printf("%d frames written to %s in %.1f s\n", frames, args[2],
+                    (System.nanoTime() - start) / 1e9);
+        } catch (Exception e) {
+            System.out.println("Animation export failed: " + e.getMessage());
+        }
+    }
+}
@@ -87,11 +87,13 @@ public class ArtGenerator {
         System.out.println("4. Cellular Automata");
         System.out.println("5. L-System");
         System.out.println("6. Polygon Fractal");
-        System.out.println("7. Back to Main Menu");
+        System.out.println("7. IFS / Fractal Flame");
+        System.out.println("8. Forest Scene");
+        System.out.println("9. Back to Main Menu");
 
         int choice = getIntInput("Select artwork type: ");
 
-        if (choice == 7)
+        if (choice == 9)
             return;
 
         System.out.print("Enter artwork title: ");
@@ -120,6 +122,12 @@ public class ArtGenerator {
             case 6:
                 newArt = createPolygonFractalArt(title, artist);
                 break;
+            case 7:
+                newArt = createIfsArt(title, artist);
+                break;
+            case 8:
+                newArt = createForestScene(title, artist);
+                break;
             default:
                 System.out.println("Invalid choice.");
                 return;
@@ -147,6 +155,8 @@ public class ArtGenerator {
         System.out.println("1. Tree Fractal");
         System.out.println("2. Sierpinski Triangle");
         System.out.println("3. Koch Snowflake");
+        System.out.println("4. Mandelbrot Set");
+        System.out.println("5. Julia Set");
 
         int typeChoice = getIntInput("Select fractal type: ");
         String fractalType = "tree";
@@ -161,10 +171,49 @@ public class ArtGenerator {
             case 3:
                 fractalType = "koch";
                 break;
+            case 4:
+                fractalType = "mandelbrot";
+                break;
+            case 5:
+                fractalType = "julia";
+                break;
         }
 
-        int iterations = getIntInput("Enter number of iterations (3-10): ");
-        iterations = Math.max(3, Math.min(10, iterations));
+        if (typeChoice == 5) {
+            // Iteration limit per pixel: higher shows finer detail near the boundary
+            int maxIterations = getIntInput("Enter maximum iterations per pixel (50-5000): ");
+            maxIterations = Math.max(50, Math.min(5000, maxIterations));
+            return new FractalArt(title, artist, maxIterations, fractalType);
+        }
+        if (typeChoice == 4) {
+            System.out.print("Zoom into a point? (y/n): ");
+            if (!scanner.nextLine().toLowerCase().startsWith("y")) {
+                int maxIterations = getIntInput("Enter maximum iterations per pixel (50-5000): ");
+                maxIterations = Math.max(50, Math.min(5000, maxIterations));
+                return new FractalArt(title, artist, maxIterations, fractalType);
+            }
+
+            // Deep views sit on the boundary, where pixels need many more iterations
+            int maxIterations = getIntInput("Enter maximum iterations per pixel (50-100000): ");
+            maxIterations = Math.max(50, Math.min(100000, maxIterations));
+            FractalArt fractal = new FractalArt(title, artist, maxIterations, fractalType);
+            System.out.print("Enter the real part of the centre (e.g. -0.743643887037151): ");
+            String centerRe = scanner.nextLine();
+            System.out.print("Enter the imaginary part of the centre (e.g. 0.131825904205330): ");
+            String centerIm = scanner.nextLine();
+            int depth = getIntInput("Enter zoom depth as a power of ten (1-290, e.g. 50 for a view 1e-50 wide): ");
+            depth = Math.max(1, Math.min(290, depth)); // differences still fit in doubles
+            try {
+                fractal.setDeepZoom(centerRe, centerIm, Math.pow(10, -depth));
+            } catch (NumberFormatException e) {
+                System.out.println("Invalid centre, showing the whole set instead.");
+            }
+            return fractal;
+        }
+
+        // Levels below a pixel are cut short by the level of detail, so deep settings stay cheap
+        int iterations = getIntInput("Enter number of iterations (3-20): ");
+        iterations = Math.max(3, Math.min(20, iterations));
 
         return new FractalArt(title, artist, iterations, fractalType);
     }
@@ -175,8 +224,8 @@ public class ArtGenerator {
     private static ArtWork createRecursiveTree(String title, String artist) {
         System.out.println("\n--- Recursive Tree Options ---");
 
-        int depth = getIntInput("Enter tree depth (3-12): ");
-        depth = Math.max(3, Math.min(12, depth));
+        int depth = getIntInput("Enter tree depth (3-18): ");
+        depth = Math.max(3, Math.min(18, depth));
 
         System.out.print("Add randomness? (y/n): ");
         boolean randomized = scanner.nextLine().toLowerCase().startsWith("y");
@@ -325,6 +374,52 @@ public class ArtGenerator {
         return new PolygonFractalArt(title, artist, sides, depth, scaleFactor);
     }
 
+    /**
+     * Create an IFS artwork drawn by the chaos game
+     */
+    private static ArtWork createIfsArt(String title, String artist) {
+        System.out.println("\n--- IFS Options ---");
+        System.out.println("1. Barnsley Fern");
+        System.out.println("2. Sierpinski Triangle");
+        System.out.println("3. Fractal Flame");
+
+        int typeChoice = getIntInput("Select type: ");
+        String ifsType;
+        switch (typeChoice) {
+            case 2:
+                ifsType = "sierpinski";
+                break;
+            case 3:
+                ifsType = "flame";
+                break;
+            default:
+                ifsType = "fern";
+                break;
+        }
+
+        int millions = getIntInput("Enter samples in millions (1-5000): ");
+        millions = Math.max(1, Math.min(5000, millions));
+
+        return new IfsArt(title, artist, ifsType, millions * 1_000_000L);
+    }
+
+    /**
+     * Create a forest scene of many trees built from a few prototypes
+     */
+    private static ArtWork createForestScene(String title, String artist) {
+        System.out.println("\n--- Forest Scene Options ---");
+        int trees = getIntInput("Enter number of trees (1-5000): ");
+        trees = Math.max(1, Math.min(5000, trees));
+
+        int prototypes = getIntInput("Enter number of different trees (1-32): ");
+        prototypes = Math.max(1, Math.min(32, prototypes));
+
+        int depth = getIntInput("Enter tree depth (3-14): ");
+        depth = Math.max(3, Math.min(14, depth));
+
+        return new ForestSceneArt(title, artist, trees, prototypes, depth);
+    }
+
     /**
      * Menu for displaying artwork
      */
@@ -383,7 +478,10 @@ public class ArtGenerator {
         System.out.println("9. Save Portfolio to File");
         System.out.println("10. Load Portfolio from File");
         System.out.println("11. Run AI Art Critique on Artwork");
-        System.out.println("12. Back to Main Menu");
+        System.out.println("12. Render Portfolio to PNG Files");
+        System.out.println("13. Export Artwork as SVG");
+        System.out.println("14. Export Artwork Animation (PNG frames + GIF)");
+        System.out.println("15. Back to Main Menu");
 
         int choice = getIntInput("Select option: ");
 
@@ -445,8 +543,17 @@ public class ArtGenerator {
             case 11:
                 runAICritique();
                 break;
-
             case 12:
+                renderPortfolioToFiles();
+                break;
+            case 13:
+                exportArtworkSvg();
+                break;
+            case 14:
+                exportArtworkAnimation();
+                break;
+
+            case 15:
                 return;
 
         }
@@ -462,7 +569,9 @@ public class ArtGenerator {
         System.out.println("3. Galaxy Spiral");
         System.out.println("4. Generate Artwork ID");
         System.out.println("5. View Global Statistics");
-        System.out.println("6. Back to Main Menu");
+        System.out.println("6. Wind-Animated Tree");
+        System.out.println("7. Level of Detail Setting");
+        System.out.println("8. Back to Main Menu");
 
         int choice = getIntInput("Select feature: ");
 
@@ -489,10 +598,30 @@ public class ArtGenerator {
                 System.out.println("\n--- GLOBAL STATISTICS ---");
                 System.out.println("Total Portfolios: " + ArtPortfolio.getTotalPortfolios());
                 System.out.println("Total Artworks: " + ArtPortfolio.getTotalArtworksGlobal());
+                System.out.println(RenderCache.getShared());
+                break;
+            case 6:
+                createWindAnimatedTree();
+                break;
+            case 7:
+                setLevelOfDetail();
                 break;
         }
     }
 
+    /**
+     * Change the level-of-detail threshold used when drawing every artwork
+     */
+    private static void setLevelOfDetail() {
+        System.out.println("\n--- Level of Detail ---");
+        System.out.println("Current threshold: " + ArtWork.getDetailPixels() + " pixels");
+        System.out.println("Branches and shapes smaller than this on screen are drawn as a dot.");
+        System.out.println("Higher values draw faster with less fine detail; 0 draws every level.");
+        double pixels = getDoubleInput("Enter new threshold in pixels (e.g. 1): ");
+        ArtWork.setDetailPixels(pixels);
+        System.out.println("Level of detail set to " + ArtWork.getDetailPixels() + " pixels.");
+    }
+
     private static void runAICritique() {
         if (currentPortfolio.size() == 0) {
             System.out.println("Portfolio is empty!");
@@ -520,6 +649,7 @@ public class ArtGenerator {
         System.out.println("2. Summer");
         System.out.println("3. Fall");
         System.out.println("4. Winter");
+        System.out.println("5. All four seasons (one shared skeleton)");
 
         int season = getIntInput("Select season: ");
         String[] seasons = { "spring", "summer", "fall", "winter" };
@@ -532,6 +662,40 @@ public class ArtGenerator {
             if (scanner.nextLine().toLowerCase().startsWith("y")) {
                 currentPortfolio.addArtwork(seasonalTree);
             }
+        } else if (season == 5) {
+            // The branches are generated once and repainted for each season
+            RecursiveTree tree = new RecursiveTree("Seasonal Tree", "Nature", 8);
+            RecursiveTree[] variants = tree.createSeasonalVariants();
+            for (RecursiveTree variant : variants) {
+                variant.display();
+            }
+
+            System.out.print("\nAdd all four to portfolio? (y/n): ");
+            if (scanner.nextLine().toLowerCase().startsWith("y")) {
+                for (RecursiveTree variant : variants) {
+                    currentPortfolio.addArtwork(variant);
+                }
+            }
+        }
+    }
+
+    /**
+     * Create a random tree and show it swaying in the wind
+     */
+    private static void createWindAnimatedTree() {
+        System.out.println("\n--- Wind-Animated Tree ---");
+        int depth = getIntInput("Enter tree depth (1-14, 10 recommended): ");
+        depth = Math.max(1, Math.min(14, depth));
+
+        RecursiveTree tree = new RecursiveTree("Windy Tree", "Nature", depth, true, 2);
+        WindAnimation animation = tree.createWindAnimation();
+        System.out.println("Animating " + animation.getBranchCount() + " branches and " + animation.getLeafCount()
+                + " leaves. Frame times are printed when the window closes.");
+        GraphicsDisplay.showWindAnimation(animation, tree.getTitle());
+
+        System.out.print("\nAdd the tree to portfolio? (y/n): ");
+        if (scanner.nextLine().toLowerCase().startsWith("y")) {
+            currentPortfolio.addArtwork(tree);
         }
     }
 
@@ -696,6 +860,66 @@ public class ArtGenerator {
         }
     }
 
+    /**
+     * Export an artwork from the portfolio as an SVG vector file
+     */
+    private static void exportArtworkSvg() {
+        if (currentPortfolio.size() == 0) {
+            System.out.println("Portfolio is empty!");
+            return;
+        }
+
+        currentPortfolio.displayPortfolio();
+        System.out.print("\nEnter artwork number to export: ");
+        int artNum = getIntInput("");
+
+        if (artNum > 0 && artNum <= currentPortfolio.size()) {
+            ArtWork art = currentPortfolio.getArtworks().get(artNum - 1);
+
+            System.out.print("Enter filename to save (e.g., artwork.svg): ");
+            String filename = scanner.nextLine();
+
+            try {
+                art.exportSvg(filename);
+                System.out.println("SVG saved to " + filename);
+            } catch (Exception e) {
+                System.out.println("Error saving SVG: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Export an artwork from the portfolio as an animation of its growth
+     */
+    private static void exportArtworkAnimation() {
+        if (currentPortfolio.size() == 0) {
+            System.out.println("Portfolio is empty!");
+            return;
+        }
+
+        currentPortfolio.displayPortfolio();
+        System.out.print("\nEnter artwork number to animate: ");
+        int artNum = getIntInput("");
+
+        if (artNum > 0 && artNum <= currentPortfolio.size()) {
+            ArtWork art = currentPortfolio.getArtworks().get(artNum - 1);
+            if (art.getFrameCount() < 2) {
+                System.out.println(art.getArtType() + " does not evolve, so it has no animation.");
+                return;
+            }
+
+            System.out.print("Enter output directory (e.g., animation): ");
+            String outputDir = scanner.nextLine();
+
+            try {
+                int frames = AnimationExporter.exportAnimation(art, new java.io.File(outputDir), 200);
+                System.out.println(frames + " frames and animation.gif saved to " + outputDir);
+            } catch (Exception e) {
+                System.out.println("Error exporting animation: " + e.getMessage());
+            }
+        }
+    }
+
     /**
      * Save portfolio to file
      */
@@ -726,6 +950,29 @@ public class ArtGenerator {
         }
     }
 
+    /**
+     * Render every artwork in the portfolio to PNG files
+     */
+    private static void renderPortfolioToFiles() {
+        if (currentPortfolio.size() == 0) {
+            System.out.println("Portfolio is empty!");
+            return;
+        }
+
+        System.out.print("Enter output directory (e.g., renders): ");
+        String outputDir = scanner.nextLine();
+
+        try {
+            BatchRenderer renderer = new BatchRenderer();
+            long start = System.nanoTime();
+            ArrayList<BatchRenderer.RenderResult> results = renderer.renderPortfolio(currentPortfolio,
+                    new java.io.File(outputDir));
+            renderer.printReport(results, System.nanoTime() - start);
+        } catch (Exception e) {
+            System.out.println("Error rendering portfolio: " + e.getMessage());
+        }
+    }
+
     /**
      * Prompt user for depth and store it for stepScalingFactor calculation.
      */
@@ -749,6 +996,23 @@ public class ArtGenerator {
         return value;
     }
 
+    /**
+     * Get a decimal number from the user (like getIntInput)
+     *
+     * @param prompt Text shown before reading
+     * @return The number entered
+     */
+    private static double getDoubleInput(String prompt) {
+        System.out.print(prompt);
+        while (!scanner.hasNextDouble()) {
+            scanner.nextLine();
+            System.out.print("Please enter a number: ");
+        }
+        double value = scanner.nextDouble();
+        scanner.nextLine(); // Consume newline
+        return value;
+    }
+
     /**
      * Pause for user to read output
      */
@@ -0,0 +1,314 @@
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import javax.imageio.ImageIO;
+
+/**
+ * ArtRenderer class to rasterize artwork without opening a window.
+ * Shared by GraphicsDisplay and the headless batch renderer.
+ */
+public class ArtRenderer {
+    public static final int WIDTH = ArtWork.CANVAS_WIDTH;
+    public static final int HEIGHT = ArtWork.CANVAS_HEIGHT;
+
+    // Tile grid used by renderParallel (more tiles than cores for load balancing)
+    private static final int TILE_COLUMNS = 4;
+    private static final int TILE_ROWS = 4;
+
+    // Shared pool for tile rendering, created on first use
+    private static ExecutorService tilePool;
+
+    // Shared fork-join pool for work split inside one artwork, created on first use
+    private static ForkJoinPool computePool;
+
+    /**
+     * Render an artwork onto a new 800x600 image
+     *
+     * @param artwork The artwork to render
+     * @return The rendered image
+     */
+    public static BufferedImage render(ArtWork artwork) {
+        return render(artwork, WIDTH, HEIGHT);
+    }
+
+    /**
+     * Render an artwork at any size (method overloading).
+     * The 800x600 design canvas is scaled uniformly to fit and centred.
+     *
+     * @param artwork The artwork to render
+     * @param width   Target width in pixels
+     * @param height  Target height in pixels
+     * @return The rendered image
+     */
+    public static BufferedImage render(ArtWork artwork, int width, int height) {
+        return render(artwork, width, height, false);
+    }
+
+    /**
+     * Render an artwork at any size with a chosen backend (method overloading)
+     *
+     * @param artwork      The artwork to render
+     * @param width        Target width in pixels
+     * @param height       Target height in pixels
+     * @param directRaster true to write pixels directly with IntRasterSink,
+     *                     false to draw through Graphics2D
+     * @return The rendered image
+     */
+    public static BufferedImage render(ArtWork artwork, int width, int height, boolean directRaster) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        renderRegion(artwork, image, 0, 0, width, height, true, directRaster);
+        return image;
+    }
+
+    /**
+     * Render a quick 800x600 draft without antialiasing, for progressive display
+     *
+     * @param artwork The artwork (usually a reduced-detail preview) to render
+     * @return The rendered image
+     */
+    public static BufferedImage renderDraft(ArtWork artwork) {
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        renderRegion(artwork, image, 0, 0, WIDTH, HEIGHT, false, false);
+        return image;
+    }
+
+    /**
+     * Render one rectangular region of a larger target image into a smaller image.
+     * Used for tiles and poster bands so the full target never has to exist.
+     *
+     * @param artwork      The artwork to render
+     * @param region       Image receiving the region (its size is the region size)
+     * @param x            Left edge of the region within the target
+     * @param y            Top edge of the region within the target
+     * @param targetWidth  Width of the whole target
+     * @param targetHeight Height of the whole target
+     */
+    public static void renderRegion(ArtWork artwork, BufferedImage region, int x, int y,
+            int targetWidth, int targetHeight) {
+        renderRegion(artwork, region, x, y, targetWidth, targetHeight, true, false);
+    }
+
+    /**
+     * Render one region with antialiasing and the backend chosen (method overloading)
+     */
+    private static void renderRegion(ArtWork artwork, BufferedImage region, int x, int y,
+            int targetWidth, int targetHeight, boolean antialias, boolean directRaster) {
+        if (directRaster) {
+            double scale = Math.min((double) targetWidth / WIDTH, (double) targetHeight / HEIGHT);
+            IntRasterSink sink = new IntRasterSink(region, scale, (targetWidth - WIDTH * scale) / 2 - x,
+                    (targetHeight - HEIGHT * scale) / 2 - y, antialias);
+            sink.clear(0xFFFFFF);
+            sink.setVisibleArea((x - (targetWidth - WIDTH * scale) / 2) / scale,
+                    (y - (targetHeight - HEIGHT * scale) / 2) / scale, region.getWidth() / scale,
+                    region.getHeight() / scale);
+            sink.setLevelOfDetail(scale, ArtWork.getDetailPixels());
+            artwork.drawVisible(sink);
+            return;
+        }
+
+        Graphics2D g2d = region.createGraphics();
+        try {
+            g2d.setColor(Color.WHITE);
+            g2d.fillRect(0, 0, region.getWidth(), region.getHeight());
+            g2d.clipRect(0, 0, region.getWidth(), region.getHeight());
+            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+                    antialias ? RenderingHints.VALUE_ANTIALIAS_ON : RenderingHints.VALUE_ANTIALIAS_OFF);
+
+            // Move the region to the origin, then map the design canvas onto the target
+            g2d.translate(-x, -y);
+            fitCanvas(g2d, targetWidth, targetHeight);
+
+            artwork.drawGraphics(g2d);
+        } finally {
+            g2d.dispose();
+        }
+    }
+
+    /**
+     * Render a zoomed-in view of the canvas for the interactive viewer.
+     * Only the visible part is generated: recursive generators skip subtrees
+     * outside the view, so deep zooms cost about as much as the visible detail.
+     *
+     * @param artwork The artwork to render
+     * @param viewX   Canvas x at the left edge of the view
+     * @param viewY   Canvas y at the top edge of the view
+     * @param zoom    Pixels per canvas unit (1 shows the canvas at 800x600)
+     * @param width   View width in pixels
+     * @param height  View height in pixels
+     * @return The rendered view
+     */
+    public static BufferedImage renderViewport(ArtWork artwork, double viewX, double viewY, double zoom,
+            int width, int height) {
+        return renderViewport(artwork, viewX, viewY, zoom, width, height, ArtWork.getDetailPixels());
+    }
+
+    /**
+     * Render a zoomed-in view with its own level of detail (method overloading)
+     *
+     * @param artwork      The artwork to render
+     * @param viewX        Canvas x at the left edge of the view
+     * @param viewY        Canvas y at the top edge of the view
+     * @param zoom         Pixels per canvas unit (1 shows the canvas at 800x600)
+     * @param width        View width in pixels
+     * @param height       View height in pixels
+     * @param detailPixels Smallest size in pixels worth recursing into (0 draws every level)
+     * @return The rendered view
+     */
+    public static BufferedImage renderViewport(ArtWork artwork, double viewX, double viewY, double zoom,
+            int width, int height, double detailPixels) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        IntRasterSink sink = new IntRasterSink(image, zoom, -viewX * zoom, -viewY * zoom, true);
+        sink.clear(0xFFFFFF);
+        sink.setVisibleArea(viewX, viewY, width / zoom, height / zoom);
+        sink.setLevelOfDetail(zoom, detailPixels);
+
+        artwork.generateGeometry(sink);
+        return image;
+    }
+
+    /**
+     * Scale and centre the design canvas onto a target of the given size
+     *
+     * @param g2d          Graphics to transform
+     * @param targetWidth  Target width in pixels
+     * @param targetHeight Target height in pixels
+     */
+    private static void fitCanvas(Graphics2D g2d, int targetWidth, int targetHeight) {
+        double scale = Math.min((double) targetWidth / WIDTH, (double) targetHeight / HEIGHT);
+        g2d.translate((targetWidth - WIDTH * scale) / 2, (targetHeight - HEIGHT * scale) / 2);
+        g2d.scale(scale, scale);
+    }
+
+    /**
+     * Render an artwork with its tiles spread across all cores
+     *
+     * @param artwork The artwork to render
+     * @return The rendered image
+     */
+    public static BufferedImage renderParallel(ArtWork artwork) {
+        return renderParallel(artwork, TILE_COLUMNS, TILE_ROWS);
+    }
+
+    /**
+     * Render an artwork as a grid of tiles drawn in parallel (method overloading).
+     * Each tile gets its own clipped, translated Graphics2D and the tiles are
+     * stitched into the final image. All tiles replay the artwork's one
+     * recorded geometry, so they always agree at the seams.
+     *
+     * @param artwork The artwork to render
+     * @param columns Number of tile columns
+     * @param rows    Number of tile rows
+     * @return The rendered image
+     */
+    public static BufferedImage renderParallel(ArtWork artwork, int columns, int rows) {
+        if (columns * rows <= 1) {
+            return render(artwork);
+        }
+
+        if (!artwork.isComputedPerPixel()) {
+            artwork.getGeometry(); // generate once up front rather than racing in every tile
+        }
+        ExecutorService pool = getTilePool();
+        ArrayList<Future<BufferedImage>> tiles = new ArrayList<>();
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < columns; col++) {
+                int x = col * WIDTH / columns;
+                int y = row * HEIGHT / rows;
+                int w = (col + 1) * WIDTH / columns - x;
+                int h = (row + 1) * HEIGHT / rows - y;
+                tiles.add(pool.submit(() -> renderTile(artwork, x, y, w, h)));
+            }
+        }
+
+        // Stitch the tiles together in the same order they were submitted
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        int index = 0;
+        try {
+            for (int row = 0; row < rows; row++) {
+                for (int col = 0; col < columns; col++) {
+                    BufferedImage tile = tiles.get(index++).get();
+                    image.getRaster().setRect(col * WIDTH / columns, row * HEIGHT / rows, tile.getRaster());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancelAll(tiles);
+            throw new IllegalStateException("Interrupted while rendering " + artwork.getTitle(), e);
+        } catch (ExecutionException e) {
+            cancelAll(tiles);
+            throw new IllegalStateException("Tile render failed for " + artwork.getTitle(), e.getCause());
+        }
+        return image;
+    }
+
+    /**
+     * Render one tile of the canvas
+     *
+     * @param artwork The artwork to render
+     * @param x       Left edge of the tile on the canvas
+     * @param y       Top edge of the tile on the canvas
+     * @param w       Tile width
+     * @param h       Tile height
+     * @return An image holding only this tile
+     */
+    private static BufferedImage renderTile(ArtWork artwork, int x, int y, int w, int h) {
+        BufferedImage tile = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+        renderRegion(artwork, tile, x, y, WIDTH, HEIGHT);
+        return tile;
+    }
+
+    /**
+     * Cancel any tiles still pending after a failure
+     */
+    private static void cancelAll(ArrayList<Future<BufferedImage>> tiles) {
+        for (Future<BufferedImage> tile : tiles) {
+            tile.cancel(true);
+        }
+    }
+
+    /**
+     * Lazily create the shared tile pool with one daemon thread per core.
+     * Also used by PosterRenderer for its bands.
+     */
+    static synchronized ExecutorService getTilePool() {
+        if (tilePool == null) {
+            tilePool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), task -> {
+                Thread thread = new Thread(task, "art-tile-renderer");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return tilePool;
+    }
+
+    /**
+     * Lazily create the shared fork-join pool with one worker per core.
+     * Used by engines that split one artwork's pixels or samples into tasks;
+     * being fork-join, it can be entered from tile and batch threads safely.
+     */
+    static synchronized ForkJoinPool getComputePool() {
+        if (computePool == null) {
+            computePool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        }
+        return computePool;
+    }
+
+    /**
+     * Write a rendered image to a PNG file
+     *
+     * @param image The image to write
+     * @param file  The destination file
+     */
+    public static void writePng(BufferedImage image, File file) throws IOException {
+        if (!ImageIO.write(image, "png", file)) {
+            throw new IOException("No PNG writer available for " + file);
+        }
+    }
+}
@@ -1,14 +1,22 @@
 import java.util.Date;
 import java.util.Objects;
+import java.util.Random;
 import java.awt.Graphics2D;
+import java.awt.Shape;
+import java.awt.geom.Rectangle2D;
 import java.io.Serializable;
 
 /**
  * Abstract base class for all types of artwork in the portfolio.
  * This class demonstrates inheritance, abstraction, and proper OOP design.
  */
-public abstract class ArtWork implements Serializable {
+public abstract class ArtWork implements Serializable, Cloneable {
     private static final long serialVersionUID = 1L;
+
+    // Design canvas every artwork draws into; renderers scale it to the target size
+    public static final int CANVAS_WIDTH = 800;
+    public static final int CANVAS_HEIGHT = 600;
+
     // Protected instance variables (accessible by subclasses)
     protected String title;
     protected String artist;
@@ -16,6 +24,19 @@ public abstract class ArtWork implements Serializable {
     protected int complexityLevel;
     protected String description;
 
+    // Seed of every random choice the artwork makes, saved with the portfolio
+    // so a random artwork looks the same each time it is drawn
+    protected long seed;
+
+    // Primitives generated once and shared by every renderer (not saved with the portfolio)
+    private transient GeometryRecording geometry;
+    // Pixels per canvas unit and level-of-detail threshold the recording was made for
+    private transient double geometryScale;
+    private transient double geometryDetail;
+
+    // Subtrees smaller than this many pixels on screen are drawn as a dot
+    private static double detailPixels = 1.0;
+
     /**
      * Constructor for ArtWork
      * 
@@ -28,6 +49,7 @@ public abstract class ArtWork implements Serializable {
         this.creationDate = new Date(); // Current date
         this.complexityLevel = 0; // Will be calculated by subclass
         this.description = "";
+        this.seed = new Random().nextLong();
     }
 
     /**
@@ -70,12 +92,329 @@ public abstract class ArtWork implements Serializable {
      */
     public abstract String getDescription();
 
+    /**
+     * Generate the artwork's primitives into a sink, in the 800x600 design canvas
+     * 
+     * @param sink The sink receiving lines, polygons and ovals
+     */
+    public abstract void generateGeometry(GeometrySink sink);
+
     /**
      * Draw the artwork using graphics
      * 
      * @param g2d The Graphics2D object to draw with
      */
-    public abstract void drawGraphics(Graphics2D g2d);
+    public void drawGraphics(Graphics2D g2d) {
+        // The transform's area scale tells how many pixels one canvas unit covers
+        double pixelScale = Math.sqrt(Math.abs(g2d.getTransform().getDeterminant()));
+        Graphics2DSink sink = new Graphics2DSink(g2d);
+        Shape clip = g2d.getClip();
+        if (clip != null) {
+            Rectangle2D area = clip.getBounds2D(); // in canvas units, as the transform is already set
+            sink.setVisibleArea(area.getX(), area.getY(), area.getWidth(), area.getHeight());
+        }
+        sink.setLevelOfDetail(pixelScale, getDetailPixels());
+        drawVisible(sink);
+        sink.flush();
+    }
+
+    /**
+     * Draw the part of the artwork a sink can see, at the sink's pixel scale.
+     * Artworks computed pixel by pixel generate just that area at full
+     * resolution, so a poster band or tile never needs an image of the whole
+     * canvas; the others replay their recording.
+     * 
+     * @param sink Sink with its visible area and level of detail set
+     */
+    public void drawVisible(GeometrySink sink) {
+        if (isComputedPerPixel()) {
+            generateGeometry(sink);
+        } else {
+            getGeometry(sink.getPixelScale()).replay(sink);
+        }
+    }
+
+    /**
+     * Whether every output pixel is computed on its own, as in escape-time
+     * fractals, rather than drawn from shapes
+     * 
+     * @return true to generate each visible area instead of replaying a recording
+     */
+    public boolean isComputedPerPixel() {
+        return false;
+    }
+
+    /**
+     * How far a recursive subtree can reach from its start when each level is
+     * a fixed ratio of the one before (a geometric series). Used to skip
+     * subtrees outside the visible area.
+     * 
+     * @param length First level's length
+     * @param ratio  Length ratio between levels
+     * @param levels Number of levels in the subtree
+     * @return Upper bound on the distance from the start point
+     */
+    protected static double subtreeReach(double length, double ratio, int levels) {
+        if (ratio >= 1) {
+            return length * Math.pow(ratio, levels) * levels;
+        }
+        return length * (1 - Math.pow(ratio, levels)) / (1 - ratio);
+    }
+
+    /**
+     * How many levels a recursion really draws when it stops once its pieces
+     * fall below the level of detail
+     * 
+     * @param size       Size of the first level's piece in canvas units
+     * @param ratio      Size ratio between levels
+     * @param levels       Levels the parameters ask for
+     * @param pixelScale   Output pixels per canvas unit
+     * @param detailPixels Smallest size in pixels worth recursing into
+     * @return Levels drawn, from 1 to levels
+     */
+    protected static int levelsAboveDetail(double size, double ratio, int levels, double pixelScale,
+            double detailPixels) {
+        int drawn = 1;
+        while (drawn < levels && size * pixelScale >= detailPixels) {
+            size *= ratio;
+            drawn++;
+        }
+        return drawn;
+    }
+
+    /**
+     * Total pieces in a recursion where every piece has the same number of
+     * children: 1 + n + n^2 + ... over the given number of levels
+     * 
+     * @param childrenPerPiece Children of each piece
+     * @param levels           Number of levels
+     * @return The total, as a double so huge trees do not overflow
+     */
+    protected static double piecesInLevels(double childrenPerPiece, int levels) {
+        if (childrenPerPiece == 1) {
+            return levels;
+        }
+        return (Math.pow(childrenPerPiece, levels) - 1) / (childrenPerPiece - 1);
+    }
+
+    /**
+     * Estimate how many primitives generateGeometry will emit, from the
+     * parameters alone and without generating anything
+     * 
+     * @param pixelScale   Output pixels per canvas unit, which decides how deep
+     *                     the level of detail lets the recursion go
+     * @param detailPixels Level-of-detail threshold of the sink that will be
+     *                     drawn into (0 draws every level)
+     * @return Estimated primitive count
+     */
+    public abstract long estimatePrimitives(double pixelScale, double detailPixels);
+
+    /**
+     * Estimate the primitives of a render with the shared level-of-detail
+     * threshold (method overloading)
+     * 
+     * @param pixelScale Output pixels per canvas unit
+     * @return Estimated primitive count
+     */
+    public long estimatePrimitives(double pixelScale) {
+        return estimatePrimitives(pixelScale, getDetailPixels());
+    }
+
+    /**
+     * Work done before any primitive is drawn, such as simulating generations
+     * 
+     * @param pixelScale   Output pixels per canvas unit, for work done per pixel
+     * @param detailPixels Level-of-detail threshold of the sink that will be
+     *                     drawn into (0 draws every level)
+     * @return Number of simulation steps (0 for most artworks)
+     */
+    protected long estimateSimulationSteps(double pixelScale, double detailPixels) {
+        return 0;
+    }
+
+    /**
+     * Estimate the simulation steps of a render with the shared
+     * level-of-detail threshold (method overloading)
+     * 
+     * @param pixelScale Output pixels per canvas unit
+     * @return Number of simulation steps
+     */
+    protected long estimateSimulationSteps(double pixelScale) {
+        return estimateSimulationSteps(pixelScale, getDetailPixels());
+    }
+
+    /**
+     * How costly one of this artwork's primitives is to draw compared with a
+     * short line, such as a big outline polygon or a filled shape
+     * 
+     * @return The weight (1 for short lines)
+     */
+    protected double estimatePrimitiveWeight() {
+        return 1;
+    }
+
+    /**
+     * Estimate the time and memory a render at a given size will take
+     * 
+     * @param width        Image width in pixels
+     * @param height       Image height in pixels
+     * @param directRaster true for the int[] raster backend, false for Graphics2D
+     * @return The estimate
+     */
+    public RenderCost estimateCost(int width, int height, boolean directRaster) {
+        return estimateCost(width, height, directRaster, getDetailPixels());
+    }
+
+    /**
+     * Estimate a render drawn with its own level of detail (method overloading)
+     * 
+     * @param width        Image width in pixels
+     * @param height       Image height in pixels
+     * @param directRaster true for the int[] raster backend, false for Graphics2D
+     * @param detailPixels Smallest size in pixels worth recursing into (0 draws every level)
+     * @return The estimate
+     */
+    public RenderCost estimateCost(int width, int height, boolean directRaster, double detailPixels) {
+        double scale = Math.min((double) width / CANVAS_WIDTH, (double) height / CANVAS_HEIGHT);
+        return new RenderCost(estimatePrimitives(scale, detailPixels), estimatePrimitiveWeight(),
+                estimateSimulationSteps(scale, detailPixels), width, height, directRaster);
+    }
+
+    /**
+     * Get the artwork's primitives, generating them on first use.
+     * Every draw, tile and description reads this same recording, so the
+     * geometry is computed once and all outputs agree.
+     * 
+     * @return The recorded primitives
+     */
+    public GeometryRecording getGeometry() {
+        return getGeometry(1);
+    }
+
+    /**
+     * Get the artwork's primitives with enough detail for a given output scale
+     * (method overloading). Subtrees below the detail threshold at that scale
+     * are cut short, so a recording made for a larger scale also serves smaller
+     * ones; asking for a larger scale records again with more detail.
+     * Changing the detail threshold also records again.
+     * 
+     * @param pixelScale Output pixels per canvas unit
+     * @return The recorded primitives
+     */
+    public synchronized GeometryRecording getGeometry(double pixelScale) {
+        double detail = getDetailPixels();
+        if (geometry == null || pixelScale > geometryScale || detail != geometryDetail) {
+            GeometryRecording recording = new GeometryRecording();
+            recording.setLevelOfDetail(pixelScale, detail);
+            geometryScale = pixelScale;
+            geometryDetail = detail;
+            generateGeometry(recording);
+            geometry = recording;
+        }
+        return geometry;
+    }
+
+    /**
+     * Set the level-of-detail threshold used for all artworks. Recordings and
+     * cached renders made with another threshold are not reused.
+     * 
+     * @param pixels Smallest size in pixels worth recursing into (0 draws every level)
+     */
+    public static synchronized void setDetailPixels(double pixels) {
+        detailPixels = Math.max(0, pixels);
+    }
+
+    public static synchronized double getDetailPixels() {
+        return detailPixels;
+    }
+
+    /**
+     * Drop the recorded primitives so they are regenerated on next use.
+     * Called when parameters change, or to free memory after rendering.
+     */
+    public synchronized void releaseGeometry() {
+        geometry = null;
+    }
+
+    /**
+     * Create a cheaper copy of this artwork with some recursion levels removed,
+     * used to show coarse passes while the full artwork is still rendering
+     * 
+     * @param levelsRemoved How many levels of depth to drop
+     * @return The reduced copy, or null if this artwork has no cheaper form
+     */
+    public ArtWork createPreview(int levelsRemoved) {
+        return null;
+    }
+
+    /**
+     * Number of frames when the artwork is animated, such as one per
+     * generation or recursion depth
+     * 
+     * @return The frame count (1 for artworks that do not evolve)
+     */
+    public int getFrameCount() {
+        return 1;
+    }
+
+    /**
+     * Create the artwork as it looks at one animation frame.
+     * Frames are normally requested in order, which lets evolving artworks
+     * step forward from the previous frame instead of starting over.
+     * 
+     * @param frame Frame index, from 0 to getFrameCount() - 1
+     * @return The artwork for that frame (this artwork for the last frame)
+     */
+    public ArtWork createFrame(int frame) {
+        return this;
+    }
+
+    /**
+     * Make a shallow copy of this artwork for subclasses to adjust
+     * 
+     * @return The copy
+     */
+    protected ArtWork copy() {
+        try {
+            ArtWork copy = (ArtWork) super.clone();
+            copy.geometry = null; // the copy's parameters are about to change
+            return copy;
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException("ArtWork must be cloneable", e);
+        }
+    }
+
+    /**
+     * Get every parameter that affects what drawGraphics paints, in a fixed
+     * order and format, so equal parameters always give equal strings
+     * 
+     * @return Canonical parameter string
+     */
+    protected abstract String getRenderParameters();
+
+    /**
+     * Get a hash of the artwork type, its render parameters and the
+     * level-of-detail threshold. Two artworks with the same key paint
+     * identical images.
+     * 
+     * @return Hex SHA-256 key
+     */
+    public String getRenderKey() {
+        try {
+            java.security.MessageDigest digest = java.security.MessageDigest.getInstance("SHA-256");
+            String canonical = getClass().getName() + "|" + getRenderParameters() + "|detail="
+                    + getDetailPixels();
+            byte[] hash = digest.digest(canonical.getBytes(java.nio.charset.StandardCharsets.UTF_8));
+
+            StringBuilder key = new StringBuilder();
+            for (byte b : hash) {
+                key.append(String.format("%02x", b));
+            }
+            return key.toString();
+        } catch (java.security.NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
 
     // Concrete methods
 
@@ -115,16 +454,70 @@ public abstract class ArtWork implements Serializable {
      * @param filename The name of the file to write to
      */
     public void exportDescription(String filename) throws java.io.IOException {
-        try (java.io.PrintWriter out = new java.io.PrintWriter(new java.io.FileWriter(filename))) {
+        try (java.io.PrintWriter out = new java.io.PrintWriter(
+                new java.io.BufferedWriter(new java.io.FileWriter(filename), 1 << 16))) {
             out.println("Artwork Title: " + getTitle());
             out.println("Artist: " + getArtist());
             out.println("Type: " + getArtType());
             out.println("Description: " + getDescription());
             out.println("Complexity Level: " + getComplexityLevel());
             out.println("Creation Date: " + getCreationDate());
+            out.println();
+            out.println("Primitive Trace:");
+
+            // Every primitive, streamed to the file as it is generated
+            DescriptionSink trace = createTraceSink(out, Integer.MAX_VALUE);
+            generateGeometry(trace);
+            trace.finish();
+            if (out.checkError()) {
+                throw new java.io.IOException("Error writing " + filename);
+            }
+        }
+    }
+
+    /**
+     * Create the sink that writes this artwork's primitive trace, labelled to
+     * suit the artwork type
+     * 
+     * @param out      Destination of the trace lines
+     * @param maxLines Most lines to write (0 only counts them)
+     * @return The trace sink
+     */
+    protected DescriptionSink createTraceSink(Appendable out, int maxLines) {
+        return new DescriptionSink("Line", "Shape", "Point", 0, out, maxLines);
+    }
+
+    /**
+     * Export the artwork as an SVG vector file at the design canvas size
+     * 
+     * @param filename The name of the file to write to
+     */
+    public void exportSvg(String filename) throws java.io.IOException {
+        try (java.io.Writer out = new java.io.BufferedWriter(new java.io.OutputStreamWriter(
+                new java.io.FileOutputStream(filename), java.nio.charset.StandardCharsets.UTF_8))) {
+            exportSvg(out, CANVAS_WIDTH, CANVAS_HEIGHT);
         }
     }
 
+    /**
+     * Stream the artwork as SVG to a writer (method overloading).
+     * The document is written while the geometry is generated, so memory
+     * stays constant however many primitives there are.
+     * 
+     * @param out    Writer receiving the document
+     * @param width  Document width in pixels
+     * @param height Document height in pixels
+     */
+    public void exportSvg(java.io.Writer out, int width, int height) throws java.io.IOException {
+        SvgSink svg = new SvgSink(out, width, height);
+        try {
+            generateGeometry(svg);
+        } catch (java.io.UncheckedIOException e) {
+            throw e.getCause();
+        }
+        svg.finish();
+    }
+
     // Getters and setters
     public String getTitle() {
         return title;
@@ -145,4 +538,19 @@ public abstract class ArtWork implements Serializable {
     public void setDescription(String description) {
         this.description = description;
     }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Choose the seed of the artwork's random choices, such as to recreate a
+     * picture seen before
+     * 
+     * @param seed The new seed
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+        releaseGeometry();
+    }
 }
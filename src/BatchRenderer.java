@@ -0,0 +1,590 @@
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BatchRenderer class to render whole portfolios to PNG files without a display.
+ * Artworks are rendered on a bounded worker pool sized to the number of cores.
+ * Each artwork's cost is estimated before rendering; artworks over the budget
+ * are downgraded to fewer levels or rejected without doing any work.
+ */
+public class BatchRenderer {
+    // Timed renders per artwork when calibrating the cost model
+    private static final int CALIBRATION_RUNS = 3;
+
+    // Allocation check: levels between the two sizes compared, passes per size
+    // and the most bytes the larger size may add for its deeper per-pass tables
+    private static final int ALLOCATION_LEVELS = 2;
+    private static final int ALLOCATION_RUNS = 3;
+    private static final long ALLOCATION_ALLOWANCE = 1024;
+
+    // Zoomed view check: how far to zoom in and how many views per artwork
+    private static final double ZOOM_CHECK_ZOOM = 100;
+    private static final int ZOOM_CHECK_VIEWS = 8;
+
+    private int threadCount;
+    private boolean directRaster;
+    private double maxMillis = Double.POSITIVE_INFINITY;
+    private long maxBytes = Long.MAX_VALUE;
+
+    /**
+     * Constructor using one worker per available core
+     */
+    public BatchRenderer() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructor with an explicit worker count (method overloading)
+     *
+     * @param threadCount Number of worker threads
+     */
+    public BatchRenderer(int threadCount) {
+        this.threadCount = Math.max(1, threadCount);
+    }
+
+    /**
+     * Choose the rendering backend for later batches
+     *
+     * @param directRaster true for IntRasterSink, false for Graphics2D
+     */
+    public void setDirectRaster(boolean directRaster) {
+        this.directRaster = directRaster;
+    }
+
+    /**
+     * Set the budget each artwork must fit into, judged by its estimated cost
+     *
+     * @param maxMillis Longest estimated render time allowed per artwork
+     * @param maxBytes  Most estimated memory allowed per artwork
+     */
+    public void setBudget(double maxMillis, long maxBytes) {
+        this.maxMillis = maxMillis;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Render every artwork of a saved portfolio file
+     *
+     * @param portfolioFile File written by ArtPortfolio.saveToFile
+     * @param outputDir     Directory to write the PNG files to
+     * @return One result per artwork, in portfolio order
+     */
+    public ArrayList<RenderResult> renderPortfolio(String portfolioFile, String outputDir)
+            throws IOException, ClassNotFoundException, InterruptedException {
+        return renderPortfolio(ArtPortfolio.loadFromFile(portfolioFile), new File(outputDir));
+    }
+
+    /**
+     * Render every artwork of a portfolio (method overloading)
+     *
+     * @param portfolio The portfolio to render
+     * @param outputDir Directory to write the PNG files to
+     * @return One result per artwork, in portfolio order
+     */
+    public ArrayList<RenderResult> renderPortfolio(ArtPortfolio portfolio, File outputDir)
+            throws IOException, InterruptedException {
+        if (!outputDir.isDirectory() && !outputDir.mkdirs()) {
+            throw new IOException("Cannot create output directory " + outputDir);
+        }
+
+        ArrayList<ArtWork> artworks = portfolio.getArtworks();
+        ArrayList<Future<RenderResult>> futures = new ArrayList<>();
+
+        // Bounded queue: when it is full the submitting thread renders the job itself
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threadCount, threadCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threadCount * 2), new ThreadPoolExecutor.CallerRunsPolicy());
+        try {
+            for (int i = 0; i < artworks.size(); i++) {
+                ArtWork art = artworks.get(i);
+                File target = new File(outputDir, fileNameFor(i + 1, art));
+
+                // Admission control: drop levels until the estimate fits, or reject
+                RenderCost estimate = art.estimateCost(ArtRenderer.WIDTH, ArtRenderer.HEIGHT, directRaster);
+                RenderCost fullEstimate = estimate;
+                ArtWork job = art;
+                int levelsRemoved = 0;
+                while (job != null && !estimate.fitsWithin(maxMillis, maxBytes)) {
+                    levelsRemoved++;
+                    job = art.createPreview(levelsRemoved);
+                    if (job != null) {
+                        estimate = job.estimateCost(ArtRenderer.WIDTH, ArtRenderer.HEIGHT, directRaster);
+                    }
+                }
+
+                if (job == null) {
+                    Exception rejected = new IllegalStateException("over budget, estimated " + fullEstimate);
+                    futures.add(CompletableFuture.completedFuture(
+                            new RenderResult(art, target, 0, 0, -1, rejected)));
+                } else {
+                    ArtWork admitted = job;
+                    RenderCost admittedEstimate = estimate;
+                    int removed = levelsRemoved;
+                    futures.add(pool.submit(() -> renderOne(admitted, target, admittedEstimate, removed)));
+                }
+            }
+
+            ArrayList<RenderResult> results = new ArrayList<>();
+            for (Future<RenderResult> future : futures) {
+                try {
+                    results.add(future.get());
+                } catch (ExecutionException e) {
+                    // renderOne catches its own failures, so this is unexpected
+                    throw new IOException("Render worker failed", e.getCause());
+                }
+            }
+            return results;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Render a single artwork and write it to disk, timing the work
+     *
+     * @param art           The artwork to render
+     * @param target        The PNG file to write
+     * @param estimate      The cost estimated before rendering
+     * @param levelsRemoved Levels dropped to fit the budget
+     * @return The timing result
+     */
+    private RenderResult renderOne(ArtWork art, File target, RenderCost estimate, int levelsRemoved) {
+        long start = System.nanoTime();
+        long allocatedBefore = threadAllocatedBytes();
+        try {
+            BufferedImage image = ArtRenderer.render(art, ArtRenderer.WIDTH, ArtRenderer.HEIGHT, directRaster);
+            long rendered = System.nanoTime();
+            long allocated = allocatedBefore < 0 ? -1 : threadAllocatedBytes() - allocatedBefore;
+            ArtRenderer.writePng(image, target);
+            return new RenderResult(art, target, rendered - start, System.nanoTime() - rendered, allocated,
+                    estimate, levelsRemoved);
+        } catch (Exception | OutOfMemoryError e) {
+            return new RenderResult(art, target, System.nanoTime() - start, 0, -1, e);
+        }
+    }
+
+    /**
+     * Check that each artwork's recursive draw methods make no garbage per
+     * primitive. Every artwork is generated into a GeometryCounter, which
+     * stores nothing, both as it is and two levels shallower. The tables an
+     * artwork builds once per pass are allowed for, but the bytes allocated
+     * must not grow with the number of primitives.
+     *
+     * @param portfolio The portfolio to check
+     * @return true if no artwork allocated per primitive
+     */
+    public boolean checkAllocations(ArtPortfolio portfolio) {
+        if (threadAllocatedBytes() < 0) {
+            System.out.println("This JVM cannot measure allocations.");
+            return false;
+        }
+
+        System.out.println("\n=== GEOMETRY ALLOCATION CHECK ===");
+        System.out.printf("%-30s %10s %10s %10s %10s %10s\n", "Artwork", "Small", "Allocated", "Large",
+                "Allocated", "Growth");
+        boolean allClean = true;
+        for (ArtWork art : portfolio.getArtworks()) {
+            ArtWork small = art.createPreview(ALLOCATION_LEVELS);
+            if (small == null) {
+                small = art.createPreview(1);
+            }
+            if (small == null) {
+                System.out.printf("%-30s skipped: too shallow to compare two sizes\n", art.getTitle());
+                continue;
+            }
+
+            GeometryCounter smallCounter = new GeometryCounter();
+            GeometryCounter largeCounter = new GeometryCounter();
+            long smallBytes = measureAllocation(small, smallCounter);
+            long largeBytes = measureAllocation(art, largeCounter);
+            long growth = largeBytes - smallBytes;
+
+            // More primitives may cost a few more table entries, never more per primitive
+            boolean clean = growth <= ALLOCATION_ALLOWANCE;
+            allClean &= clean;
+            System.out.printf("%-30s %10d %8d B %10d %8d B %8d B %s\n", art.getTitle(),
+                    smallCounter.getPrimitives(), smallBytes, largeCounter.getPrimitives(), largeBytes, growth,
+                    clean ? "" : "<- allocates per primitive");
+        }
+        System.out.println(allClean ? "PASSED" : "FAILED");
+        System.out.println("===========================\n");
+        return allClean;
+    }
+
+    /**
+     * Bytes allocated by generating an artwork's geometry once. The artwork is
+     * generated a few times and the smallest count kept, so class loading and
+     * one-off caches are not counted.
+     *
+     * @param art     The artwork to generate
+     * @param counter Sink receiving the last pass, for its primitive count
+     * @return The byte count
+     */
+    private static long measureAllocation(ArtWork art, GeometryCounter counter) {
+        long fewest = Long.MAX_VALUE;
+        for (int run = 0; run < ALLOCATION_RUNS; run++) {
+            GeometryCounter sink = run == ALLOCATION_RUNS - 1 ? counter : new GeometryCounter();
+            long before = threadAllocatedBytes();
+            art.generateGeometry(sink);
+            fewest = Math.min(fewest, threadAllocatedBytes() - before);
+        }
+        return fewest;
+    }
+
+    /**
+     * Check that zoomed-in views still get real detail. For each artwork a
+     * few views are generated at a high zoom, culled to the view as the
+     * interactive viewer does, and centred on points of the artwork's own
+     * lines. Any zero-length segment means coordinates were cut to a coarser
+     * grid than the zoom shows, so a branch collapsed to a dot.
+     *
+     * @param portfolio The portfolio to check
+     * @param zoom      Pixels per canvas unit of the views
+     * @return true if no view had a zero-length segment
+     */
+    public boolean checkZoomedViews(ArtPortfolio portfolio, double zoom) {
+        System.out.println("\n=== ZOOMED VIEW CHECK (" + zoom + "x) ===");
+        System.out.printf("%-30s %6s %12s %12s\n", "Artwork", "Views", "Segments", "Zero-length");
+        double viewWidth = ArtRenderer.WIDTH / zoom;
+        double viewHeight = ArtRenderer.HEIGHT / zoom;
+        boolean allClean = true;
+        for (ArtWork art : portfolio.getArtworks()) {
+            SegmentSampler sampler = new SegmentSampler(ZOOM_CHECK_VIEWS, art.getGeometry().getSegmentCount());
+            art.getGeometry().replay(sampler);
+
+            long segments = 0;
+            long zeroLength = 0;
+            for (int v = 0; v < sampler.count; v++) {
+                GeometryCounter view = new GeometryCounter();
+                view.setVisibleArea(sampler.xs[v] - viewWidth / 2, sampler.ys[v] - viewHeight / 2, viewWidth,
+                        viewHeight);
+                view.setLevelOfDetail(zoom, ArtWork.getDetailPixels());
+                art.generateGeometry(view);
+                segments += view.getSegments();
+                zeroLength += view.getZeroLengthSegments();
+            }
+
+            boolean clean = zeroLength == 0;
+            allClean &= clean;
+            System.out.printf("%-30s %6d %12d %12d %s\n", art.getTitle(), sampler.count, segments, zeroLength,
+                    clean ? "" : "<- collapsed to dots");
+        }
+        System.out.println(allClean ? "PASSED" : "FAILED");
+        System.out.println("===========================\n");
+        return allClean;
+    }
+
+    /**
+     * Sink that keeps the midpoints of evenly spaced segments, to centre views on
+     */
+    private static class SegmentSampler extends GeometrySink {
+        private final double[] xs;
+        private final double[] ys;
+        private final long spacing;
+        private long seen;
+        private int count;
+
+        SegmentSampler(int samples, long segments) {
+            this.xs = new double[samples];
+            this.ys = new double[samples];
+            this.spacing = Math.max(1, segments / samples);
+        }
+
+        @Override
+        public void segment(double x1, double y1, double x2, double y2, int depth, int colorId, int strokeId) {
+            if (seen++ % spacing == spacing / 2 && count < xs.length) {
+                xs[count] = (x1 + x2) / 2;
+                ys[count] = (y1 + y2) / 2;
+                count++;
+            }
+        }
+
+        @Override
+        public void polygon(double[] xs, double[] ys, int count, int depth, int colorId, int strokeId,
+                boolean filled) {
+        }
+
+        @Override
+        public void oval(double x, double y, double width, double height, int depth, int colorId, int strokeId,
+                boolean filled) {
+        }
+
+        @Override
+        public void image(int[] argb, int columns, int rows, double x, double y, double width, double height,
+                int depth) {
+        }
+    }
+
+    /**
+     * Compare every artwork's estimated cost with a measured render and print
+     * both, to check and tune the constants in RenderCost
+     *
+     * @param portfolio The portfolio to measure
+     */
+    public void calibrateCosts(ArtPortfolio portfolio) {
+        for (boolean raster : new boolean[] { false, true }) {
+            System.out.println("\n=== COST MODEL CALIBRATION (" + (raster ? "int[] raster" : "Graphics2D") + ") ===");
+            System.out.printf("%-30s %12s %12s %10s %10s %7s\n", "Artwork", "Est prims", "Prims", "Est ms", "ms",
+                    "Ratio");
+            for (ArtWork art : portfolio.getArtworks()) {
+                RenderCost estimate = art.estimateCost(ArtRenderer.WIDTH, ArtRenderer.HEIGHT, raster);
+
+                // Warm up, then time renders that generate their geometry from scratch
+                ArtRenderer.render(art, ArtRenderer.WIDTH, ArtRenderer.HEIGHT, raster);
+                long start = System.nanoTime();
+                for (int run = 0; run < CALIBRATION_RUNS; run++) {
+                    art.releaseGeometry();
+                    ArtRenderer.render(art, ArtRenderer.WIDTH, ArtRenderer.HEIGHT, raster);
+                }
+                double millis = (System.nanoTime() - start) / 1e6 / CALIBRATION_RUNS;
+
+                System.out.printf("%-30s %12d %12d %10.1f %10.1f %6.2fx\n", art.getTitle(),
+                        estimate.getPrimitives(), art.getGeometry().getPrimitiveCount(), estimate.getMillis(), millis,
+                        estimate.getMillis() / Math.max(0.001, millis));
+            }
+            System.out.println("===========================\n");
+        }
+    }
+
+    /**
+     * Bytes allocated so far by the calling thread
+     *
+     * @return The byte count, or -1 if the JVM does not support measuring it
+     */
+    static long threadAllocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+            if (threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+                return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Time both rendering backends on every artwork of a portfolio and print
+     * the results. Runs on the calling thread so the two are measured alike;
+     * geometry is generated before timing, so only rasterization is compared.
+     *
+     * @param portfolio The portfolio to benchmark
+     * @param runs      Timed renders per artwork and backend
+     */
+    public void compareBackends(ArtPortfolio portfolio, int runs) {
+        System.out.println("\n=== BACKEND COMPARISON (" + runs + " runs each) ===");
+        System.out.printf("%-30s %10s %12s %12s %8s\n", "Artwork", "Primitives", "Graphics2D", "int[] raster",
+                "Speedup");
+
+        long totalJava2d = 0;
+        long totalRaster = 0;
+        for (ArtWork art : portfolio.getArtworks()) {
+            int primitives = art.getGeometry().getPrimitiveCount();
+            long java2d = timeRenders(art, runs, false);
+            long raster = timeRenders(art, runs, true);
+            totalJava2d += java2d;
+            totalRaster += raster;
+            System.out.printf("%-30s %10d %9.2f ms %9.2f ms %7.1fx\n", art.getTitle(), primitives,
+                    java2d / 1e6 / runs, raster / 1e6 / runs, (double) java2d / Math.max(1, raster));
+        }
+
+        System.out.println("---------------------------");
+        System.out.printf("Total per pass: Graphics2D %.1f ms, int[] raster %.1f ms (%.1fx)\n",
+                totalJava2d / 1e6 / runs, totalRaster / 1e6 / runs, (double) totalJava2d / Math.max(1, totalRaster));
+        System.out.println("===========================\n");
+    }
+
+    /**
+     * Render an artwork several times after one warm-up render
+     *
+     * @return Total nanoseconds for the timed renders
+     */
+    private static long timeRenders(ArtWork art, int runs, boolean directRaster) {
+        ArtRenderer.render(art, ArtRenderer.WIDTH, ArtRenderer.HEIGHT, directRaster);
+        long start = System.nanoTime();
+        for (int i = 0; i < runs; i++) {
+            ArtRenderer.render(art, ArtRenderer.WIDTH, ArtRenderer.HEIGHT, directRaster);
+        }
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Build a file name from the artwork's position and title
+     *
+     * @param index 1-based position in the portfolio
+     * @param art   The artwork
+     * @return A file name safe for any file system
+     */
+    private static String fileNameFor(int index, ArtWork art) {
+        String safeTitle = art.getTitle().replaceAll("[^A-Za-z0-9_-]+", "_");
+        return String.format("%03d_%s.png", index, safeTitle);
+    }
+
+    /**
+     * Print the per-artwork timings of a batch run
+     *
+     * @param results   The results to report
+     * @param wallNanos Wall-clock duration of the whole batch
+     */
+    public void printReport(ArrayList<RenderResult> results, long wallNanos) {
+        System.out.println("\n=== BATCH RENDER REPORT ===");
+        System.out.println("Workers: " + threadCount);
+        System.out.println("Backend: " + (directRaster ? "int[] raster" : "Graphics2D"));
+
+        long totalRender = 0;
+        int failures = 0;
+        for (RenderResult result : results) {
+            System.out.println(result);
+            totalRender += result.getRenderNanos() + result.getWriteNanos();
+            if (!result.isSuccess()) {
+                failures++;
+            }
+        }
+
+        System.out.println("---------------------------");
+        System.out.printf("Artworks: %d (%d failed)\n", results.size(), failures);
+        System.out.printf("Summed render+write time: %.1f ms\n", totalRender / 1e6);
+        System.out.printf("Wall-clock time: %.1f ms\n", wallNanos / 1e6);
+        System.out.println("===========================\n");
+    }
+
+    /**
+     * Command line entry point:
+     * BatchRenderer portfolio.ser outputDir [threads] [java2d|raster|compare|alloc|zoom|calibrate] [maxMs]
+     * [maxMB] [detailPx]
+     */
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+
+        if (args.length < 2) {
+            System.out.println("Usage: java BatchRenderer <portfolio.ser> <outputDir> [threads] "
+                    + "[java2d|raster|compare|alloc|zoom|calibrate] [maxMs] [maxMB] [detailPx]");
+            return;
+        }
+
+        BatchRenderer renderer = args.length > 2 ? new BatchRenderer(Integer.parseInt(args[2]))
+                : new BatchRenderer();
+        String backend = args.length > 3 ? args[3].toLowerCase() : "java2d";
+        renderer.setDirectRaster(backend.equals("raster"));
+        if (args.length > 6) {
+            ArtWork.setDetailPixels(Double.parseDouble(args[6]));
+        }
+        if (args.length > 4 && !args[4].equals("-")) { // "-" for no budget
+            long maxMegabytes = args.length > 5 && !args[5].equals("-") ? Long.parseLong(args[5])
+                    : Long.MAX_VALUE / (1 << 20);
+            renderer.setBudget(Double.parseDouble(args[4]), maxMegabytes << 20);
+        }
+        try {
+            if (backend.equals("compare")) {
+                renderer.compareBackends(ArtPortfolio.loadFromFile(args[0]), 10);
+                return;
+            }
+            if (backend.equals("calibrate")) {
+                renderer.calibrateCosts(ArtPortfolio.loadFromFile(args[0]));
+                return;
+            }
+            if (backend.equals("zoom")) {
+                if (!renderer.checkZoomedViews(ArtPortfolio.loadFromFile(args[0]), ZOOM_CHECK_ZOOM)) {
+                    System.exit(1);
+                }
+                return;
+            }
+            if (backend.equals("alloc")) {
+                if (!renderer.checkAllocations(ArtPortfolio.loadFromFile(args[0]))) {
+                    System.exit(1);
+                }
+                return;
+            }
+
+            long start = System.nanoTime();
+            ArrayList<RenderResult> results = renderer.renderPortfolio(args[0], args[1]);
+            renderer.printReport(results, System.nanoTime() - start);
+        } catch (Exception e) {
+            System.out.println("Batch render failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Timing and outcome of rendering one artwork
+     */
+    public static class RenderResult {
+        private ArtWork artwork;
+        private File file;
+        private long renderNanos;
+        private long writeNanos;
+        private long allocatedBytes;
+        private RenderCost estimate;
+        private int levelsRemoved;
+        private Throwable error;
+
+        public RenderResult(ArtWork artwork, File file, long renderNanos, long writeNanos, long allocatedBytes,
+                Throwable error) {
+            this.artwork = artwork;
+            this.file = file;
+            this.renderNanos = renderNanos;
+            this.writeNanos = writeNanos;
+            this.allocatedBytes = allocatedBytes;
+            this.error = error;
+        }
+
+        /**
+         * Constructor for a successful render with its estimate (method overloading)
+         */
+        public RenderResult(ArtWork artwork, File file, long renderNanos, long writeNanos, long allocatedBytes,
+                RenderCost estimate, int levelsRemoved) {
+            this(artwork, file, renderNanos, writeNanos, allocatedBytes, null);
+            this.estimate = estimate;
+            this.levelsRemoved = levelsRemoved;
+        }
+
+        public ArtWork getArtwork() {
+            return artwork;
+        }
+
+        public File getFile() {
+            return file;
+        }
+
+        public long getRenderNanos() {
+            return renderNanos;
+        }
+
+        public long getWriteNanos() {
+            return writeNanos;
+        }
+
+        public long getAllocatedBytes() {
+            return allocatedBytes;
+        }
+
+        public RenderCost getEstimate() {
+            return estimate;
+        }
+
+        public int getLevelsRemoved() {
+            return levelsRemoved;
+        }
+
+        public boolean isSuccess() {
+            return error == null;
+        }
+
+        @Override
+        public String toString() {
+            if (error != null) {
+                return String.format("FAILED  %-30s %8.1f ms  (%s)", artwork.getTitle(), renderNanos / 1e6, error);
+            }
+            String downgraded = levelsRemoved > 0 ? "  (" + levelsRemoved + " levels removed)" : "";
+            return String.format("OK      %-30s render %8.1f ms (est %8.1f)  write %8.1f ms  alloc %7.1f KB  -> %s%s",
+                    artwork.getTitle(), renderNanos / 1e6, estimate == null ? 0 : estimate.getMillis(),
+                    writeNanos / 1e6, allocatedBytes / 1024.0, file.getName(), downgraded);
+        }
+    }
+}
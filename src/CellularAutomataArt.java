@@ -12,6 +12,11 @@ public class CellularAutomataArt extends ArtWork {
 
     private boolean[][] grid;
     private int[][] ageGrid;
+    private transient boolean[][] evolvedGrid; // grid after all generations
+    private transient int[][] evolvedAgeGrid;
+    private transient boolean[][] frameGrid; // grid at frameIndex while exporting an animation
+    private transient int[][] frameAgeGrid;
+    private transient int frameIndex;
     private int size;
     private int generations;
 
@@ -24,24 +29,40 @@ public class CellularAutomataArt extends ArtWork {
         this.size = size;
         this.generations = generations;
         this.description = "Advanced Cellular Automata pattern with aging (HighLife B36/S23)";
+        this.complexityLevel = calculateComplexity();
 
         // Initialize rule -> HighLife (B36/S23)
         birthSet = parseRule("36");
         survivalSet = parseRule("23");
 
-        // Initialize grids
+        seedGrid();
+    }
+
+    /**
+     * Fill the starting grid from the artwork's seed, each row from its own
+     * random numbers
+     */
+    private void seedGrid() {
         grid = new boolean[size][size];
         ageGrid = new int[size][size];
-
-        Random rand = new Random();
         for (int i = 0; i < size; i++) {
+            long rowSeed = PathRandom.child(seed, i);
             for (int j = 0; j < size; j++) {
-                grid[i][j] = rand.nextDouble() < 0.2; // 20% alive
+                grid[i][j] = PathRandom.unit(rowSeed, j) < 0.2; // 20% alive
                 ageGrid[i][j] = grid[i][j] ? 1 : 0;
             }
         }
     }
 
+    @Override
+    public synchronized void setSeed(long seed) {
+        super.setSeed(seed);
+        seedGrid();
+        evolvedGrid = null;
+        evolvedAgeGrid = null;
+        frameGrid = null;
+    }
+
     @Override
     public void display() {
         GraphicsDisplay.showArtwork(this);
@@ -49,7 +70,18 @@ public class CellularAutomataArt extends ArtWork {
 
     @Override
     public int calculateComplexity() {
-        return generations * size * size;
+        // Cell updates over all generations, capped instead of overflowing
+        return (int) Math.min(Integer.MAX_VALUE, estimateSimulationSteps(1));
+    }
+
+    @Override
+    public long estimatePrimitives(double pixelScale, double detailPixels) {
+        return (long) size * size; // at most one square per cell
+    }
+
+    @Override
+    protected long estimateSimulationSteps(double pixelScale, double detailPixels) {
+        return (long) generations * size * size;
     }
 
     @Override
@@ -63,62 +95,145 @@ public class CellularAutomataArt extends ArtWork {
     }
 
     @Override
-    public void drawGraphics(Graphics2D g2d) {
-        int cellSize = 600 / size;
+    public int getFrameCount() {
+        return generations + 1; // the seed grid, then one frame per generation
+    }
 
-        // Run generations
-        for (int gen = 0; gen < generations; gen++) {
+    @Override
+    public synchronized ArtWork createFrame(int frame) {
+        // Continue from the last frame when possible instead of re-running every generation
+        if (frameGrid == null || frame < frameIndex) {
+            frameGrid = grid;
+            frameAgeGrid = ageGrid;
+            frameIndex = 0;
+        }
+        while (frameIndex < frame) {
             boolean[][] newGrid = new boolean[size][size];
             int[][] newAgeGrid = new int[size][size];
+            step(frameGrid, frameAgeGrid, newGrid, newAgeGrid);
+            frameGrid = newGrid;
+            frameAgeGrid = newAgeGrid;
+            frameIndex++;
+        }
+
+        // The frame is a still of this grid (grids are never modified, so they can be shared)
+        CellularAutomataArt still = (CellularAutomataArt) copy();
+        still.grid = frameGrid;
+        still.ageGrid = frameAgeGrid;
+        still.generations = 0;
+        still.evolvedGrid = null;
+        still.evolvedAgeGrid = null;
+        still.frameGrid = null;
+        return still;
+    }
+
+    @Override
+    protected String getRenderParameters() {
+        // The random starting grid is part of the picture, so encode it cell by cell
+        StringBuilder cells = new StringBuilder(size * size);
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                cells.append(grid[i][j] ? '1' : '0');
+            }
+        }
+        return "size=" + size + ";generations=" + generations + ";birth=" + new TreeSet<>(birthSet)
+                + ";survival=" + new TreeSet<>(survivalSet) + ";grid=" + cells;
+    }
 
-            for (int i = 0; i < size; i++) {
-                for (int j = 0; j < size; j++) {
-                    int neighbors = countAliveNeighbors(i, j);
-
-                    if (grid[i][j]) {
-                        // Alive → survives if in survivalSet
-                        newGrid[i][j] = survivalSet.contains(neighbors);
-                    } else {
-                        // Dead → born if in birthSet
-                        newGrid[i][j] = birthSet.contains(neighbors);
-                    }
-
-                    // Update age grid
-                    if (newGrid[i][j]) {
-                        newAgeGrid[i][j] = ageGrid[i][j] + 1;
-                    } else {
-                        newAgeGrid[i][j] = 0;
-                    }
+    @Override
+    public void generateGeometry(GeometrySink sink) {
+        int cellSize = CANVAS_HEIGHT / size;
+
+        // Run generations (computed once, so repeated or tiled draws agree)
+        boolean[][] finalGrid;
+        int[][] finalAgeGrid;
+        synchronized (this) {
+            if (evolvedGrid == null) {
+                evolveGenerations();
+            }
+            finalGrid = evolvedGrid;
+            finalAgeGrid = evolvedAgeGrid;
+        }
+
+        // Draw final grid, each cell as a filled square
+        int stroke = sink.defineStroke(1);
+        int deadColor = sink.defineColor(new Color(25, 30, 35));
+
+        // Alive cell -> color based on age using hue gradient (allow wider gradient up to 60)
+        int[] ageColors = new int[61];
+        for (int age = 0; age <= 60; age++) {
+            float hue = 1.0f - (float) age / 60;
+            ageColors[age] = sink.defineColor(Color.getHSBColor(hue, 1.0f, 1.0f));
+        }
+
+        double[] xs = new double[4];
+        double[] ys = new double[4];
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                int color = deadColor;
+                int age = 0;
+                if (finalGrid[i][j]) {
+                    age = Math.min(finalAgeGrid[i][j], 60);
+                    color = ageColors[age];
                 }
+                xs[0] = xs[3] = i * cellSize;
+                xs[1] = xs[2] = (i + 1) * cellSize;
+                ys[0] = ys[1] = j * cellSize;
+                ys[2] = ys[3] = (j + 1) * cellSize;
+                sink.polygon(xs, ys, 4, age, color, stroke, true);
             }
+        }
+    }
 
-            grid = newGrid;
-            ageGrid = newAgeGrid;
+    /*
+     * Run all generations from the seeded grid without modifying it
+     */
+    private void evolveGenerations() {
+        boolean[][] current = grid;
+        int[][] currentAge = ageGrid;
+
+        for (int gen = 0; gen < generations; gen++) {
+            boolean[][] newGrid = new boolean[size][size];
+            int[][] newAgeGrid = new int[size][size];
+            step(current, currentAge, newGrid, newAgeGrid);
+            current = newGrid;
+            currentAge = newAgeGrid;
         }
 
-        // Draw final grid
+        evolvedGrid = current;
+        evolvedAgeGrid = currentAge;
+    }
+
+    /*
+     * Compute one generation into newGrid and newAgeGrid
+     */
+    private void step(boolean[][] current, int[][] currentAge, boolean[][] newGrid, int[][] newAgeGrid) {
         for (int i = 0; i < size; i++) {
             for (int j = 0; j < size; j++) {
-                if (grid[i][j]) {
-                    // Alive cell -> color based on age using hue gradient
-                    int age = Math.min(ageGrid[i][j], 60); // allow wider gradient
-                    float hue = 1.0f - (float) age / 60;
-                    Color cellColor = Color.getHSBColor(hue, 1.0f, 1.0f);
-                    g2d.setColor(cellColor);
+                int neighbors = countAliveNeighbors(current, i, j);
+
+                if (current[i][j]) {
+                    // Alive → survives if in survivalSet
+                    newGrid[i][j] = survivalSet.contains(neighbors);
+                } else {
+                    // Dead → born if in birthSet
+                    newGrid[i][j] = birthSet.contains(neighbors);
+                }
+
+                // Update age grid
+                if (newGrid[i][j]) {
+                    newAgeGrid[i][j] = currentAge[i][j] + 1;
                 } else {
-                    // Dead cell
-                    g2d.setColor(new Color(25, 30, 35));
+                    newAgeGrid[i][j] = 0;
                 }
-                g2d.fillRect(i * cellSize, j * cellSize, cellSize, cellSize);
             }
         }
-
     }
 
     /*
      * Count number of live neighbors for cell (x, y)
      */
-    private int countAliveNeighbors(int x, int y) {
+    private int countAliveNeighbors(boolean[][] cells, int x, int y) {
         int count = 0;
 
         for (int dx = -1; dx <= 1; dx++) {
@@ -130,7 +245,7 @@ public class CellularAutomataArt extends ArtWork {
                 int ny = y + dy;
 
                 if (nx >= 0 && nx < size && ny >= 0 && ny < size) {
-                    if (grid[nx][ny])
+                    if (cells[nx][ny])
                         count++;
                 }
             }
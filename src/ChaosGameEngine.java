@@ -0,0 +1,369 @@
+import java.util.Arrays;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ChaosGameEngine class that renders an iterated function system by the chaos
+ * game: a point jumps again and again through randomly picked transforms,
+ * and every pixel it lands on counts one hit.
+ * Each worker thread adds hits to its own histogram, so the hot loop needs no
+ * shared writes or atomics; the histograms are summed once at the end and
+ * turned into colours by log-density tone mapping.
+ * Samples are split into a fixed number of streams with their own seeds, and
+ * hits and colours are summed as integers, so the result is the same whatever
+ * the core count or the order workers pick the streams in.
+ */
+public class ChaosGameEngine {
+    // Variations bend the affine result; LINEAR leaves it as it is
+    public static final int LINEAR = 0;
+    public static final int SINUSOIDAL = 1;
+    public static final int SPHERICAL = 2;
+    public static final int SWIRL = 3;
+    public static final int HORSESHOE = 4;
+
+    // Independent sample streams, more than cores so fast workers take more of them
+    private static final int STREAMS = 256;
+
+    // Jumps at the start of each stream that are not plotted, while the point
+    // is still travelling to the attractor
+    private static final int FUSE = 20;
+
+    // Transform chosen by the top bits of a random number: each transform
+    // fills a share of the table equal to its weight
+    private static final int PICK_BITS = 12;
+
+    // Memory all workers' histograms may use together (12 bytes per pixel each)
+    private static final long HISTOGRAM_BUDGET = 256L << 20;
+
+    private double[] coefficients = new double[6 * 4];
+    private int[] variations = new int[4];
+    private double[] weights = new double[4];
+    private int[] colorIndexes = new int[4];
+    private int count;
+
+    /**
+     * Add a transform (x, y) -> (a x + b y + c, d x + e y + f), followed by a variation
+     *
+     * @param weight    How often it is picked, relative to the other transforms
+     * @param a         x coefficient of the new x
+     * @param b         y coefficient of the new x
+     * @param c         Offset of the new x
+     * @param d         x coefficient of the new y
+     * @param e         y coefficient of the new y
+     * @param f         Offset of the new y
+     * @param variation LINEAR, SINUSOIDAL, SPHERICAL, SWIRL or HORSESHOE
+     * @param color     Palette position this transform pulls points towards, 0 to 1
+     */
+    public void addTransform(double weight, double a, double b, double c, double d, double e, double f,
+            int variation, double color) {
+        if (count == variations.length) {
+            coefficients = Arrays.copyOf(coefficients, count * 12);
+            variations = Arrays.copyOf(variations, count * 2);
+            weights = Arrays.copyOf(weights, count * 2);
+            colorIndexes = Arrays.copyOf(colorIndexes, count * 2);
+        }
+        System.arraycopy(new double[] { a, b, c, d, e, f }, 0, coefficients, count * 6, 6);
+        variations[count] = variation;
+        weights[count] = weight;
+        colorIndexes[count] = (int) Math.round(Math.max(0, Math.min(1, color)) * 255);
+        count++;
+    }
+
+    /**
+     * Play the chaos game on all cores and sum the hits
+     *
+     * @param samples Total number of points to plot
+     * @param seed    Seed of the random streams
+     * @param left    World x at the left edge of the histogram
+     * @param top     World y at the top edge (world y grows upwards)
+     * @param scale   Histogram pixels per world unit
+     * @param columns Histogram width
+     * @param rows    Histogram height
+     * @return The merged histogram
+     */
+    public Histogram run(long samples, long seed, double left, double top, double scale, int columns, int rows) {
+        if (count == 0) {
+            throw new IllegalStateException("The chaos game needs at least one transform");
+        }
+        int[] pickTable = buildPickTable();
+        long bytesPerWorker = (long) columns * rows * 12;
+        int workers = (int) Math.max(1, Math.min(ArtRenderer.getComputePool().getParallelism(),
+                HISTOGRAM_BUDGET / bytesPerWorker));
+
+        AtomicInteger nextStream = new AtomicInteger();
+        Histogram[] histograms = new Histogram[workers];
+        ChaosTask[] tasks = new ChaosTask[workers];
+        for (int i = 0; i < workers; i++) {
+            histograms[i] = new Histogram(columns, rows);
+            tasks[i] = new ChaosTask(histograms[i], nextStream, pickTable, samples, seed, left, top, scale);
+        }
+        ArtRenderer.getComputePool().invoke(new RecursiveAction() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected void compute() {
+                invokeAll(tasks);
+            }
+        });
+
+        // Add the other histograms into the first, each worker summing a slice of pixels
+        Histogram merged = histograms[0];
+        if (workers > 1) {
+            MergeTask[] merges = new MergeTask[workers];
+            int pixels = columns * rows;
+            for (int i = 0; i < workers; i++) {
+                merges[i] = new MergeTask(histograms, (int) ((long) pixels * i / workers),
+                        (int) ((long) pixels * (i + 1) / workers));
+            }
+            ArtRenderer.getComputePool().invoke(new RecursiveAction() {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected void compute() {
+                    invokeAll(merges);
+                }
+            });
+        }
+        return merged;
+    }
+
+    /**
+     * One worker: takes streams until none are left, plotting into its own histogram
+     */
+    private class ChaosTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final Histogram histogram;
+        private final AtomicInteger nextStream;
+        private final int[] pickTable;
+        private final long samples;
+        private final long seed;
+        private final double left;
+        private final double top;
+        private final double scale;
+
+        ChaosTask(Histogram histogram, AtomicInteger nextStream, int[] pickTable, long samples, long seed,
+                double left, double top, double scale) {
+            this.histogram = histogram;
+            this.nextStream = nextStream;
+            this.pickTable = pickTable;
+            this.samples = samples;
+            this.seed = seed;
+            this.left = left;
+            this.top = top;
+            this.scale = scale;
+        }
+
+        @Override
+        protected void compute() {
+            int stream;
+            while ((stream = nextStream.getAndIncrement()) < STREAMS) {
+                // Spread the remainder over the first streams
+                long length = samples / STREAMS + (stream < samples % STREAMS ? 1 : 0);
+                playStream(histogram, pickTable, length, mix(seed + stream), left, top, scale);
+            }
+        }
+    }
+
+    /**
+     * Plot one stream of samples. This is the hot loop: a random number, a
+     * table lookup, an affine map, a variation and a histogram increment.
+     */
+    private void playStream(Histogram histogram, int[] pickTable, long samples, long state, double left,
+            double top, double scale) {
+        int[] hits = histogram.hits;
+        long[] colorSums = histogram.colorSums;
+        int columns = histogram.columns;
+        int rows = histogram.rows;
+        double[] co = coefficients;
+        int[] variation = variations;
+        int[] colorIndex = colorIndexes;
+
+        // xorshift64* random numbers kept in a local, which is faster than a Random object
+        double x = (state >>> 11) * 0x1.0p-52 - 1;
+        double y = (mix(state) >>> 11) * 0x1.0p-52 - 1;
+        int color = 128;
+        for (long i = -FUSE; i < samples; i++) {
+            state ^= state >>> 12;
+            state ^= state << 25;
+            state ^= state >>> 27;
+            int t = pickTable[(int) ((state * 0x2545F4914F6CDD1DL) >>> (64 - PICK_BITS))];
+
+            int k = t * 6;
+            double nx = co[k] * x + co[k + 1] * y + co[k + 2];
+            double ny = co[k + 3] * x + co[k + 4] * y + co[k + 5];
+            switch (variation[t]) {
+                case SINUSOIDAL:
+                    x = Math.sin(nx);
+                    y = Math.sin(ny);
+                    break;
+                case SPHERICAL: {
+                    double r2 = nx * nx + ny * ny + 1e-12;
+                    x = nx / r2;
+                    y = ny / r2;
+                    break;
+                }
+                case SWIRL: {
+                    double r2 = nx * nx + ny * ny;
+                    double sin = Math.sin(r2);
+                    double cos = Math.cos(r2);
+                    x = nx * sin - ny * cos;
+                    y = nx * cos + ny * sin;
+                    break;
+                }
+                case HORSESHOE: {
+                    double r = Math.sqrt(nx * nx + ny * ny) + 1e-12;
+                    x = (nx - ny) * (nx + ny) / r;
+                    y = 2 * nx * ny / r;
+                    break;
+                }
+                default:
+                    x = nx;
+                    y = ny;
+                    break;
+            }
+            color = (color + colorIndex[t]) >> 1;
+
+            // A point thrown far away (or to infinity) starts over near the origin
+            if (!(Math.abs(x) < 1e10 && Math.abs(y) < 1e10)) {
+                x = (state >>> 11) * 0x1.0p-52 - 1;
+                y = 0;
+                continue;
+            }
+            if (i < 0) {
+                continue;
+            }
+            double column = (x - left) * scale;
+            double row = (top - y) * scale;
+            if (column >= 0 && row >= 0 && column < columns && row < rows) {
+                int index = (int) row * columns + (int) column;
+                hits[index]++;
+                colorSums[index] += color;
+            }
+        }
+    }
+
+    /**
+     * Table of transform indexes, each filling a share proportional to its weight
+     */
+    private int[] buildPickTable() {
+        double total = 0;
+        for (int i = 0; i < count; i++) {
+            total += weights[i];
+        }
+        int[] table = new int[1 << PICK_BITS];
+        double filled = 0;
+        int position = 0;
+        for (int i = 0; i < count; i++) {
+            filled += weights[i];
+            int end = i == count - 1 ? table.length : (int) Math.round(filled / total * table.length);
+            while (position < end) {
+                table[position++] = i;
+            }
+        }
+        return table;
+    }
+
+    /**
+     * SplitMix64 finalizer, turning nearby seeds into unrelated ones (never 0,
+     * which xorshift cannot leave)
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z ^= z >>> 31;
+        return z == 0 ? 1 : z;
+    }
+
+    /**
+     * Sums one slice of every histogram into the first
+     */
+    private static class MergeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final Histogram[] histograms;
+        private final int from;
+        private final int to;
+
+        MergeTask(Histogram[] histograms, int from, int to) {
+            this.histograms = histograms;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            Histogram target = histograms[0];
+            for (int h = 1; h < histograms.length; h++) {
+                for (int i = from; i < to; i++) {
+                    target.hits[i] += histograms[h].hits[i];
+                    target.colorSums[i] += histograms[h].colorSums[i];
+                }
+            }
+        }
+    }
+
+    /**
+     * Hit counts and summed palette positions per pixel
+     */
+    public static class Histogram {
+        private final int[] hits;
+        private final long[] colorSums;
+        private final int columns;
+        private final int rows;
+
+        Histogram(int columns, int rows) {
+            this.columns = columns;
+            this.rows = rows;
+            this.hits = new int[columns * rows];
+            this.colorSums = new long[columns * rows];
+        }
+
+        /**
+         * Turn the hits into colours. Brightness follows the logarithm of the
+         * hit count relative to the busiest pixel, so faint and dense parts
+         * both stay visible, and gamma lifts the dim end further.
+         *
+         * @param palette    256 colours indexed by palette position
+         * @param background Colour of pixels that were never hit, 0xRRGGBB
+         * @param gamma      Gamma applied to the brightness (1 for none)
+         * @return Colours packed as 0xAARRGGBB, row by row
+         */
+        public int[] toneMap(int[] palette, int background, double gamma) {
+            int maxHits = 0;
+            for (int h : hits) {
+                maxHits = Math.max(maxHits, h);
+            }
+            int[] argb = new int[hits.length];
+            double logMax = Math.log1p(maxHits);
+            for (int i = 0; i < hits.length; i++) {
+                if (hits[i] == 0) {
+                    argb[i] = 0xFF000000 | background;
+                    continue;
+                }
+                double alpha = Math.pow(Math.log1p(hits[i]) / logMax, 1 / gamma);
+                int color = palette[(int) (colorSums[i] / hits[i])];
+                int r = (int) (((color >> 16) & 0xFF) * alpha + ((background >> 16) & 0xFF) * (1 - alpha));
+                int g = (int) (((color >> 8) & 0xFF) * alpha + ((background >> 8) & 0xFF) * (1 - alpha));
+                int b = (int) ((color & 0xFF) * alpha + (background & 0xFF) * (1 - alpha));
+                argb[i] = 0xFF000000 | (r << 16) | (g << 8) | b;
+            }
+            return argb;
+        }
+
+        // Getters
+        public long getTotalHits() {
+            long total = 0;
+            for (int h : hits) {
+                total += h;
+            }
+            return total;
+        }
+
+        public int getColumns() {
+            return columns;
+        }
+
+        public int getRows() {
+            return rows;
+        }
+    }
+}
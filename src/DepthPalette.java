@@ -0,0 +1,44 @@
+/**
+ * DepthPalette class holding the colour id and stroke id used at each
+ * recursion depth. Artworks fill it once per geometry pass, so the recursive
+ * draw methods only look ids up instead of creating Color and stroke objects
+ * for every branch.
+ */
+public class DepthPalette {
+    private int[] colorIds;
+    private int[] strokeIds;
+
+    /**
+     * Constructor for DepthPalette
+     *
+     * @param maxDepth Deepest depth that will be looked up (depth 0 is included)
+     */
+    public DepthPalette(int maxDepth) {
+        this.colorIds = new int[Math.max(0, maxDepth) + 1];
+        this.strokeIds = new int[colorIds.length];
+    }
+
+    /**
+     * Set the ids for one depth
+     *
+     * @param depth    The recursion depth
+     * @param colorId  Colour id from the sink
+     * @param strokeId Stroke id from the sink
+     */
+    public void set(int depth, int colorId, int strokeId) {
+        colorIds[depth] = colorId;
+        strokeIds[depth] = strokeId;
+    }
+
+    public int getColor(int depth) {
+        return colorIds[depth];
+    }
+
+    public int getStroke(int depth) {
+        return strokeIds[depth];
+    }
+
+    public int getMaxDepth() {
+        return colorIds.length - 1;
+    }
+}
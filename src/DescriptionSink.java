@@ -0,0 +1,227 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * DescriptionSink class that turns a primitive stream into a text trace, one
+ * line per primitive. Lines are appended to any Appendable as they arrive:
+ * a StringBuilder for the short summary kept as an artwork's description, or
+ * a file Writer so traces of millions of lines stream to disk in constant
+ * memory. A line limit keeps the summary bounded; lines past it are only
+ * counted. Primitive tags are turned into names by describeTag, only for the
+ * lines actually written.
+ */
+public class DescriptionSink extends GeometrySink {
+    // Lines kept in an artwork's stored description
+    public static final int SUMMARY_LINES = 200;
+
+    private Appendable out;
+    private int maxLines;
+    private long lineCount;
+    private long omittedLines;
+    private StringBuilder line = new StringBuilder(96);
+    private String segmentLabel;
+    private String polygonLabel;
+    private String ovalLabel;
+    private int indentDepth;
+
+    /**
+     * Constructor for a bounded summary held in memory
+     *
+     * @param segmentLabel Label for lines (e.g. "Branch")
+     * @param polygonLabel Label for polygons (e.g. "Triangle")
+     * @param ovalLabel    Label for ovals (e.g. "Leaf")
+     * @param indentDepth  Depth of the root, used to indent deeper primitives
+     *                     (0 for no indentation)
+     */
+    public DescriptionSink(String segmentLabel, String polygonLabel, String ovalLabel, int indentDepth) {
+        this(segmentLabel, polygonLabel, ovalLabel, indentDepth, new StringBuilder(), SUMMARY_LINES);
+    }
+
+    /**
+     * Constructor writing to any destination (method overloading)
+     *
+     * @param segmentLabel Label for lines (e.g. "Branch")
+     * @param polygonLabel Label for polygons (e.g. "Triangle")
+     * @param ovalLabel    Label for ovals (e.g. "Leaf")
+     * @param indentDepth  Depth of the root, used to indent deeper primitives
+     *                     (0 for no indentation)
+     * @param out          Destination of the lines (buffer it when it is a file)
+     * @param maxLines     Most lines to write; later ones are only counted
+     *                     (0 keeps just the count)
+     */
+    public DescriptionSink(String segmentLabel, String polygonLabel, String ovalLabel, int indentDepth,
+            Appendable out, int maxLines) {
+        this.out = out;
+        this.maxLines = maxLines;
+        this.segmentLabel = segmentLabel;
+        this.polygonLabel = polygonLabel;
+        this.ovalLabel = ovalLabel;
+        this.indentDepth = indentDepth;
+    }
+
+    /**
+     * Add a free-form line such as a heading
+     *
+     * @param text The line (without newline)
+     */
+    public void addLine(String text) {
+        if (startLine()) {
+            line.append(text);
+            endLine();
+        }
+    }
+
+    @Override
+    public void segment(double x1, double y1, double x2, double y2, int depth, int colorId, int strokeId) {
+        if (startLine()) {
+            indent(depth);
+            line.append(segmentLabel);
+            appendTag();
+            line.append(" [Depth ").append(depth).append("]: (").append((int) x1)
+                    .append(',').append((int) y1).append(") to (").append((int) x2).append(',').append((int) y2)
+                    .append(") - Length: ");
+            appendTenths(Math.hypot(x2 - x1, y2 - y1));
+            endLine();
+        }
+    }
+
+    @Override
+    public void polygon(double[] xs, double[] ys, int count, int depth, int colorId, int strokeId,
+            boolean filled) {
+        if (startLine()) {
+            indent(depth);
+            line.append(polygonLabel);
+            appendTag();
+            line.append(" [Depth ").append(depth).append("]: ");
+            for (int i = 0; i < count; i++) {
+                if (i > 0) {
+                    line.append('-');
+                }
+                line.append('(').append((int) xs[i]).append(',').append((int) ys[i]).append(')');
+            }
+            endLine();
+        }
+    }
+
+    @Override
+    public void oval(double x, double y, double width, double height, int depth, int colorId, int strokeId,
+            boolean filled) {
+        if (startLine()) {
+            indent(depth);
+            line.append(ovalLabel);
+            appendTag();
+            line.append(" at (").append((int) (x + width / 2)).append(", ")
+                    .append((int) (y + height / 2)).append(") - Size: ");
+            appendTenths(width);
+            endLine();
+        }
+    }
+
+    @Override
+    public void image(int[] argb, int columns, int rows, double x, double y, double width, double height,
+            int depth) {
+        if (startLine()) {
+            indent(depth);
+            line.append("Image [Depth ").append(depth).append("]: ").append(columns).append('x').append(rows)
+                    .append(" pixels at (").append((int) x).append(',').append((int) y).append(") - Size: ");
+            appendTenths(width);
+            line.append(" x ");
+            appendTenths(height);
+            endLine();
+        }
+    }
+
+    /**
+     * Write a closing note saying how many lines were left out, if any.
+     * Call once after the last primitive.
+     */
+    public void finish() {
+        if (omittedLines > 0) {
+            write("... " + omittedLines + " more lines not shown\n");
+        }
+    }
+
+    /**
+     * Start a new line, or count it if the limit is reached
+     *
+     * @return true if the line should be built and written
+     */
+    private boolean startLine() {
+        if (lineCount >= maxLines) {
+            omittedLines++;
+            return false;
+        }
+        line.setLength(0);
+        return true;
+    }
+
+    private void endLine() {
+        line.append('\n');
+        write(line);
+        lineCount++;
+    }
+
+    private void write(CharSequence text) {
+        try {
+            out.append(text);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Name of a primitive's tag, such as the path of a tree branch. Artworks
+     * that tag their primitives override this to decode their tags.
+     *
+     * @param tag The tag (never 0)
+     * @return The name, or null to show nothing
+     */
+    protected String describeTag(long tag) {
+        return null;
+    }
+
+    /**
+     * Append the name of the current tag, if there is one
+     */
+    private void appendTag() {
+        String name = getTag() == 0 ? null : describeTag(getTag());
+        if (name != null) {
+            line.append(' ').append(name);
+        }
+    }
+
+    /**
+     * Indentation for a primitive at the given depth
+     */
+    private void indent(int depth) {
+        for (int i = depth; i < indentDepth; i++) {
+            line.append("  ");
+        }
+    }
+
+    /**
+     * Append a value rounded to one decimal, like %.1f but without formatter objects
+     */
+    private void appendTenths(double value) {
+        long tenths = Math.round(value * 10);
+        if (tenths < 0) {
+            line.append('-');
+            tenths = -tenths;
+        }
+        line.append(tenths / 10).append('.').append(tenths % 10);
+    }
+
+    // Getters
+    public long getLineCount() {
+        return lineCount;
+    }
+
+    public long getOmittedLines() {
+        return omittedLines;
+    }
+
+    @Override
+    public String toString() {
+        return out.toString();
+    }
+}
@@ -0,0 +1,470 @@
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * EscapeTimeEngine class that computes Mandelbrot and Julia sets pixel by
+ * pixel. Each pixel repeats z = z^2 + c until z escapes or the iteration limit
+ * is reached, and is coloured by how quickly it escaped.
+ * Rows are split into fork-join tasks so idle cores steal the remaining rows:
+ * a row through the set can take a hundred times longer than one outside it,
+ * so fixed equal shares would leave most cores waiting.
+ * Deep Mandelbrot zooms, where pixels are closer together than doubles can
+ * tell apart, use perturbation: one reference orbit at the view centre is
+ * computed with BigDecimal, and each pixel only follows its small difference
+ * from that orbit in doubles. A series approximation jumps every pixel over
+ * the early iterations they all share.
+ */
+public class EscapeTimeEngine {
+    // Squared escape radius; a large radius makes the smooth colouring accurate
+    private static final double ESCAPE_RADIUS_SQUARED = 256 * 256;
+
+    // Rows a task computes itself instead of splitting further
+    private static final int ROWS_PER_TASK = 2;
+
+    // Palette: PALETTE_SIZE colours repeating every ITERATIONS_PER_CYCLE iterations
+    private static final int PALETTE_SIZE = 2048;
+    private static final double ITERATIONS_PER_CYCLE = 64;
+    private static final int INTERIOR_COLOR = 0xFF000000;
+    private static final int[] PALETTE = buildPalette();
+
+    // Largest truncation error the series approximation may make, relative to its result
+    private static final double SERIES_TOLERANCE = 1e-6;
+
+    private boolean julia;
+    private double juliaRe;
+    private double juliaIm;
+    private int maxIterations;
+
+    // Perturbation: reference orbit in doubles, and the series coefficients
+    // A, B and C at the iteration every pixel starts from
+    private double[] referenceRe;
+    private double[] referenceIm;
+    private int referenceLength;
+    private int seriesSkip;
+    private double[] series = new double[6];
+
+    /**
+     * Constructor for EscapeTimeEngine
+     *
+     * @param julia         true for a Julia set, false for the Mandelbrot set
+     * @param juliaRe       Real part of the Julia constant
+     * @param juliaIm       Imaginary part of the Julia constant
+     * @param maxIterations Iterations before a pixel counts as inside the set
+     */
+    private EscapeTimeEngine(boolean julia, double juliaRe, double juliaIm, int maxIterations) {
+        this.julia = julia;
+        this.juliaRe = juliaRe;
+        this.juliaIm = juliaIm;
+        this.maxIterations = maxIterations;
+    }
+
+    /**
+     * Prepare the Mandelbrot set, where each pixel is the constant c and z starts at 0
+     *
+     * @param maxIterations Iterations before a pixel counts as inside the set
+     * @return The engine
+     */
+    public static EscapeTimeEngine mandelbrot(int maxIterations) {
+        return new EscapeTimeEngine(false, 0, 0, maxIterations);
+    }
+
+    /**
+     * Prepare a Julia set, where each pixel is the start of z and c is fixed
+     *
+     * @param re            Real part of the constant c
+     * @param im            Imaginary part of the constant c
+     * @param maxIterations Iterations before a pixel counts as inside the set
+     * @return The engine
+     */
+    public static EscapeTimeEngine julia(double re, double im, int maxIterations) {
+        return new EscapeTimeEngine(true, re, im, maxIterations);
+    }
+
+    /**
+     * Compute a grid of pixels on all cores
+     *
+     * @param minRe   Real part at the centre of the first column
+     * @param minIm   Imaginary part at the centre of the first row
+     * @param step    Distance between neighbouring pixel centres in the complex plane
+     * @param columns Pixels per row
+     * @param rows    Number of rows
+     * @return Colours packed as 0xAARRGGBB, row by row
+     */
+    public int[] render(double minRe, double minIm, double step, int columns, int rows) {
+        int[] pixels = new int[columns * rows];
+        ArtRenderer.getComputePool().invoke(new RowTask(pixels, minRe, minIm, step, columns, 0, rows));
+        return pixels;
+    }
+
+    /**
+     * Compute a grid of Mandelbrot pixels around a centre given to any precision
+     * (method overloading). Pixel positions are offsets from the centre, so they
+     * stay exact in doubles however deep the zoom.
+     *
+     * @param centerRe   Real part of the centre, with as many digits as the zoom needs
+     * @param centerIm   Imaginary part of the centre
+     * @param minDeltaRe Real offset from the centre of the first column's pixel centres
+     * @param minDeltaIm Imaginary offset from the centre of the first row's pixel centres
+     * @param step       Distance between neighbouring pixel centres
+     * @param columns    Pixels per row
+     * @param rows       Number of rows
+     * @return Colours packed as 0xAARRGGBB, row by row
+     */
+    public int[] render(BigDecimal centerRe, BigDecimal centerIm, double minDeltaRe, double minDeltaIm, double step,
+            int columns, int rows) {
+        if (julia) {
+            throw new IllegalStateException("Perturbation rendering is only implemented for the Mandelbrot set");
+        }
+        computeReferenceOrbit(centerRe, centerIm, step);
+        double[][] probes = {
+                { minDeltaRe, minDeltaIm },
+                { minDeltaRe + (columns - 1) * step, minDeltaIm },
+                { minDeltaRe, minDeltaIm + (rows - 1) * step },
+                { minDeltaRe + (columns - 1) * step, minDeltaIm + (rows - 1) * step },
+                { minDeltaRe + (columns / 2) * step, minDeltaIm },
+                { minDeltaRe + (columns / 2) * step, minDeltaIm + (rows - 1) * step },
+                { minDeltaRe, minDeltaIm + (rows / 2) * step },
+                { minDeltaRe + (columns - 1) * step, minDeltaIm + (rows / 2) * step } };
+        chooseSeriesSkip(probes);
+
+        int[] pixels = new int[columns * rows];
+        ArtRenderer.getComputePool().invoke(new RowTask(pixels, minDeltaRe, minDeltaIm, step, columns, 0, rows));
+        return pixels;
+    }
+
+    /**
+     * Iterate the view centre with enough digits to be exact at this pixel
+     * spacing, keeping each point rounded to doubles for the pixels to use.
+     * Stops early if the centre itself escapes.
+     */
+    private void computeReferenceOrbit(BigDecimal centerRe, BigDecimal centerIm, double step) {
+        // Decimal places to resolve a pixel, plus a margin for rounding over many
+        // iterations. A fixed number of places suits values that stay below 256.
+        int places = Math.max(20, (int) Math.ceil(-Math.log10(step)) + 12);
+        BigDecimal two = BigDecimal.valueOf(2);
+
+        referenceRe = new double[maxIterations + 1];
+        referenceIm = new double[maxIterations + 1];
+        BigDecimal zRe = BigDecimal.ZERO;
+        BigDecimal zIm = BigDecimal.ZERO;
+        int n = 0;
+        while (true) {
+            double re = zRe.doubleValue();
+            double im = zIm.doubleValue();
+            referenceRe[n] = re;
+            referenceIm[n] = im;
+            if (n == maxIterations || re * re + im * im > ESCAPE_RADIUS_SQUARED) {
+                break;
+            }
+            BigDecimal re2 = zRe.multiply(zRe);
+            BigDecimal im2 = zIm.multiply(zIm);
+            zIm = two.multiply(zRe).multiply(zIm).add(centerIm).setScale(places, RoundingMode.HALF_EVEN);
+            zRe = re2.subtract(im2).add(centerRe).setScale(places, RoundingMode.HALF_EVEN);
+            n++;
+        }
+        referenceLength = n + 1;
+    }
+
+    /**
+     * Find how many iterations the series approximation can skip. The series
+     * writes a pixel's difference from the reference as A d + B d^2 + C d^3,
+     * where d is the pixel's offset from the centre. It is followed while the
+     * C term stays negligible for the farthest pixel, then checked against
+     * probe pixels iterated the ordinary way; the skip ends before the first
+     * iteration where any probe disagrees or escapes.
+     *
+     * @param probes Offsets of the probe pixels (the corners and edge middles)
+     */
+    private void chooseSeriesSkip(double[][] probes) {
+        double radius = 0;
+        for (double[] probe : probes) {
+            radius = Math.max(radius, Math.hypot(probe[0], probe[1]));
+        }
+
+        // Coefficients per iteration, six doubles each: A, B and C as complex numbers
+        int limit = referenceLength - 1;
+        double[] coefficients = new double[6 * (limit + 1)];
+        int candidate = 0;
+        while (candidate < limit) {
+            int from = 6 * candidate;
+            int to = from + 6;
+            double zRe = referenceRe[candidate];
+            double zIm = referenceIm[candidate];
+            double aRe = coefficients[from];
+            double aIm = coefficients[from + 1];
+            double bRe = coefficients[from + 2];
+            double bIm = coefficients[from + 3];
+            double cRe = coefficients[from + 4];
+            double cIm = coefficients[from + 5];
+
+            // A' = 2ZA + 1, B' = 2ZB + A^2, C' = 2ZC + 2AB
+            coefficients[to] = 2 * (zRe * aRe - zIm * aIm) + 1;
+            coefficients[to + 1] = 2 * (zRe * aIm + zIm * aRe);
+            coefficients[to + 2] = 2 * (zRe * bRe - zIm * bIm) + aRe * aRe - aIm * aIm;
+            coefficients[to + 3] = 2 * (zRe * bIm + zIm * bRe) + 2 * aRe * aIm;
+            coefficients[to + 4] = 2 * (zRe * cRe - zIm * cIm) + 2 * (aRe * bRe - aIm * bIm);
+            coefficients[to + 5] = 2 * (zRe * cIm + zIm * cRe) + 2 * (aRe * bIm + aIm * bRe);
+
+            double first = Math.hypot(coefficients[to], coefficients[to + 1]) * radius;
+            double third = Math.hypot(coefficients[to + 4], coefficients[to + 5]) * radius * radius * radius;
+            if (!Double.isFinite(third) || third > SERIES_TOLERANCE * first) {
+                break;
+            }
+            candidate++;
+        }
+
+        for (double[] probe : probes) {
+            candidate = Math.min(candidate, checkSeries(coefficients, candidate, probe[0], probe[1]));
+        }
+        seriesSkip = candidate;
+        System.arraycopy(coefficients, 6 * candidate, series, 0, 6);
+    }
+
+    /**
+     * Iterate one probe pixel's difference from the reference directly and
+     * compare it with the series at every step
+     *
+     * @return Iterations the series gets right for this probe
+     */
+    private int checkSeries(double[] coefficients, int candidate, double dcRe, double dcIm) {
+        double dcRe2 = dcRe * dcRe - dcIm * dcIm;
+        double dcIm2 = 2 * dcRe * dcIm;
+        double dcRe3 = dcRe2 * dcRe - dcIm2 * dcIm;
+        double dcIm3 = dcRe2 * dcIm + dcIm2 * dcRe;
+        double dRe = 0;
+        double dIm = 0;
+        for (int n = 1; n <= candidate; n++) {
+            double zRe = referenceRe[n - 1];
+            double zIm = referenceIm[n - 1];
+            double tRe = 2 * zRe + dRe;
+            double tIm = 2 * zIm + dIm;
+            double nextRe = tRe * dRe - tIm * dIm + dcRe;
+            dIm = tRe * dIm + tIm * dRe + dcIm;
+            dRe = nextRe;
+
+            // The pixel must still be near the reference and not escaped
+            double fullRe = referenceRe[n] + dRe;
+            double fullIm = referenceIm[n] + dIm;
+            double fullMagnitude = fullRe * fullRe + fullIm * fullIm;
+            if (fullMagnitude > 4 || fullMagnitude < dRe * dRe + dIm * dIm) {
+                return n - 1;
+            }
+
+            int c = 6 * n;
+            double seriesRe = coefficients[c] * dcRe - coefficients[c + 1] * dcIm + coefficients[c + 2] * dcRe2
+                    - coefficients[c + 3] * dcIm2 + coefficients[c + 4] * dcRe3 - coefficients[c + 5] * dcIm3;
+            double seriesIm = coefficients[c] * dcIm + coefficients[c + 1] * dcRe + coefficients[c + 2] * dcIm2
+                    + coefficients[c + 3] * dcRe2 + coefficients[c + 4] * dcIm3 + coefficients[c + 5] * dcRe3;
+            if (Math.hypot(seriesRe - dRe, seriesIm - dIm) > SERIES_TOLERANCE * Math.hypot(dRe, dIm)) {
+                return n - 1;
+            }
+        }
+        return candidate;
+    }
+
+    /**
+     * A range of rows, split in half until it is small enough to compute
+     */
+    private class RowTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final int[] pixels;
+        private final double minRe;
+        private final double minIm;
+        private final double step;
+        private final int columns;
+        private final int firstRow;
+        private final int endRow;
+
+        RowTask(int[] pixels, double minRe, double minIm, double step, int columns, int firstRow, int endRow) {
+            this.pixels = pixels;
+            this.minRe = minRe;
+            this.minIm = minIm;
+            this.step = step;
+            this.columns = columns;
+            this.firstRow = firstRow;
+            this.endRow = endRow;
+        }
+
+        @Override
+        protected void compute() {
+            if (endRow - firstRow <= ROWS_PER_TASK) {
+                for (int row = firstRow; row < endRow; row++) {
+                    computeRow(pixels, row, minRe, minIm + row * step, step, columns);
+                }
+                return;
+            }
+            int middle = (firstRow + endRow) >>> 1;
+            invokeAll(new RowTask(pixels, minRe, minIm, step, columns, firstRow, middle),
+                    new RowTask(pixels, minRe, minIm, step, columns, middle, endRow));
+        }
+    }
+
+    /**
+     * Colour every pixel of one row
+     */
+    private void computeRow(int[] pixels, int row, double minRe, double im, double step, int columns) {
+        if (referenceRe != null) {
+            int index = row * columns;
+            for (int column = 0; column < columns; column++) {
+                pixels[index + column] = iteratePerturbed(minRe + column * step, im);
+            }
+            return;
+        }
+
+        // Orbits that come back this close to an earlier point are cycling and never escape
+        double tolerance = step * 1e-3;
+        int index = row * columns;
+        for (int column = 0; column < columns; column++) {
+            double re = minRe + column * step;
+            pixels[index + column] = julia ? iterate(re, im, juliaRe, juliaIm, tolerance)
+                    : isInMainBulbs(re, im) ? INTERIOR_COLOR : iterate(0, 0, re, im, tolerance);
+        }
+    }
+
+    /**
+     * Whether c lies in the main cardioid or the period-2 bulb, which cover
+     * most of the Mandelbrot set and would otherwise run to the iteration limit
+     */
+    private static boolean isInMainBulbs(double re, double im) {
+        double shifted = re - 0.25;
+        double q = shifted * shifted + im * im;
+        if (q * (q + shifted) <= 0.25 * im * im) {
+            return true;
+        }
+        double left = re + 1;
+        return left * left + im * im <= 0.0625;
+    }
+
+    /**
+     * Iterate z = z^2 + c from a start point and colour the result
+     *
+     * @param zRe       Start real part
+     * @param zIm       Start imaginary part
+     * @param cRe       Constant real part
+     * @param cIm       Constant imaginary part
+     * @param tolerance Distance at which a repeated point counts as a cycle
+     * @return The pixel colour
+     */
+    private int iterate(double zRe, double zIm, double cRe, double cIm, double tolerance) {
+        // Periodicity check: compare with a saved point, saving a new one at
+        // doubling intervals so cycles of any length are eventually caught
+        double savedRe = zRe;
+        double savedIm = zIm;
+        int saveAt = 8;
+
+        for (int n = 0; n < maxIterations; n++) {
+            double re2 = zRe * zRe;
+            double im2 = zIm * zIm;
+            if (re2 + im2 > ESCAPE_RADIUS_SQUARED) {
+                return escapeColor(n, re2 + im2);
+            }
+            zIm = 2 * zRe * zIm + cIm;
+            zRe = re2 - im2 + cRe;
+
+            if (Math.abs(zRe - savedRe) < tolerance && Math.abs(zIm - savedIm) < tolerance) {
+                return INTERIOR_COLOR;
+            }
+            if (n == saveAt) {
+                savedRe = zRe;
+                savedIm = zIm;
+                saveAt *= 2;
+            }
+        }
+        return INTERIOR_COLOR;
+    }
+
+    /**
+     * Iterate a pixel as a difference d from the reference orbit Z:
+     * d' = 2Zd + d^2 + dc. Starts where the series approximation leaves off.
+     * When the pixel's z = Z + d gets smaller than d, or the reference runs
+     * out, d is rebased onto the start of the reference orbit (d = z), which
+     * avoids the glitches a single reference would otherwise cause.
+     * The cycle check is left out: pixels near the reference look alike in doubles.
+     *
+     * @param dcRe Real offset of the pixel from the centre
+     * @param dcIm Imaginary offset of the pixel from the centre
+     * @return The pixel colour
+     */
+    private int iteratePerturbed(double dcRe, double dcIm) {
+        double dcRe2 = dcRe * dcRe - dcIm * dcIm;
+        double dcIm2 = 2 * dcRe * dcIm;
+        double dRe = series[0] * dcRe - series[1] * dcIm + series[2] * dcRe2 - series[3] * dcIm2
+                + series[4] * (dcRe2 * dcRe - dcIm2 * dcIm) - series[5] * (dcRe2 * dcIm + dcIm2 * dcRe);
+        double dIm = series[0] * dcIm + series[1] * dcRe + series[2] * dcIm2 + series[3] * dcRe2
+                + series[4] * (dcRe2 * dcIm + dcIm2 * dcRe) + series[5] * (dcRe2 * dcRe - dcIm2 * dcIm);
+
+        int m = seriesSkip; // position along the reference orbit
+        for (int n = seriesSkip; n < maxIterations; n++) {
+            double zRe = referenceRe[m] + dRe;
+            double zIm = referenceIm[m] + dIm;
+            double magnitude = zRe * zRe + zIm * zIm;
+            if (magnitude > ESCAPE_RADIUS_SQUARED) {
+                return escapeColor(n, magnitude);
+            }
+            if (magnitude < dRe * dRe + dIm * dIm || m == referenceLength - 1) {
+                dRe = zRe;
+                dIm = zIm;
+                m = 0;
+            }
+
+            double tRe = 2 * referenceRe[m] + dRe;
+            double tIm = 2 * referenceIm[m] + dIm;
+            double nextRe = tRe * dRe - tIm * dIm + dcRe;
+            dIm = tRe * dIm + tIm * dRe + dcIm;
+            dRe = nextRe;
+            m++;
+        }
+        return INTERIOR_COLOR;
+    }
+
+    /**
+     * Colour of a pixel that escaped, from the smooth iteration count
+     *
+     * @param n         Iteration at which it escaped
+     * @param magnitude Squared size of z at that point
+     * @return The palette colour
+     */
+    private static int escapeColor(int n, double magnitude) {
+        // Smooth count: the fraction tells how far past the radius z got
+        double smooth = n + 1 - Math.log(0.5 * Math.log(magnitude)) / Math.log(2);
+        return PALETTE[(int) (smooth * (PALETTE_SIZE / ITERATIONS_PER_CYCLE)) & (PALETTE_SIZE - 1)];
+    }
+
+    /**
+     * Blend a few colour stops into a looping gradient once, so colouring a
+     * pixel is a single array lookup
+     */
+    private static int[] buildPalette() {
+        int[] stops = { 0x000764, 0x206BCB, 0xEDFFFF, 0xFFAA00, 0x310230 };
+        int[] palette = new int[PALETTE_SIZE];
+        for (int i = 0; i < PALETTE_SIZE; i++) {
+            double position = (double) i * stops.length / PALETTE_SIZE;
+            int from = stops[(int) position];
+            int to = stops[((int) position + 1) % stops.length];
+            double t = position - (int) position;
+            int r = (int) Math.round(((from >> 16) & 0xFF) * (1 - t) + ((to >> 16) & 0xFF) * t);
+            int g = (int) Math.round(((from >> 8) & 0xFF) * (1 - t) + ((to >> 8) & 0xFF) * t);
+            int b = (int) Math.round((from & 0xFF) * (1 - t) + (to & 0xFF) * t);
+            palette[i] = 0xFF000000 | (r << 16) | (g << 8) | b;
+        }
+        return palette;
+    }
+
+    // Getters
+    public int getMaxIterations() {
+        return maxIterations;
+    }
+
+    public boolean isJulia() {
+        return julia;
+    }
+
+    public int getReferenceLength() {
+        return referenceLength;
+    }
+
+    public int getSeriesSkip() {
+        return seriesSkip;
+    }
+}
@@ -0,0 +1,300 @@
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ForestSceneArt class that extends ArtWork to plant hundreds or thousands of
+ * random trees in a landscape. Demonstrates composition and inheritance.
+ * Only a few prototype trees are ever generated; every tree in the scene is
+ * one of them, moved and scaled into place, so a big forest costs about as
+ * much to generate as its prototypes. Trees are drawn from the horizon
+ * forwards so nearer trees cover farther ones, and distant trees fade into
+ * the haze.
+ */
+public class ForestSceneArt extends ArtWork {
+    private static final long serialVersionUID = 1L;
+
+    // Where the ground meets the sky
+    private static final int HORIZON_Y = 330;
+
+    // Tree sizes relative to a full-canvas tree, at the horizon and at the front
+    private static final double FAR_SCALE = 0.05;
+    private static final double NEAR_SCALE = 0.35;
+
+    // Haze: colour trees fade towards, how much the farthest fade, and how
+    // many distinct amounts are used (each needs its own colours)
+    private static final int HAZE = 0xC8D7E6;
+    private static final double MAX_HAZE = 0.7;
+    private static final int HAZE_LEVELS = 8;
+
+    // Prototype recordings are made for pixel scales that are powers of two
+    private static final int MIN_DETAIL_LEVEL = -8;
+    private static final int MAX_DETAIL_LEVEL = 4;
+
+    // A random tree's trunk is 120 units and each level is at most 0.75 * 1.2
+    // times the one before
+    private static final double TRUNK_LENGTH = 120;
+    private static final double REACH_RATIO = 0.9;
+
+    // Which random number of a tree each choice uses
+    private static final int DRAW_DISTANCE = 0;
+    private static final int DRAW_X = 1;
+    private static final int DRAW_PROTOTYPE = 2;
+    private static final int DRAW_SIZE = 3;
+
+    private int treeCount;
+    private int prototypeCount;
+    private int treeDepth;
+
+    /**
+     * Constructor with title and artist only
+     *
+     * @param title  The title of the artwork
+     * @param artist The artist who created it
+     */
+    public ForestSceneArt(String title, String artist) {
+        this(title, artist, 400, 8, 9);
+    }
+
+    /**
+     * Constructor with all parameters (method overloading)
+     *
+     * @param title          The title of the artwork
+     * @param artist         The artist who created it
+     * @param treeCount      Number of trees in the scene
+     * @param prototypeCount Number of different trees generated and reused
+     * @param treeDepth      Recursion depth of each tree
+     */
+    public ForestSceneArt(String title, String artist, int treeCount, int prototypeCount, int treeDepth) {
+        super(title, artist);
+        this.treeCount = Math.max(1, treeCount);
+        this.prototypeCount = Math.max(1, prototypeCount);
+        this.treeDepth = Math.max(1, treeDepth);
+        this.description = "Forest of " + this.treeCount + " trees built from " + this.prototypeCount
+                + " prototypes";
+        this.complexityLevel = calculateComplexity();
+    }
+
+    @Override
+    public void display() {
+        System.out.println("\n=== Displaying Forest Scene: " + title + " ===");
+        System.out.println("Trees: " + treeCount);
+        System.out.println("Prototypes: " + prototypeCount);
+        System.out.println("Tree Depth: " + treeDepth);
+        System.out.println("Seed: " + seed);
+        GraphicsDisplay.showArtwork(this);
+    }
+
+    @Override
+    public int calculateComplexity() {
+        return Math.max(1, treeCount / 10 + prototypeCount * treeDepth);
+    }
+
+    @Override
+    public long estimatePrimitives(double pixelScale, double detailPixels) {
+        RecursiveTree[] prototypes = createPrototypes();
+        long primitives = 0;
+        for (TreeInstance tree : placeTrees()) {
+            primitives += prototypes[tree.prototype].estimatePrimitives(
+                    Math.pow(2, detailLevel(pixelScale * tree.scale)), detailPixels);
+        }
+        return primitives;
+    }
+
+    @Override
+    protected double estimatePrimitiveWeight() {
+        return 1.3; // leaves are filled ovals
+    }
+
+    @Override
+    public String getArtType() {
+        return "Forest Scene";
+    }
+
+    @Override
+    public String getDescription() {
+        return description;
+    }
+
+    @Override
+    public ArtWork createPreview(int levelsRemoved) {
+        if (treeDepth - levelsRemoved < 3) {
+            return null;
+        }
+        ForestSceneArt preview = (ForestSceneArt) copy();
+        preview.treeDepth = treeDepth - levelsRemoved;
+        return preview;
+    }
+
+    @Override
+    protected String getRenderParameters() {
+        return "trees=" + treeCount + ";prototypes=" + prototypeCount + ";depth=" + treeDepth + ";seed=" + seed;
+    }
+
+    @Override
+    public void generateGeometry(GeometrySink sink) {
+        drawBackdrop(sink);
+
+        // Each prototype is recorded once per level of detail it is seen at
+        RecursiveTree[] prototypes = createPrototypes();
+        Map<Integer, GeometryRecording> recordings = new HashMap<>();
+        double reach = subtreeReach(TRUNK_LENGTH, REACH_RATIO, treeDepth);
+
+        for (TreeInstance tree : placeTrees()) {
+            if (!sink.isVisible(tree.x, tree.y, reach * tree.scale)) {
+                continue;
+            }
+            int level = sink.getDetailPixels() > 0 ? detailLevel(sink.getPixelScale() * tree.scale)
+                    : MAX_DETAIL_LEVEL + 1; // one full recording when nothing is cut
+            int key = tree.prototype * 64 + level - MIN_DETAIL_LEVEL;
+            GeometryRecording recording = recordings.get(key);
+            if (recording == null) {
+                recording = new GeometryRecording();
+                recording.setLevelOfDetail(Math.pow(2, level), sink.getDetailPixels());
+                prototypes[tree.prototype].generateGeometry(recording);
+                recordings.put(key, recording);
+            }
+            sink.instance(recording, new InstanceTransform(RecursiveTree.TRUNK_X, RecursiveTree.TRUNK_Y, tree.x,
+                    tree.y, tree.scale, HAZE, tree.haze));
+        }
+    }
+
+    /**
+     * Draw the sky, distant hills and the ground
+     *
+     * @param sink Sink receiving the shapes
+     */
+    private void drawBackdrop(GeometrySink sink) {
+        int stroke = sink.defineStroke(1);
+
+        // Sky in bands, darker at the top
+        int bands = 30;
+        double bandHeight = (double) HORIZON_Y / bands;
+        for (int i = 0; i < bands; i++) {
+            double y = i * bandHeight;
+            int color = sink.defineColor(0xFF000000 | blend(0x6E9BCD, HAZE, (i + 0.5) / bands));
+            sink.polygon(new double[] { 0, CANVAS_WIDTH, CANVAS_WIDTH, 0 },
+                    new double[] { y, y, y + bandHeight + 1, y + bandHeight + 1 }, 4, 0, color, stroke, true);
+        }
+
+        // Hills along the horizon, shaped by the seed
+        int points = 42;
+        double[] xs = new double[points];
+        double[] ys = new double[points];
+        double phase = PathRandom.unit(seed, points) * 2 * Math.PI;
+        for (int i = 0; i < points - 2; i++) {
+            xs[i] = i * CANVAS_WIDTH / (points - 3.0);
+            ys[i] = HORIZON_Y - 18 - 14 * Math.sin(i * 0.35 + phase) - 8 * PathRandom.unit(seed, i);
+        }
+        xs[points - 2] = CANVAS_WIDTH;
+        ys[points - 2] = HORIZON_Y + 1;
+        xs[points - 1] = 0;
+        ys[points - 1] = HORIZON_Y + 1;
+        sink.polygon(xs, ys, points, 0, sink.defineColor(0xFF000000 | blend(0x4F7A55, HAZE, 0.6)), stroke, true);
+
+        // Ground in bands, hazier towards the horizon
+        bandHeight = (double) (CANVAS_HEIGHT - HORIZON_Y) / bands;
+        for (int i = 0; i < bands; i++) {
+            double y = HORIZON_Y + i * bandHeight;
+            int color = sink.defineColor(0xFF000000 | blend(0x5E8A3C, HAZE, MAX_HAZE * (1 - (i + 0.5) / bands)));
+            sink.polygon(new double[] { 0, CANVAS_WIDTH, CANVAS_WIDTH, 0 },
+                    new double[] { y, y, y + bandHeight + 1, y + bandHeight + 1 }, 4, 0, color, stroke, true);
+        }
+    }
+
+    /**
+     * Create the prototype trees, each with its own seed and shape
+     *
+     * @return The prototypes
+     */
+    private RecursiveTree[] createPrototypes() {
+        RecursiveTree[] prototypes = new RecursiveTree[prototypeCount];
+        for (int p = 0; p < prototypeCount; p++) {
+            prototypes[p] = new RecursiveTree(title + " prototype " + (p + 1), artist, treeDepth, true,
+                    p % 3 == 2 ? 3 : 2);
+            prototypes[p].setSeed(PathRandom.child(seed, p));
+        }
+        return prototypes;
+    }
+
+    /**
+     * Choose every tree's prototype, place and size from the seed, in drawing
+     * order: farthest first
+     *
+     * @return The trees
+     */
+    private List<TreeInstance> placeTrees() {
+        List<TreeInstance> trees = new ArrayList<>(treeCount);
+        for (int i = 0; i < treeCount; i++) {
+            long treeSeed = PathRandom.child(seed, prototypeCount + i);
+            TreeInstance tree = new TreeInstance();
+            // Most trees stand far away, where the ground looks squeezed
+            double nearness = Math.pow(PathRandom.unit(treeSeed, DRAW_DISTANCE), 2);
+            double distance = 1 - nearness;
+            tree.prototype = (int) (PathRandom.unit(treeSeed, DRAW_PROTOTYPE) * prototypeCount);
+            tree.x = -40 + PathRandom.unit(treeSeed, DRAW_X) * (CANVAS_WIDTH + 80);
+            tree.y = HORIZON_Y + nearness * (CANVAS_HEIGHT - HORIZON_Y - 10);
+            tree.scale = (FAR_SCALE + (NEAR_SCALE - FAR_SCALE) * nearness)
+                    * (0.8 + 0.4 * PathRandom.unit(treeSeed, DRAW_SIZE));
+            tree.haze = Math.min(HAZE_LEVELS - 1, (int) (distance * HAZE_LEVELS)) * MAX_HAZE / (HAZE_LEVELS - 1);
+            trees.add(tree);
+        }
+        trees.sort(Comparator.comparingDouble(tree -> tree.y));
+        return trees;
+    }
+
+    /**
+     * The power of two at or above a pixel scale that prototypes are recorded for
+     *
+     * @param pixelScale Output pixels per prototype canvas unit
+     * @return The exponent
+     */
+    private static int detailLevel(double pixelScale) {
+        int level = (int) Math.ceil(Math.log(pixelScale) / Math.log(2) - 1e-9);
+        return Math.max(MIN_DETAIL_LEVEL, Math.min(MAX_DETAIL_LEVEL, level));
+    }
+
+    /**
+     * Mix two colours
+     *
+     * @param from   Colour packed as 0xRRGGBB
+     * @param to     Colour packed as 0xRRGGBB
+     * @param amount How much of the second colour (0 to 1)
+     * @return The mixed colour, packed as 0xRRGGBB
+     */
+    private static int blend(int from, int to, double amount) {
+        int result = 0;
+        for (int shift = 0; shift <= 16; shift += 8) {
+            int a = (from >> shift) & 0xFF;
+            int b = (to >> shift) & 0xFF;
+            result |= (int) Math.round(a + (b - a) * amount) << shift;
+        }
+        return result;
+    }
+
+    /**
+     * One tree in the scene: which prototype it is and where it stands
+     */
+    private static class TreeInstance {
+        private int prototype;
+        private double x; // where the trunk starts
+        private double y;
+        private double scale;
+        private double haze; // how much the colours fade (0 to MAX_HAZE)
+    }
+
+    // Getters
+    public int getTreeCount() {
+        return treeCount;
+    }
+
+    public int getPrototypeCount() {
+        return prototypeCount;
+    }
+
+    public int getTreeDepth() {
+        return treeDepth;
+    }
+}
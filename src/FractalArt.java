@@ -1,14 +1,44 @@
 import java.awt.*;
+import java.math.BigDecimal;
+import java.util.Arrays;
 
 /**
  * FractalArt class that extends ArtWork to create recursive fractal patterns.
  * Demonstrates method overloading, recursion, and inheritance.
+ * The "mandelbrot" and "julia" types are escape-time fractals computed pixel
+ * by pixel, where iterations is the iteration limit per pixel. A Mandelbrot
+ * set can be zoomed far past double precision with setDeepZoom. A Sierpinski
+ * triangle with more subdivisions than the output can show is also computed
+ * pixel by pixel, in time that does not depend on the depth.
  */
 public class FractalArt extends ArtWork {
     private static final long serialVersionUID = 1L;
+
+    // Largest per-pixel image computed in one piece; bigger areas stretch it (64 MB of pixels).
+    // Renders compute escape-time types per tile or band, so only a recording can reach it.
+    private static final int MAX_IMAGE_PIXELS = 4096 * 4096;
+
+    // Corners of the Sierpinski triangle and the size of its bounding box
+    private static final double[] SIERPINSKI_CORNERS = { 200, 500, 600, 500, 400, 100 };
+    private static final double SIERPINSKI_SIZE = 400;
+
+    // Cost of one Sierpinski raster pixel (nine tested points) relative to a simulation step
+    private static final double STEPS_PER_SIERPINSKI_PIXEL = 8;
+
+    // Iterations per pixel on the default views: about 25 for pixels that escape
+    // quickly, plus this share of the limit for the few near the boundary
+    private static final double AVERAGE_ITERATION_SHARE = 0.005;
+    private static final double DEEP_ITERATION_SHARE = 0.1;
+
     private int iterations;
     private double scaleFactor;
-    private String fractalType; // "tree", "sierpinski", "koch", etc.
+    private String fractalType; // "tree", "sierpinski", "koch", "mandelbrot", "julia"
+
+    // Deep zoom: centre of the view as decimal text with any number of digits,
+    // and the view's width in the complex plane (no centre shows the whole set)
+    private String zoomCenterRe;
+    private String zoomCenterIm;
+    private double zoomWidth;
 
     /**
      * Constructor with title and artist only
@@ -62,25 +92,15 @@ public class FractalArt extends ArtWork {
         System.out.println("Iterations: " + iterations);
         System.out.println("Generating fractal pattern...\n");
 
-        // Clear previous description
-        description = "";
-
-        // Generate based on fractal type
-        switch (fractalType) {
-            case "tree":
-                generateFractalTree(400, 600, 100, -Math.PI / 2, iterations);
-                break;
-            case "sierpinski":
-                generateSierpinski(200, 100, 600, 100, 400, 600, iterations);
-                break;
-            case "koch":
-                generateKochSnowflake(400, 300, 200, iterations);
-                break;
-            default:
-                generateFractalTree(400, 600, 100, -Math.PI / 2, iterations);
-        }
+        // Summarize the same primitives that will be drawn
+        DescriptionSink text = createTraceSink(new StringBuilder(), DescriptionSink.SUMMARY_LINES);
+        GeometryRecording geometry = getGeometry();
+        geometry.replay(text);
+        text.finish();
+        description = text.toString();
 
         System.out.println("\nFractal generation complete!");
+        System.out.println("Primitives generated: " + geometry.getPrimitiveCount());
 
         // Show graphical display
         GraphicsDisplay.showArtwork(this);
@@ -88,9 +108,65 @@ public class FractalArt extends ArtWork {
 
     @Override
     public int calculateComplexity() {
+        if (isEscapeTime()) {
+            return iterations;
+        }
         return calculateFractalComplexity(iterations);
     }
 
+    @Override
+    public long estimatePrimitives(double pixelScale, double detailPixels) {
+        switch (fractalType) {
+            case "mandelbrot":
+            case "julia":
+                return 1; // one image; its cost is in the simulation steps
+            case "sierpinski": {
+                // 3^n filled triangles, n = subdivisions before the 400 px base drops below detail
+                int subdivisions = levelsAboveDetail(SIERPINSKI_SIZE, 0.5, iterations + 1, pixelScale,
+                        detailPixels) - 1;
+                if (subdivisions < iterations) {
+                    return 1; // drawn as one image instead
+                }
+                return (long) Math.pow(3, subdivisions);
+            }
+            case "koch": {
+                // 3 sides of 4^n segments each, starting from sides about 346 px long
+                int subdivisions = levelsAboveDetail(346, 1.0 / 3, iterations + 1, pixelScale, detailPixels)
+                        - 1;
+                return (long) (3 * Math.pow(4, subdivisions));
+            }
+            default: {
+                // Two branches per branch, plus a 0.8 times shorter middle one above
+                // depth 3. Branch length only depends on how many middle branches
+                // led to it, so count branches per level grouped by that number.
+                double[] counts = new double[iterations + 1];
+                double[] next = new double[iterations + 1];
+                counts[0] = 1;
+                double branches = 0;
+                double levelLength = 100;
+                for (int depth = iterations; depth > 0; depth--) {
+                    Arrays.fill(next, 0);
+                    double length = levelLength;
+                    for (int middles = 0; middles <= iterations - depth; middles++) {
+                        branches += counts[middles];
+                        if (length * pixelScale >= detailPixels) {
+                            next[middles] += 2 * counts[middles];
+                            if (depth > 3) {
+                                next[middles + 1] += counts[middles];
+                            }
+                        }
+                        length *= 0.8;
+                    }
+                    double[] swap = counts;
+                    counts = next;
+                    next = swap;
+                    levelLength *= scaleFactor;
+                }
+                return (long) branches;
+            }
+        }
+    }
+
     @Override
     public String getArtType() {
         return "Fractal Art";
@@ -98,6 +174,10 @@ public class FractalArt extends ArtWork {
 
     @Override
     public String getDescription() {
+        if (description.isEmpty() && zoomCenterRe != null) {
+            return "A " + fractalType + " fractal with " + iterations + " iterations, zoomed to a view "
+                    + zoomWidth + " wide at " + zoomCenterRe + " + " + zoomCenterIm + "i";
+        }
         if (description.isEmpty()) {
             return "A " + fractalType + " fractal with " + iterations + " iterations";
         }
@@ -105,268 +185,272 @@ public class FractalArt extends ArtWork {
     }
 
     @Override
-    public void drawGraphics(Graphics2D g2d) {
-        // Set color and stroke
-        g2d.setStroke(new BasicStroke(2.0f));
+    protected long estimateSimulationSteps(double pixelScale, double detailPixels) {
+        if (fractalType.equals("sierpinski")
+                && levelsAboveDetail(SIERPINSKI_SIZE, 0.5, iterations + 1, pixelScale, detailPixels)
+                        - 1 < iterations) {
+            double pixels = Math.min(MAX_IMAGE_PIXELS, SIERPINSKI_SIZE * SIERPINSKI_SIZE * pixelScale * pixelScale);
+            return (long) (pixels * STEPS_PER_SIERPINSKI_PIXEL / Runtime.getRuntime().availableProcessors());
+        }
+        if (!isEscapeTime()) {
+            return 0;
+        }
+        // Iterations over all pixels, shared between the cores (renders compute every output pixel)
+        double pixels = CANVAS_WIDTH * CANVAS_HEIGHT * pixelScale * pixelScale;
+        double perPixel = 25 + iterations * AVERAGE_ITERATION_SHARE;
+        if (zoomCenterRe != null) {
+            // Deep views sit on the boundary, where pixels run far longer and the
+            // cycle check cannot be used
+            perPixel = 25 + iterations * DEEP_ITERATION_SHARE;
+        }
+        return (long) (pixels * perPixel / Runtime.getRuntime().availableProcessors());
+    }
+
+    @Override
+    protected double estimatePrimitiveWeight() {
+        return fractalType.equals("sierpinski") ? 5 : 1; // filled triangles cost more than lines
+    }
 
-        // Draw based on fractal type
+    @Override
+    protected DescriptionSink createTraceSink(Appendable out, int maxLines) {
         switch (fractalType) {
-            case "tree":
-                g2d.setColor(new Color(101, 67, 33)); // Brown for tree
-                drawFractalTree(g2d, 400, 550, 100, -Math.PI / 2, iterations);
-                break;
             case "sierpinski":
-                g2d.setColor(Color.BLUE);
-                drawSierpinski(g2d, 200, 500, 600, 500, 400, 100, iterations);
-                break;
+                return new DescriptionSink("Line", "Triangle", "Point", 0, out, maxLines);
             case "koch":
-                g2d.setColor(new Color(100, 149, 237)); // Cornflower blue
-                drawKochSnowflake(g2d, 400, 300, 200, iterations);
-                break;
+                return new DescriptionSink("Line", "Shape", "Point", 0, out, maxLines);
             default:
-                g2d.setColor(new Color(101, 67, 33));
-                drawFractalTree(g2d, 400, 550, 100, -Math.PI / 2, iterations);
+                return new DescriptionSink("Branch", "Shape", "Point", 0, out, maxLines);
         }
     }
 
-    /**
-     * Private recursive helper method to calculate complexity
-     * 
-     * @param depth Current recursion depth
-     * @return Complexity value
-     */
-    private int calculateFractalComplexity(int depth) {
-        if (depth <= 0) {
-            return 1;
+    @Override
+    public void generateGeometry(GeometrySink sink) {
+        if (isEscapeTime()) {
+            generateEscapeTime(sink);
+            return;
         }
-        // Recursive calculation: each level adds exponentially more complexity
-        return depth + 2 * calculateFractalComplexity(depth - 1);
+        if (fractalType.equals("sierpinski")) {
+            // Subdivisions the engine would make before triangles drop below the level of detail
+            int subdivisions = 0;
+            double size = SIERPINSKI_SIZE;
+            while (subdivisions < iterations && !sink.isBelowDetail(size)) {
+                size /= 2;
+                subdivisions++;
+            }
+            if (subdivisions < iterations) {
+                generateSierpinskiRaster(sink, subdivisions);
+                return;
+            }
+        }
+        createEngine(sink).run();
     }
 
     /**
-     * Generate a fractal tree pattern recursively
+     * Compute the visible part of the Sierpinski triangle as one image, with
+     * the holes the output can show
      * 
-     * @param x      Starting x coordinate
-     * @param y      Starting y coordinate
-     * @param length Branch length
-     * @param angle  Branch angle
-     * @param depth  Recursion depth
+     * @param sink         The sink receiving the image
+     * @param subdivisions Subdivisions still larger than the level of detail
      */
-    private void generateFractalTree(int x, int y, double length, double angle, int depth) {
-        if (depth == 0)
-            return; // Base case
-
-        // Calculate end point of current branch
-        int endX = x + (int) (length * Math.cos(angle));
-        int endY = y + (int) (length * Math.sin(angle));
-
-        // Add to description (simulating drawing)
-        description += String.format("Branch[%d]: (%d,%d) to (%d,%d) - Length: %.1f\n",
-                depth, x, y, endX, endY, length);
-
-        // Recursive calls for sub-branches
-        double newLength = length * scaleFactor;
-        generateFractalTree(endX, endY, newLength, angle - 0.4, depth - 1); // Left branch
-        generateFractalTree(endX, endY, newLength, angle + 0.4, depth - 1); // Right branch
-
-        // Optional: Add middle branch for more complex trees
-        if (depth > 3) {
-            generateFractalTree(endX, endY, newLength * 0.8, angle, depth - 1);
+    private void generateSierpinskiRaster(GeometrySink sink, int subdivisions) {
+        double[] corners = SIERPINSKI_CORNERS;
+        double minX = Math.max(Math.min(corners[0], Math.min(corners[2], corners[4])), sink.getVisibleMinX());
+        double minY = Math.max(Math.min(corners[1], Math.min(corners[3], corners[5])), sink.getVisibleMinY());
+        double maxX = Math.min(Math.max(corners[0], Math.max(corners[2], corners[4])), sink.getVisibleMaxX());
+        double maxY = Math.min(Math.max(corners[1], Math.max(corners[3], corners[5])), sink.getVisibleMaxY());
+        if (maxX <= minX || maxY <= minY) {
+            return;
+        }
+
+        double scale = sink.getPixelScale();
+        double pixels = (maxX - minX) * (maxY - minY) * scale * scale;
+        if (pixels > MAX_IMAGE_PIXELS) {
+            scale *= Math.sqrt(MAX_IMAGE_PIXELS / pixels);
         }
+        int columns = Math.max(1, (int) Math.ceil((maxX - minX) * scale - 1e-9));
+        int rows = Math.max(1, (int) Math.ceil((maxY - minY) * scale - 1e-9));
+
+        SierpinskiRaster raster = new SierpinskiRaster(corners[0], corners[1], corners[2], corners[3], corners[4],
+                corners[5], subdivisions, 0x0000FF, 0xFFFFFF); // blue on the white canvas
+        double step = 1 / scale;
+        int[] argb = raster.render(minX + step / 2, minY + step / 2, step, columns, rows);
+        sink.image(argb, columns, rows, minX, minY, columns / scale, rows / scale, 0);
     }
 
     /**
-     * Draw fractal tree recursively with graphics
+     * Compute the visible part of the canvas as one image, with one pixel per
+     * output pixel at the sink's scale
+     * 
+     * @param sink The sink receiving the image
      */
-    private void drawFractalTree(Graphics2D g2d, int x, int y, double length, double angle, int depth) {
-        if (depth == 0)
+    private void generateEscapeTime(GeometrySink sink) {
+        double minX = Math.max(0, sink.getVisibleMinX());
+        double minY = Math.max(0, sink.getVisibleMinY());
+        double maxX = Math.min(CANVAS_WIDTH, sink.getVisibleMaxX());
+        double maxY = Math.min(CANVAS_HEIGHT, sink.getVisibleMaxY());
+        if (maxX <= minX || maxY <= minY) {
             return;
+        }
 
-        int endX = x + (int) (length * Math.cos(angle));
-        int endY = y + (int) (length * Math.sin(angle));
-
-        // Set color based on depth for nice effect
-        float hue = 0.1f + (depth * 0.02f); // Brown to green gradient
-        g2d.setColor(Color.getHSBColor(hue, 0.8f, 0.5f));
-        g2d.setStroke(new BasicStroke(Math.max(1, depth / 2)));
-
-        // Draw branch
-        g2d.drawLine(x, y, endX, endY);
-
-        // Recursive calls for sub-branches
-        double newLength = length * scaleFactor;
-        drawFractalTree(g2d, endX, endY, newLength, angle - 0.4, depth - 1);
-        drawFractalTree(g2d, endX, endY, newLength, angle + 0.4, depth - 1);
-
-        // Optional middle branch for more complex trees
-        if (depth > 3) {
-            drawFractalTree(g2d, endX, endY, newLength * 0.8, angle, depth - 1);
+        double scale = sink.getPixelScale();
+        double pixels = (maxX - minX) * (maxY - minY) * scale * scale;
+        if (pixels > MAX_IMAGE_PIXELS) {
+            scale *= Math.sqrt(MAX_IMAGE_PIXELS / pixels);
         }
+        int columns = Math.max(1, (int) Math.ceil((maxX - minX) * scale - 1e-9));
+        int rows = Math.max(1, (int) Math.ceil((maxY - minY) * scale - 1e-9));
+
+        // The canvas shows a 3.5 wide view of the Mandelbrot set, 3.6 of a Julia set
+        boolean julia = fractalType.equals("julia");
+        double unit = (zoomCenterRe != null ? zoomWidth : julia ? 3.6 : 3.5) / CANVAS_WIDTH;
+        double step = unit / scale;
+        double deltaRe = (minX - CANVAS_WIDTH / 2.0) * unit + step / 2; // first pixel, from the view centre
+        double deltaIm = (minY - CANVAS_HEIGHT / 2.0) * unit + step / 2;
+
+        EscapeTimeEngine engine = julia ? EscapeTimeEngine.julia(-0.8, 0.156, iterations)
+                : EscapeTimeEngine.mandelbrot(iterations);
+        int[] argb;
+        if (zoomCenterRe == null) {
+            argb = engine.render((julia ? 0 : -0.5) + deltaRe, deltaIm, step, columns, rows);
+        } else {
+            BigDecimal centerRe = new BigDecimal(zoomCenterRe);
+            BigDecimal centerIm = new BigDecimal(zoomCenterIm);
+            double distance = Math.hypot(centerRe.doubleValue(), centerIm.doubleValue());
+            if (step < 1e-13 * Math.max(1, distance)) {
+                // Neighbouring pixels are too close for doubles to tell apart
+                argb = engine.render(centerRe, centerIm, deltaRe, deltaIm, step, columns, rows);
+            } else {
+                argb = engine.render(centerRe.doubleValue() + deltaRe, centerIm.doubleValue() + deltaIm, step,
+                        columns, rows);
+            }
+        }
+        sink.image(argb, columns, rows, minX, minY, columns / scale, rows / scale, 0);
     }
 
     /**
-     * Generate Sierpinski triangle recursively
+     * Whether this type is computed per pixel rather than from shapes
      * 
-     * @param x1,   y1, x2, y2, x3, y3 Triangle vertices
-     * @param depth Recursion depth
+     * @return true for "mandelbrot" and "julia"
      */
-    private void generateSierpinski(int x1, int y1, int x2, int y2, int x3, int y3, int depth) {
-        if (depth == 0) {
-            // Base case: draw triangle
-            description += String.format("Triangle: (%d,%d)-(%d,%d)-(%d,%d)\n",
-                    x1, y1, x2, y2, x3, y3);
-            return;
-        }
+    public boolean isEscapeTime() {
+        return fractalType.equals("mandelbrot") || fractalType.equals("julia");
+    }
 
-        // Calculate midpoints
-        int midX1 = (x1 + x2) / 2;
-        int midY1 = (y1 + y2) / 2;
-        int midX2 = (x2 + x3) / 2;
-        int midY2 = (y2 + y3) / 2;
-        int midX3 = (x3 + x1) / 2;
-        int midY3 = (y3 + y1) / 2;
-
-        // Recursive calls for three sub-triangles
-        generateSierpinski(x1, y1, midX1, midY1, midX3, midY3, depth - 1);
-        generateSierpinski(midX1, midY1, x2, y2, midX2, midY2, depth - 1);
-        generateSierpinski(midX3, midY3, midX2, midY2, x3, y3, depth - 1);
+    @Override
+    public boolean isComputedPerPixel() {
+        return isEscapeTime();
     }
 
     /**
-     * Draw Sierpinski triangle recursively with graphics
+     * Prepare the fractal for generation without drawing anything yet.
+     * The engine can then be run in chunks, for example to keep a long
+     * generation interruptible. Escape-time types have no engine of this kind.
+     * 
+     * @param sink The sink that will receive the primitives
+     * @return The engine, ready to run
      */
-    private void drawSierpinski(Graphics2D g2d, int x1, int y1, int x2, int y2, int x3, int y3, int depth) {
-        if (depth == 0) {
-            // Draw filled triangle
-            int[] xPoints = { x1, x2, x3 };
-            int[] yPoints = { y1, y2, y3 };
-            g2d.fillPolygon(xPoints, yPoints, 3);
-            return;
+    public FractalEngine createEngine(GeometrySink sink) {
+        if (isEscapeTime()) {
+            throw new IllegalStateException(fractalType + " is computed per pixel, not by a FractalEngine");
         }
+        int stroke = sink.defineStroke(2.0f);
 
-        // Calculate midpoints
-        int midX1 = (x1 + x2) / 2;
-        int midY1 = (y1 + y2) / 2;
-        int midX2 = (x2 + x3) / 2;
-        int midY2 = (y2 + y3) / 2;
-        int midX3 = (x3 + x1) / 2;
-        int midY3 = (y3 + y1) / 2;
-
-        // Recursive calls for three sub-triangles
-        drawSierpinski(g2d, x1, y1, midX1, midY1, midX3, midY3, depth - 1);
-        drawSierpinski(g2d, midX1, midY1, x2, y2, midX2, midY2, depth - 1);
-        drawSierpinski(g2d, midX3, midY3, midX2, midY2, x3, y3, depth - 1);
+        switch (fractalType) {
+            case "sierpinski":
+                return FractalEngine.sierpinski(sink, sink.defineColor(Color.BLUE), SIERPINSKI_CORNERS[0],
+                        SIERPINSKI_CORNERS[1], SIERPINSKI_CORNERS[2], SIERPINSKI_CORNERS[3], SIERPINSKI_CORNERS[4],
+                        SIERPINSKI_CORNERS[5], iterations);
+            case "koch":
+                int cornflowerBlue = sink.defineColor(new Color(100, 149, 237));
+                return FractalEngine.kochSnowflake(sink, cornflowerBlue, stroke, 400, 300, 200,
+                        iterations);
+            default:
+                return FractalEngine.tree(sink, treePalette(sink), 400, 550, 100, -Math.PI / 2, iterations,
+                        scaleFactor);
+        }
     }
 
     /**
-     * Generate Koch snowflake recursively
-     * 
-     * @param centerX Center x coordinate
-     * @param centerY Center y coordinate
-     * @param size    Size of the snowflake
-     * @param depth   Recursion depth
+     * Build the colour and stroke of every tree depth once per pass
+     *
+     * @param sink The sink to register them with
+     * @return Ids indexed by depth
      */
-    private void generateKochSnowflake(int centerX, int centerY, int size, int depth) {
-        // Calculate vertices of equilateral triangle
-        int x1 = centerX;
-        int y1 = centerY - size;
-        int x2 = centerX - (int) (size * Math.cos(Math.PI / 6));
-        int y2 = centerY + (int) (size * Math.sin(Math.PI / 6));
-        int x3 = centerX + (int) (size * Math.cos(Math.PI / 6));
-        int y3 = centerY + (int) (size * Math.sin(Math.PI / 6));
-
-        // Generate Koch curve for each side
-        generateKochCurve(x1, y1, x2, y2, depth);
-        generateKochCurve(x2, y2, x3, y3, depth);
-        generateKochCurve(x3, y3, x1, y1, depth);
+    private DepthPalette treePalette(GeometrySink sink) {
+        DepthPalette palette = new DepthPalette(iterations);
+        for (int depth = 1; depth <= iterations; depth++) {
+            float hue = 0.1f + (depth * 0.02f); // Brown to green gradient
+            palette.set(depth, sink.defineColor(Color.getHSBColor(hue, 0.8f, 0.5f)),
+                    sink.defineStroke(Math.max(1, depth / 2)));
+        }
+        return palette;
     }
 
-    /**
-     * Draw Koch snowflake recursively with graphics
-     */
-    private void drawKochSnowflake(Graphics2D g2d, int centerX, int centerY, int size, int depth) {
-        // Calculate vertices of equilateral triangle
-        int x1 = centerX;
-        int y1 = centerY - size;
-        int x2 = centerX - (int) (size * Math.cos(Math.PI / 6));
-        int y2 = centerY + (int) (size * Math.sin(Math.PI / 6));
-        int x3 = centerX + (int) (size * Math.cos(Math.PI / 6));
-        int y3 = centerY + (int) (size * Math.sin(Math.PI / 6));
-
-        // Draw Koch curve for each side
-        drawKochCurve(g2d, x1, y1, x2, y2, depth);
-        drawKochCurve(g2d, x2, y2, x3, y3, depth);
-        drawKochCurve(g2d, x3, y3, x1, y1, depth);
+    @Override
+    public ArtWork createPreview(int levelsRemoved) {
+        // Escape-time previews halve the iteration limit per level instead
+        int previewIterations = isEscapeTime() ? iterations >> levelsRemoved : iterations - levelsRemoved;
+        if (previewIterations < (isEscapeTime() ? 16 : 1)) {
+            return null;
+        }
+        FractalArt preview = (FractalArt) copy();
+        preview.iterations = previewIterations;
+        return preview;
+    }
+
+    @Override
+    protected String getRenderParameters() {
+        String parameters = "type=" + fractalType + ";iterations=" + iterations + ";scale=" + scaleFactor;
+        if (zoomCenterRe != null) {
+            parameters += ";zoom=" + zoomCenterRe + "," + zoomCenterIm + "," + zoomWidth;
+        }
+        return parameters;
     }
 
     /**
-     * Generate Koch curve segment recursively
+     * Private recursive helper method to calculate complexity
      * 
-     * @param x1,   y1 Starting point
-     * @param x2,   y2 Ending point
-     * @param depth Recursion depth
+     * @param depth Current recursion depth
+     * @return Complexity value
      */
-    private void generateKochCurve(int x1, int y1, int x2, int y2, int depth) {
-        if (depth == 0) {
-            description += String.format("Line: (%d,%d) to (%d,%d)\n", x1, y1, x2, y2);
-            return;
+    private int calculateFractalComplexity(int depth) {
+        if (depth <= 0) {
+            return 1;
         }
-
-        // Calculate points for Koch curve
-        int deltaX = x2 - x1;
-        int deltaY = y2 - y1;
-
-        // First third point
-        int xa = x1 + deltaX / 3;
-        int ya = y1 + deltaY / 3;
-
-        // Second third point
-        int xb = x1 + 2 * deltaX / 3;
-        int yb = y1 + 2 * deltaY / 3;
-
-        // Peak point (equilateral triangle)
-        double angle = Math.atan2(deltaY, deltaX) - Math.PI / 3;
-        int xc = xa + (int) ((xb - xa) * Math.cos(angle) - (yb - ya) * Math.sin(angle));
-        int yc = ya + (int) ((xb - xa) * Math.sin(angle) + (yb - ya) * Math.cos(angle));
-
-        // Recursive calls
-        generateKochCurve(x1, y1, xa, ya, depth - 1);
-        generateKochCurve(xa, ya, xc, yc, depth - 1);
-        generateKochCurve(xc, yc, xb, yb, depth - 1);
-        generateKochCurve(xb, yb, x2, y2, depth - 1);
+        // Recursive calculation: each level adds exponentially more complexity
+        return depth + 2 * calculateFractalComplexity(depth - 1);
     }
 
     /**
-     * Draw Koch curve segment recursively with graphics
+     * Zoom a Mandelbrot set into a small view. The centre is given as decimal
+     * text so it can have as many digits as the zoom needs; views narrower
+     * than doubles can resolve are rendered by perturbation.
+     * 
+     * @param centerRe Real part of the view centre (e.g. "-0.743643887037151")
+     * @param centerIm Imaginary part of the view centre
+     * @param width    Width of the view in the complex plane (e.g. 1e-50)
      */
-    private void drawKochCurve(Graphics2D g2d, int x1, int y1, int x2, int y2, int depth) {
-        if (depth == 0) {
-            g2d.drawLine(x1, y1, x2, y2);
-            return;
+    public void setDeepZoom(String centerRe, String centerIm, double width) {
+        if (!fractalType.equals("mandelbrot")) {
+            throw new IllegalStateException("Deep zoom is only available for the Mandelbrot set");
         }
+        if (!(width > 0)) {
+            throw new IllegalArgumentException("Zoom width must be positive: " + width);
+        }
+        // Parse now so bad input fails here rather than during rendering
+        this.zoomCenterRe = new BigDecimal(centerRe.trim()).toString();
+        this.zoomCenterIm = new BigDecimal(centerIm.trim()).toString();
+        this.zoomWidth = width;
+        releaseGeometry();
+    }
 
-        // Calculate points for Koch curve
-        int deltaX = x2 - x1;
-        int deltaY = y2 - y1;
-
-        // First third point
-        int xa = x1 + deltaX / 3;
-        int ya = y1 + deltaY / 3;
-
-        // Second third point
-        int xb = x1 + 2 * deltaX / 3;
-        int yb = y1 + 2 * deltaY / 3;
-
-        // Peak point (equilateral triangle)
-        double angle = Math.atan2(deltaY, deltaX) - Math.PI / 3;
-        int xc = xa + (int) ((xb - xa) * Math.cos(angle) - (yb - ya) * Math.sin(angle));
-        int yc = ya + (int) ((xb - xa) * Math.sin(angle) + (yb - ya) * Math.cos(angle));
-
-        // Recursive calls
-        drawKochCurve(g2d, x1, y1, xa, ya, depth - 1);
-        drawKochCurve(g2d, xa, ya, xc, yc, depth - 1);
-        drawKochCurve(g2d, xc, yc, xb, yb, depth - 1);
-        drawKochCurve(g2d, xb, yb, x2, y2, depth - 1);
+    /**
+     * Go back to showing the whole set
+     */
+    public void clearDeepZoom() {
+        zoomCenterRe = null;
+        zoomCenterIm = null;
+        releaseGeometry();
     }
 
     // Getters
@@ -377,4 +461,12 @@ public class FractalArt extends ArtWork {
     public String getFractalType() {
         return fractalType;
     }
+
+    public boolean isDeepZoom() {
+        return zoomCenterRe != null;
+    }
+
+    public double getZoomWidth() {
+        return zoomWidth;
+    }
 }
@@ -0,0 +1,346 @@
+import java.util.Arrays;
+
+/**
+ * FractalEngine class that generates tree, Sierpinski and Koch fractals without
+ * recursion. Pieces still to be drawn wait on an explicit stack of doubles, so
+ * any number of iterations runs in the same Java stack, and coordinates keep
+ * full precision instead of being cut to whole pixels at every level.
+ * Generation can stop after a number of primitives and resume later, so long
+ * jobs can be run in chunks.
+ */
+public class FractalEngine {
+    private static final int TREE = 0;
+    private static final int SIERPINSKI = 1;
+    private static final int KOCH = 2;
+
+    // Doubles per stack frame for each type:
+    // tree (x, y, length, angle, depth), triangle (x1, y1, x2, y2, x3, y3, depth),
+    // Koch segment (x1, y1, x2, y2, depth)
+    private static final int[] FRAME_SIZES = { 5, 7, 5 };
+
+    // Frames left waiting per level at most (one fewer than the pieces each
+    // frame splits into), and frames pushed before the first level
+    private static final int[] FRAMES_PER_LEVEL = { 2, 2, 3 };
+    private static final int FIRST_FRAMES = 3;
+
+    private GeometrySink sink;
+    private int type;
+    private int frameSize;
+    private double scaleFactor;
+    private DepthPalette palette;
+    private int color;
+    private int stroke;
+
+    private double[] stack;
+    private int top;
+    private long primitives;
+
+    // Scratch arrays for triangles
+    private double[] xs = new double[3];
+    private double[] ys = new double[3];
+
+    /**
+     * Constructor for FractalEngine
+     *
+     * @param sink  Sink receiving the primitives
+     * @param type  TREE, SIERPINSKI or KOCH
+     * @param depth Number of levels, to size the stack once
+     */
+    private FractalEngine(GeometrySink sink, int type, int depth) {
+        this.sink = sink;
+        this.type = type;
+        this.frameSize = FRAME_SIZES[type];
+        this.stack = new double[frameSize * (FRAMES_PER_LEVEL[type] * Math.max(0, depth) + FIRST_FRAMES)];
+    }
+
+    /**
+     * Prepare a branching tree: two side branches per level, plus a shorter
+     * middle branch above depth 3
+     *
+     * @param sink        Sink receiving the branches
+     * @param palette     Colour and stroke ids for each depth
+     * @param x           Trunk start x
+     * @param y           Trunk start y
+     * @param length      Trunk length
+     * @param angle       Trunk angle in radians
+     * @param depth       Number of levels
+     * @param scaleFactor Length ratio between levels
+     * @return The engine, ready to run
+     */
+    public static FractalEngine tree(GeometrySink sink, DepthPalette palette, double x, double y, double length,
+            double angle, int depth, double scaleFactor) {
+        FractalEngine engine = new FractalEngine(sink, TREE, depth);
+        engine.palette = palette;
+        engine.scaleFactor = scaleFactor;
+        engine.push(x, y, length, angle, depth);
+        return engine;
+    }
+
+    /**
+     * Prepare a Sierpinski triangle
+     *
+     * @param sink  Sink receiving the filled triangles
+     * @param color Colour id of the triangles
+     * @param x1    First corner x
+     * @param y1    First corner y
+     * @param x2    Second corner x
+     * @param y2    Second corner y
+     * @param x3    Third corner x
+     * @param y3    Third corner y
+     * @param depth Number of subdivisions
+     * @return The engine, ready to run
+     */
+    public static FractalEngine sierpinski(GeometrySink sink, int color, double x1, double y1, double x2,
+            double y2, double x3, double y3, int depth) {
+        FractalEngine engine = new FractalEngine(sink, SIERPINSKI, depth);
+        engine.color = color;
+        engine.pushTriangle(x1, y1, x2, y2, x3, y3, depth);
+        return engine;
+    }
+
+    /**
+     * Prepare a Koch snowflake: a Koch curve on each side of a triangle
+     *
+     * @param sink    Sink receiving the line segments
+     * @param color   Colour id of the lines
+     * @param stroke  Stroke id of the lines
+     * @param centerX Centre x of the snowflake
+     * @param centerY Centre y of the snowflake
+     * @param size    Distance from the centre to the top corner
+     * @param depth   Number of subdivisions
+     * @return The engine, ready to run
+     */
+    public static FractalEngine kochSnowflake(GeometrySink sink, int color, int stroke, double centerX,
+            double centerY, double size, int depth) {
+        FractalEngine engine = new FractalEngine(sink, KOCH, depth);
+        engine.color = color;
+        engine.stroke = stroke;
+
+        double x1 = centerX;
+        double y1 = centerY - size;
+        double x2 = centerX - size * Math.cos(Math.PI / 6);
+        double y2 = centerY + size * Math.sin(Math.PI / 6);
+        double x3 = centerX + size * Math.cos(Math.PI / 6);
+        double y3 = y2;
+
+        // Pushed in reverse so the sides come out in order
+        engine.push(x3, y3, x1, y1, depth);
+        engine.push(x2, y2, x3, y3, depth);
+        engine.push(x1, y1, x2, y2, depth);
+        return engine;
+    }
+
+    /**
+     * Generate everything that is left
+     */
+    public void run() {
+        run(Long.MAX_VALUE);
+    }
+
+    /**
+     * Generate until a number of primitives has been emitted or the fractal
+     * is complete (method overloading). Call again to continue.
+     *
+     * @param maxPrimitives Most primitives to emit in this call
+     * @return true if the whole fractal has been generated
+     */
+    public boolean run(long maxPrimitives) {
+        long stopAt = primitives + maxPrimitives < primitives ? Long.MAX_VALUE : primitives + maxPrimitives;
+        while (top > 0 && primitives < stopAt) {
+            top -= frameSize;
+            switch (type) {
+                case TREE:
+                    stepTree();
+                    break;
+                case SIERPINSKI:
+                    stepSierpinski();
+                    break;
+                default:
+                    stepKoch();
+                    break;
+            }
+        }
+        return top == 0;
+    }
+
+    /**
+     * Draw the branch in the popped frame and queue its sub-branches
+     */
+    private void stepTree() {
+        double x = stack[top];
+        double y = stack[top + 1];
+        double length = stack[top + 2];
+        double angle = stack[top + 3];
+        int depth = (int) stack[top + 4];
+        if (depth == 0) {
+            return;
+        }
+
+        // Skip the whole subtree when it cannot reach the visible area (margin covers stroke width)
+        if (!sink.isVisible(x, y, ArtWork.subtreeReach(length, scaleFactor, depth) + depth + 2)) {
+            return;
+        }
+
+        double endX = x + length * Math.cos(angle);
+        double endY = y + length * Math.sin(angle);
+        sink.segment(x, y, endX, endY, depth, palette.getColor(depth), palette.getStroke(depth));
+        primitives++;
+
+        // Once branches are smaller than the level of detail, this one stands for its subtree
+        if (sink.isBelowDetail(length)) {
+            return;
+        }
+
+        // Pushed in reverse so branches come out left, right, middle as with recursion
+        double newLength = length * scaleFactor;
+        if (depth > 3) {
+            push(endX, endY, newLength * 0.8, angle, depth - 1);
+        }
+        push(endX, endY, newLength, angle + 0.4, depth - 1);
+        push(endX, endY, newLength, angle - 0.4, depth - 1);
+    }
+
+    /**
+     * Fill the popped triangle, or queue its three corner triangles
+     */
+    private void stepSierpinski() {
+        double x1 = stack[top];
+        double y1 = stack[top + 1];
+        double x2 = stack[top + 2];
+        double y2 = stack[top + 3];
+        double x3 = stack[top + 4];
+        double y3 = stack[top + 5];
+        int depth = (int) stack[top + 6];
+
+        // Every sub-triangle lies inside this one
+        double minX = Math.min(x1, Math.min(x2, x3));
+        double minY = Math.min(y1, Math.min(y2, y3));
+        double maxX = Math.max(x1, Math.max(x2, x3));
+        double maxY = Math.max(y1, Math.max(y2, y3));
+        if (!sink.isVisible(minX, minY, maxX, maxY)) {
+            return;
+        }
+
+        // Below the level of detail the holes cannot be seen, so fill the whole triangle
+        if (depth == 0 || sink.isBelowDetail(Math.max(maxX - minX, maxY - minY))) {
+            xs[0] = x1;
+            xs[1] = x2;
+            xs[2] = x3;
+            ys[0] = y1;
+            ys[1] = y2;
+            ys[2] = y3;
+            sink.polygon(xs, ys, 3, depth, color, 0, true);
+            primitives++;
+            return;
+        }
+
+        double midX1 = (x1 + x2) / 2;
+        double midY1 = (y1 + y2) / 2;
+        double midX2 = (x2 + x3) / 2;
+        double midY2 = (y2 + y3) / 2;
+        double midX3 = (x3 + x1) / 2;
+        double midY3 = (y3 + y1) / 2;
+
+        pushTriangle(midX3, midY3, midX2, midY2, x3, y3, depth - 1);
+        pushTriangle(midX1, midY1, x2, y2, midX2, midY2, depth - 1);
+        pushTriangle(x1, y1, midX1, midY1, midX3, midY3, depth - 1);
+    }
+
+    /**
+     * Draw the popped Koch segment, or queue its four parts
+     */
+    private void stepKoch() {
+        double x1 = stack[top];
+        double y1 = stack[top + 1];
+        double x2 = stack[top + 2];
+        double y2 = stack[top + 3];
+        int depth = (int) stack[top + 4];
+
+        // The curve never strays more than a third of its base length from the base.
+        // Sides at 60 degrees put the peak on the next point, leaving an empty
+        // part with nothing to draw.
+        double length = Math.hypot(x2 - x1, y2 - y1);
+        if (length == 0) {
+            return;
+        }
+        double reach = length / 3 + 2;
+        if (!sink.isVisible(Math.min(x1, x2) - reach, Math.min(y1, y2) - reach, Math.max(x1, x2) + reach,
+                Math.max(y1, y2) + reach)) {
+            return;
+        }
+
+        // Below the level of detail the bumps cannot be seen, so draw the base line
+        if (depth == 0 || sink.isBelowDetail(length)) {
+            sink.segment(x1, y1, x2, y2, depth, color, stroke);
+            primitives++;
+            return;
+        }
+
+        double deltaX = x2 - x1;
+        double deltaY = y2 - y1;
+        double xa = x1 + deltaX / 3;
+        double ya = y1 + deltaY / 3;
+        double xb = x1 + 2 * deltaX / 3;
+        double yb = y1 + 2 * deltaY / 3;
+
+        // Peak point, placed the same way the original recursive version did
+        double angle = Math.atan2(deltaY, deltaX) - Math.PI / 3;
+        double xc = xa + (xb - xa) * Math.cos(angle) - (yb - ya) * Math.sin(angle);
+        double yc = ya + (xb - xa) * Math.sin(angle) + (yb - ya) * Math.cos(angle);
+
+        push(xb, yb, x2, y2, depth - 1);
+        push(xc, yc, xb, yb, depth - 1);
+        push(xa, ya, xc, yc, depth - 1);
+        push(x1, y1, xa, ya, depth - 1);
+    }
+
+    /**
+     * Push a five-value frame (a tree branch or a Koch segment)
+     */
+    private void push(double a, double b, double c, double d, int depth) {
+        ensureSpace();
+        stack[top++] = a;
+        stack[top++] = b;
+        stack[top++] = c;
+        stack[top++] = d;
+        stack[top++] = depth;
+    }
+
+    /**
+     * Push a triangle frame
+     */
+    private void pushTriangle(double x1, double y1, double x2, double y2, double x3, double y3, int depth) {
+        ensureSpace();
+        stack[top++] = x1;
+        stack[top++] = y1;
+        stack[top++] = x2;
+        stack[top++] = y2;
+        stack[top++] = x3;
+        stack[top++] = y3;
+        stack[top++] = depth;
+    }
+
+    /**
+     * Grow the stack if another frame would not fit. Depth-first order keeps it
+     * at most (branches - 1) frames per level, so the stack sized in the
+     * constructor is always enough; this is only a safeguard.
+     */
+    private void ensureSpace() {
+        if (top + frameSize > stack.length) {
+            stack = Arrays.copyOf(stack, stack.length * 2);
+        }
+    }
+
+    // Getters
+    public boolean isFinished() {
+        return top == 0;
+    }
+
+    public long getPrimitiveCount() {
+        return primitives;
+    }
+
+    public int getPendingCount() {
+        return top / frameSize;
+    }
+}
@@ -0,0 +1,107 @@
+/**
+ * FrameTimeHistogram class that counts how long animation frames take, in
+ * one-millisecond buckets, so a run can be checked against its frame budget
+ * (16.7 ms for 60 frames per second).
+ */
+public class FrameTimeHistogram {
+    // Frames slower than this all go in the last bucket
+    private static final int MAX_MILLIS = 40;
+
+    private long[] counts = new long[MAX_MILLIS + 1];
+    private long frames;
+    private long totalNanos;
+    private long slowestNanos;
+
+    /**
+     * Count one frame
+     *
+     * @param nanos How long the frame took, in nanoseconds
+     */
+    public synchronized void record(long nanos) {
+        int bucket = (int) Math.min(MAX_MILLIS, nanos / 1_000_000);
+        counts[bucket]++;
+        frames++;
+        totalNanos += nanos;
+        slowestNanos = Math.max(slowestNanos, nanos);
+    }
+
+    /**
+     * Frame time that a share of the frames were no slower than
+     *
+     * @param fraction Share of the frames (0.5 for the median, 0.99...)
+     * @return Upper edge of the bucket reached, in milliseconds (0 with no frames)
+     */
+    public synchronized int getPercentileMillis(double fraction) {
+        long needed = (long) Math.ceil(frames * fraction);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= needed && seen > 0) {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Count the frames that took longer than a budget
+     *
+     * @param budgetMillis Frame budget in milliseconds
+     * @return Number of frames over budget (to the nearest bucket)
+     */
+    public synchronized long countOver(double budgetMillis) {
+        long over = 0;
+        for (int i = (int) Math.ceil(budgetMillis); i < counts.length; i++) {
+            over += counts[i];
+        }
+        return over;
+    }
+
+    /**
+     * Average frame time
+     *
+     * @return Milliseconds per frame (0 with no frames)
+     */
+    public synchronized double getAverageMillis() {
+        return frames == 0 ? 0 : totalNanos / 1e6 / frames;
+    }
+
+    /**
+     * Show the histogram as text, one bar per bucket that has frames
+     *
+     * @param budgetMillis Frame budget in milliseconds, marked on the buckets over it
+     * @return The histogram
+     */
+    public synchronized String toString(double budgetMillis) {
+        StringBuilder text = new StringBuilder();
+        text.append(String.format("Frames: %d, average %.2f ms, slowest %.2f ms, p50 <= %d ms, p99 <= %d ms%n",
+                frames, getAverageMillis(), slowestNanos / 1e6, getPercentileMillis(0.5),
+                getPercentileMillis(0.99)));
+        text.append(String.format("Over the %.1f ms budget: %d%n", budgetMillis, countOver(budgetMillis)));
+
+        long largest = 1;
+        for (long count : counts) {
+            largest = Math.max(largest, count);
+        }
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                continue;
+            }
+            String label = i == MAX_MILLIS ? String.format("%3d+ ms   ", i) : String.format("%3d-%-3d ms", i, i + 1);
+            int bar = (int) Math.max(1, counts[i] * 40 / largest);
+            text.append(String.format("%s %s %s %d%n", i + 1 > budgetMillis ? "!" : " ", label,
+                    "#".repeat(bar), counts[i]));
+        }
+        return text.toString();
+    }
+
+    @Override
+    public String toString() {
+        return toString(1000.0 / 60);
+    }
+
+    // Getters
+    public synchronized long getFrameCount() {
+        return frames;
+    }
+}
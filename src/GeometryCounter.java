@@ -0,0 +1,120 @@
+/**
+ * GeometryCounter class that counts the primitives of an artwork and their
+ * bounding box without storing or drawing anything.
+ */
+public class GeometryCounter extends GeometrySink {
+    private long segments;
+    private long zeroLengthSegments;
+    private long polygons;
+    private long ovals;
+    private long images;
+    private long pixels;
+    private long vertices;
+    private int maxDepth;
+    private double minX = Double.POSITIVE_INFINITY;
+    private double minY = Double.POSITIVE_INFINITY;
+    private double maxX = Double.NEGATIVE_INFINITY;
+    private double maxY = Double.NEGATIVE_INFINITY;
+
+    @Override
+    public void segment(double x1, double y1, double x2, double y2, int depth, int colorId, int strokeId) {
+        segments++;
+        if (x1 == x2 && y1 == y2) {
+            zeroLengthSegments++; // drawn as a dot
+        }
+        vertices += 2;
+        include(x1, y1, depth);
+        include(x2, y2, depth);
+    }
+
+    @Override
+    public void polygon(double[] xs, double[] ys, int count, int depth, int colorId, int strokeId,
+            boolean filled) {
+        polygons++;
+        vertices += count;
+        for (int i = 0; i < count; i++) {
+            include(xs[i], ys[i], depth);
+        }
+    }
+
+    @Override
+    public void oval(double x, double y, double width, double height, int depth, int colorId, int strokeId,
+            boolean filled) {
+        ovals++;
+        vertices += 4;
+        include(x, y, depth);
+        include(x + width, y + height, depth);
+    }
+
+    @Override
+    public void image(int[] argb, int columns, int rows, double x, double y, double width, double height,
+            int depth) {
+        images++;
+        pixels += (long) columns * rows;
+        vertices += 4;
+        include(x, y, depth);
+        include(x + width, y + height, depth);
+    }
+
+    /**
+     * Grow the bounding box and depth range to include a point
+     */
+    private void include(double x, double y, int depth) {
+        minX = Math.min(minX, x);
+        minY = Math.min(minY, y);
+        maxX = Math.max(maxX, x);
+        maxY = Math.max(maxY, y);
+        maxDepth = Math.max(maxDepth, depth);
+    }
+
+    // Getters
+    public long getSegments() {
+        return segments;
+    }
+
+    public long getZeroLengthSegments() {
+        return zeroLengthSegments;
+    }
+
+    public long getPolygons() {
+        return polygons;
+    }
+
+    public long getOvals() {
+        return ovals;
+    }
+
+    public long getImages() {
+        return images;
+    }
+
+    public long getPixels() {
+        return pixels;
+    }
+
+    public long getPrimitives() {
+        return segments + polygons + ovals + images;
+    }
+
+    public long getVertices() {
+        return vertices;
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    public java.awt.geom.Rectangle2D getBounds() {
+        if (getPrimitives() == 0) {
+            return new java.awt.geom.Rectangle2D.Double();
+        }
+        return new java.awt.geom.Rectangle2D.Double(minX, minY, maxX - minX, maxY - minY);
+    }
+
+    @Override
+    public String toString() {
+        String counts = String.format("%d segments, %d polygons, %d ovals (%d vertices)", segments, polygons,
+                ovals, vertices);
+        return images == 0 ? counts : counts + String.format(", %d images (%d pixels)", images, pixels);
+    }
+}
@@ -0,0 +1,352 @@
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * GeometryRecording class that stores a primitive stream compactly so it can be
+ * replayed into any number of other sinks without regenerating it.
+ * Primitives are kept in parallel primitive arrays rather than as objects,
+ * with their tags (such as a tree branch's packed path) when there are any.
+ * Copies of other recordings are kept by reference with their transforms.
+ */
+public class GeometryRecording extends GeometrySink {
+    private static final byte SEGMENT = 0;
+    private static final byte POLYGON = 1;
+    private static final byte OVAL = 2;
+    private static final byte IMAGE = 3;
+    private static final byte INSTANCE = 8;
+    private static final byte FILLED = 4; // flag added to POLYGON/OVAL
+
+    private byte[] kinds = new byte[64];
+    private int[] depths = new int[64];
+    private int[] colorIds = new int[64];
+    private int[] strokeIds = new int[64];
+    private long[] tags; // created when the first tag arrives
+    private int count;
+
+    private float[] coords = new float[256];
+    private int coordCount;
+    private int[] polygonSizes = new int[16];
+    private int polygonCount;
+    private int maxPolygonSize;
+
+    // Pixel grids are kept by reference, with their columns and rows in pairs
+    private int[][] images = new int[2][];
+    private int[] imageSizes = new int[4];
+    private int imageCount;
+    private long imagePixels;
+
+    // Copies of shared recordings, by reference, with how each is placed
+    private GeometryRecording[] instanceGeometry = new GeometryRecording[2];
+    private InstanceTransform[] instanceTransforms = new InstanceTransform[2];
+    private int instanceCount;
+
+    // Smallest box holding everything drawn, found on first use
+    private double[] bounds;
+
+    private int segmentCount;
+    private int ovalCount;
+
+    @Override
+    public void segment(double x1, double y1, double x2, double y2, int depth, int colorId, int strokeId) {
+        add(SEGMENT, depth, colorId, strokeId);
+        addCoords(x1, y1, x2, y2);
+        segmentCount++;
+    }
+
+    @Override
+    public void polygon(double[] xs, double[] ys, int n, int depth, int colorId, int strokeId,
+            boolean filled) {
+        add(filled ? POLYGON | FILLED : POLYGON, depth, colorId, strokeId);
+        ensureCoords(n * 2);
+        for (int i = 0; i < n; i++) {
+            coords[coordCount++] = (float) xs[i];
+            coords[coordCount++] = (float) ys[i];
+        }
+        if (polygonCount == polygonSizes.length) {
+            polygonSizes = Arrays.copyOf(polygonSizes, polygonCount * 2);
+        }
+        polygonSizes[polygonCount++] = n;
+        maxPolygonSize = Math.max(maxPolygonSize, n);
+    }
+
+    @Override
+    public void oval(double x, double y, double width, double height, int depth, int colorId, int strokeId,
+            boolean filled) {
+        add(filled ? OVAL | FILLED : OVAL, depth, colorId, strokeId);
+        addCoords(x, y, width, height);
+        ovalCount++;
+    }
+
+    @Override
+    public void image(int[] argb, int columns, int rows, double x, double y, double width, double height,
+            int depth) {
+        add(IMAGE, depth, 0, 0);
+        addCoords(x, y, width, height);
+        if (imageCount == images.length) {
+            images = Arrays.copyOf(images, imageCount * 2);
+            imageSizes = Arrays.copyOf(imageSizes, imageCount * 4);
+        }
+        images[imageCount] = argb;
+        imageSizes[imageCount * 2] = columns;
+        imageSizes[imageCount * 2 + 1] = rows;
+        imageCount++;
+        imagePixels += argb.length;
+    }
+
+    @Override
+    public void instance(GeometryRecording geometry, InstanceTransform transform) {
+        add(INSTANCE, 0, 0, 0);
+        if (instanceCount == instanceGeometry.length) {
+            instanceGeometry = Arrays.copyOf(instanceGeometry, instanceCount * 2);
+            instanceTransforms = Arrays.copyOf(instanceTransforms, instanceCount * 2);
+        }
+        instanceGeometry[instanceCount] = geometry;
+        instanceTransforms[instanceCount] = transform;
+        instanceCount++;
+    }
+
+    /**
+     * Send every recorded primitive, in order, to another sink
+     *
+     * @param target The sink to replay into
+     */
+    public void replay(GeometrySink target) {
+        replay(target, 0, count);
+    }
+
+    /**
+     * Send a range of the recorded primitives, in order, to another sink
+     * (method overloading)
+     *
+     * @param target The sink to replay into
+     * @param first  Index of the first primitive to send
+     * @param end    Index after the last primitive to send
+     */
+    public void replay(GeometrySink target, int first, int end) {
+        // Translate our palette ids to the target's ids once, not per primitive
+        int[] colorMap = new int[getColorCount()];
+        for (int i = 0; i < colorMap.length; i++) {
+            colorMap[i] = target.defineColor(getColor(i));
+        }
+        int[] strokeMap = new int[getStrokeCount()];
+        for (int i = 0; i < strokeMap.length; i++) {
+            strokeMap[i] = target.defineStroke(getStroke(i));
+        }
+
+        double[] xs = new double[maxPolygonSize];
+        double[] ys = new double[maxPolygonSize];
+        long targetTag = target.getTag();
+        int c = 0;
+        int polygon = 0;
+        int image = 0;
+        int instance = 0;
+
+        // Step over the primitives before the range to find where its data starts
+        for (int i = 0; i < first; i++) {
+            if (kinds[i] == INSTANCE) {
+                instance++;
+            } else if (kinds[i] == IMAGE) {
+                image++;
+                c += 4;
+            } else if ((kinds[i] & ~FILLED) == POLYGON) {
+                c += 2 * polygonSizes[polygon++];
+            } else {
+                c += 4;
+            }
+        }
+
+        for (int i = first; i < end; i++) {
+            if (tags != null) {
+                target.setTag(tags[i]);
+            }
+            if (kinds[i] == INSTANCE) {
+                // Copies carry their own colours too, and are placed by the target
+                target.instance(instanceGeometry[instance], instanceTransforms[instance]);
+                instance++;
+                continue;
+            }
+            if (kinds[i] == IMAGE) {
+                // Images carry their own colours
+                target.image(images[image], imageSizes[image * 2], imageSizes[image * 2 + 1], coords[c],
+                        coords[c + 1], coords[c + 2], coords[c + 3], depths[i]);
+                image++;
+                c += 4;
+                continue;
+            }
+            int colorId = colorMap[colorIds[i]];
+            int strokeId = strokeMap[strokeIds[i]];
+            boolean filled = (kinds[i] & FILLED) != 0;
+
+            switch (kinds[i] & ~FILLED) {
+                case SEGMENT:
+                    target.segment(coords[c], coords[c + 1], coords[c + 2], coords[c + 3], depths[i], colorId,
+                            strokeId);
+                    c += 4;
+                    break;
+                case POLYGON:
+                    int n = polygonSizes[polygon++];
+                    for (int p = 0; p < n; p++) {
+                        xs[p] = coords[c++];
+                        ys[p] = coords[c++];
+                    }
+                    target.polygon(xs, ys, n, depths[i], colorId, strokeId, filled);
+                    break;
+                default:
+                    target.oval(coords[c], coords[c + 1], coords[c + 2], coords[c + 3], depths[i], colorId,
+                            strokeId, filled);
+                    c += 4;
+                    break;
+            }
+        }
+        target.setTag(targetTag);
+    }
+
+    /**
+     * The smallest box holding everything drawn, widened by half the widest
+     * stroke
+     *
+     * @return Left, top, right and bottom, or null if nothing was drawn
+     */
+    public double[] getBounds() {
+        if (bounds != null || count == 0) {
+            return bounds;
+        }
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        int c = 0;
+        int polygon = 0;
+        int instance = 0;
+        for (int i = 0; i < count; i++) {
+            int kind = kinds[i] & ~FILLED;
+            if (kinds[i] == INSTANCE) {
+                double[] inner = instanceGeometry[instance].getBounds();
+                InstanceTransform transform = instanceTransforms[instance++];
+                if (inner != null) {
+                    minX = Math.min(minX, transform.mapX(inner[0]));
+                    minY = Math.min(minY, transform.mapY(inner[1]));
+                    maxX = Math.max(maxX, transform.mapX(inner[2]));
+                    maxY = Math.max(maxY, transform.mapY(inner[3]));
+                }
+            } else if (kind == POLYGON) {
+                for (int p = polygonSizes[polygon++]; p > 0; p--) {
+                    minX = Math.min(minX, coords[c]);
+                    maxX = Math.max(maxX, coords[c++]);
+                    minY = Math.min(minY, coords[c]);
+                    maxY = Math.max(maxY, coords[c++]);
+                }
+            } else {
+                // Segments hold two corners, ovals and images a corner and a size
+                boolean sized = kind != SEGMENT;
+                double x2 = sized ? coords[c] + coords[c + 2] : coords[c + 2];
+                double y2 = sized ? coords[c + 1] + coords[c + 3] : coords[c + 3];
+                minX = Math.min(minX, Math.min(coords[c], x2));
+                minY = Math.min(minY, Math.min(coords[c + 1], y2));
+                maxX = Math.max(maxX, Math.max(coords[c], x2));
+                maxY = Math.max(maxY, Math.max(coords[c + 1], y2));
+                c += 4;
+            }
+        }
+        double halfStroke = 0;
+        for (int i = 0; i < getStrokeCount(); i++) {
+            halfStroke = Math.max(halfStroke, getStroke(i) / 2);
+        }
+        bounds = new double[] { minX - halfStroke, minY - halfStroke, maxX + halfStroke, maxY + halfStroke };
+        return bounds;
+    }
+
+    /**
+     * Append the shared fields of one primitive
+     */
+    private void add(byte kind, int depth, int colorId, int strokeId) {
+        bounds = null; // grows with the new primitive
+        if (count == kinds.length) {
+            int capacity = count * 2;
+            kinds = Arrays.copyOf(kinds, capacity);
+            depths = Arrays.copyOf(depths, capacity);
+            colorIds = Arrays.copyOf(colorIds, capacity);
+            strokeIds = Arrays.copyOf(strokeIds, capacity);
+            if (tags != null) {
+                tags = Arrays.copyOf(tags, capacity);
+            }
+        }
+        kinds[count] = kind;
+        depths[count] = depth;
+        colorIds[count] = colorId;
+        strokeIds[count] = strokeId;
+        if (tags == null && getTag() != 0) {
+            tags = new long[kinds.length]; // earlier primitives keep tag 0
+        }
+        if (tags != null) {
+            tags[count] = getTag();
+        }
+        count++;
+    }
+
+    /**
+     * Append four coordinates
+     */
+    private void addCoords(double a, double b, double c, double d) {
+        ensureCoords(4);
+        coords[coordCount++] = (float) a;
+        coords[coordCount++] = (float) b;
+        coords[coordCount++] = (float) c;
+        coords[coordCount++] = (float) d;
+    }
+
+    /**
+     * Grow the coordinate array to fit more values
+     */
+    private void ensureCoords(int extra) {
+        if (coordCount + extra > coords.length) {
+            coords = Arrays.copyOf(coords, Math.max(coords.length * 2, coordCount + extra));
+        }
+    }
+
+    // Getters
+    public int getPrimitiveCount() {
+        return count;
+    }
+
+    public int getSegmentCount() {
+        return segmentCount;
+    }
+
+    public int getPolygonCount() {
+        return polygonCount;
+    }
+
+    public int getOvalCount() {
+        return ovalCount;
+    }
+
+    public int getImageCount() {
+        return imageCount;
+    }
+
+    public int getInstanceCount() {
+        return instanceCount;
+    }
+
+    /**
+     * Approximate memory held by the recording, counting each shared
+     * recording it copies once
+     *
+     * @return Size in bytes
+     */
+    public long getMemoryBytes() {
+        long tagBytes = tags == null ? 0 : tags.length * 8L;
+        long bytes = kinds.length * 13L + tagBytes + coords.length * 4L + polygonSizes.length * 4L
+                + imagePixels * 4L + instanceGeometry.length * 8L;
+        Set<GeometryRecording> shared = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int i = 0; i < instanceCount; i++) {
+            if (shared.add(instanceGeometry[i])) {
+                bytes += instanceGeometry[i].getMemoryBytes();
+            }
+        }
+        return bytes + instanceCount * 72L; // each transform
+    }
+}
@@ -0,0 +1,311 @@
+import java.awt.Color;
+import java.util.Arrays;
+
+/**
+ * GeometrySink class that receives the drawing primitives of an artwork.
+ * Every artwork generates its geometry into a sink exactly once; different sinks
+ * then rasterize it, describe it as text, count it or export it.
+ * Coordinates are in the 800x600 design canvas. Colours and stroke widths are
+ * registered once and then referred to by id.
+ */
+public abstract class GeometrySink {
+    private int[] colors = new int[8];
+    private int colorCount;
+    private float[] strokes = new float[4];
+    private int strokeCount;
+
+    // Part of the canvas that will actually be seen (everything by default)
+    private double visibleMinX = Double.NEGATIVE_INFINITY;
+    private double visibleMinY = Double.NEGATIVE_INFINITY;
+    private double visibleMaxX = Double.POSITIVE_INFINITY;
+    private double visibleMaxY = Double.POSITIVE_INFINITY;
+
+    // Level of detail: output pixels per canvas unit, and the size in pixels
+    // below which generators stop recursing (0 draws every level)
+    private double pixelScale = 1;
+    private double detailPixels;
+
+    // Code attached to the primitives that follow, such as a branch's path (0 for none)
+    private long tag;
+
+    /**
+     * Register a colour, returning the id of an identical colour if one exists
+     *
+     * @param argb Colour packed as 0xAARRGGBB
+     * @return The colour id
+     */
+    public int defineColor(int argb) {
+        // Newest first: generators usually reuse the colour they defined last
+        for (int i = colorCount - 1; i >= 0; i--) {
+            if (colors[i] == argb) {
+                return i;
+            }
+        }
+        if (colorCount == colors.length) {
+            colors = Arrays.copyOf(colors, colorCount * 2);
+        }
+        colors[colorCount] = argb;
+        colorDefined(colorCount, argb);
+        return colorCount++;
+    }
+
+    /**
+     * Register a colour (method overloading)
+     *
+     * @param color The colour
+     * @return The colour id
+     */
+    public int defineColor(Color color) {
+        return defineColor(color.getRGB());
+    }
+
+    /**
+     * Register a stroke width, returning the id of an identical width if one exists
+     *
+     * @param width Line width in canvas units
+     * @return The stroke id
+     */
+    public int defineStroke(float width) {
+        for (int i = strokeCount - 1; i >= 0; i--) {
+            if (strokes[i] == width) {
+                return i;
+            }
+        }
+        if (strokeCount == strokes.length) {
+            strokes = Arrays.copyOf(strokes, strokeCount * 2);
+        }
+        strokes[strokeCount] = width;
+        strokeDefined(strokeCount, width);
+        return strokeCount++;
+    }
+
+    /**
+     * Limit output to part of the canvas, such as a zoomed-in viewport.
+     * Generators ask isVisible before recursing, so hidden subtrees are skipped.
+     *
+     * @param x      Left of the visible area in canvas units
+     * @param y      Top of the visible area
+     * @param width  Width of the visible area
+     * @param height Height of the visible area
+     */
+    public void setVisibleArea(double x, double y, double width, double height) {
+        visibleMinX = x;
+        visibleMinY = y;
+        visibleMaxX = x + width;
+        visibleMaxY = y + height;
+    }
+
+    /**
+     * Attach a code to the primitives that follow, such as a tree branch's
+     * packed path. Sinks that keep or describe primitives may use it; others
+     * ignore it.
+     *
+     * @param tag The code (0 for none)
+     */
+    public void setTag(long tag) {
+        this.tag = tag;
+    }
+
+    /**
+     * Use the same visible area and level of detail as another sink, for
+     * example to record part of an artwork that will be replayed into it
+     *
+     * @param other The sink to copy the settings from
+     */
+    public void copyView(GeometrySink other) {
+        visibleMinX = other.visibleMinX;
+        visibleMinY = other.visibleMinY;
+        visibleMaxX = other.visibleMaxX;
+        visibleMaxY = other.visibleMaxY;
+        pixelScale = other.pixelScale;
+        detailPixels = other.detailPixels;
+    }
+
+    /**
+     * Whether anything inside a bounding box could be seen
+     *
+     * @param minX Left of the box
+     * @param minY Top of the box
+     * @param maxX Right of the box
+     * @param maxY Bottom of the box
+     * @return false if the box lies entirely outside the visible area
+     */
+    public boolean isVisible(double minX, double minY, double maxX, double maxY) {
+        return maxX >= visibleMinX && minX <= visibleMaxX && maxY >= visibleMinY && minY <= visibleMaxY;
+    }
+
+    /**
+     * Whether anything within a distance of a point could be seen (method overloading)
+     *
+     * @param x     Centre x
+     * @param y     Centre y
+     * @param reach Distance from the centre that drawing can extend to
+     * @return false if that area lies entirely outside the visible area
+     */
+    public boolean isVisible(double x, double y, double reach) {
+        return isVisible(x - reach, y - reach, x + reach, y + reach);
+    }
+
+    /**
+     * Set the level of detail. Generators stop recursing into a branch, polygon
+     * or segment once it would be smaller than detailPixels on screen and draw
+     * it as one short stroke or dot instead.
+     *
+     * @param pixelScale   Output pixels per canvas unit
+     * @param detailPixels Smallest size in pixels worth recursing into (0 for no limit)
+     */
+    public void setLevelOfDetail(double pixelScale, double detailPixels) {
+        this.pixelScale = pixelScale;
+        this.detailPixels = detailPixels;
+    }
+
+    /**
+     * Whether something of a given size is too small on screen to recurse into
+     *
+     * @param size Size in canvas units (a subtree's reach, a side length...)
+     * @return true if it would cover less than the detail threshold in pixels
+     */
+    public boolean isBelowDetail(double size) {
+        return size * pixelScale < detailPixels;
+    }
+
+    /**
+     * Called when a new colour id is created, so subclasses can prepare for it
+     *
+     * @param id   The new id
+     * @param argb The colour
+     */
+    protected void colorDefined(int id, int argb) {
+    }
+
+    /**
+     * Called when a new stroke id is created, so subclasses can prepare for it
+     *
+     * @param id    The new id
+     * @param width The stroke width
+     */
+    protected void strokeDefined(int id, float width) {
+    }
+
+    /**
+     * Draw a straight line
+     *
+     * @param x1       Start x
+     * @param y1       Start y
+     * @param x2       End x
+     * @param y2       End y
+     * @param depth    Recursion depth that produced the line
+     * @param colorId  Colour id
+     * @param strokeId Stroke id
+     */
+    public abstract void segment(double x1, double y1, double x2, double y2, int depth, int colorId,
+            int strokeId);
+
+    /**
+     * Draw a closed polygon
+     *
+     * @param xs       X coordinates (only the first count are used)
+     * @param ys       Y coordinates (only the first count are used)
+     * @param count    Number of vertices
+     * @param depth    Recursion depth that produced the polygon
+     * @param colorId  Colour id
+     * @param strokeId Stroke id for the outline (ignored when filled)
+     * @param filled   true to fill, false to outline
+     */
+    public abstract void polygon(double[] xs, double[] ys, int count, int depth, int colorId, int strokeId,
+            boolean filled);
+
+    /**
+     * Draw an ellipse inside a bounding box
+     *
+     * @param x        Left of the bounding box
+     * @param y        Top of the bounding box
+     * @param width    Width of the bounding box
+     * @param height   Height of the bounding box
+     * @param depth    Recursion depth that produced the ellipse
+     * @param colorId  Colour id
+     * @param strokeId Stroke id for the outline (ignored when filled)
+     * @param filled   true to fill, false to outline
+     */
+    public abstract void oval(double x, double y, double width, double height, int depth, int colorId,
+            int strokeId, boolean filled);
+
+    /**
+     * Draw a grid of pixels stretched over a rectangle, for artworks computed
+     * per pixel rather than from shapes
+     *
+     * @param argb    Colours packed as 0xAARRGGBB, row by row (treated as opaque)
+     * @param columns Pixels per row
+     * @param rows    Number of rows
+     * @param x       Left of the rectangle
+     * @param y       Top of the rectangle
+     * @param width   Width of the rectangle
+     * @param height  Height of the rectangle
+     * @param depth   Recursion depth that produced the image
+     */
+    public abstract void image(int[] argb, int columns, int rows, double x, double y, double width,
+            double height, int depth);
+
+    /**
+     * Draw a copy of recorded geometry, placed by a transform. Sinks that keep
+     * primitives can store the copy by reference; by default it is drawn
+     * primitive by primitive, unless it lies outside the visible area.
+     *
+     * @param geometry  The shared geometry
+     * @param transform Where and how to place the copy
+     */
+    public void instance(GeometryRecording geometry, InstanceTransform transform) {
+        double[] bounds = geometry.getBounds();
+        // One unit of margin for antialiasing
+        if (bounds == null || !isVisible(transform.mapX(bounds[0]) - 1, transform.mapY(bounds[1]) - 1,
+                transform.mapX(bounds[2]) + 1, transform.mapY(bounds[3]) + 1)) {
+            return;
+        }
+        geometry.replay(new TransformSink(this, transform));
+    }
+
+    // Palette getters
+    public int getColor(int id) {
+        return colors[id];
+    }
+
+    public float getStroke(int id) {
+        return strokes[id];
+    }
+
+    public int getColorCount() {
+        return colorCount;
+    }
+
+    public int getStrokeCount() {
+        return strokeCount;
+    }
+
+    public long getTag() {
+        return tag;
+    }
+
+    public double getPixelScale() {
+        return pixelScale;
+    }
+
+    public double getDetailPixels() {
+        return detailPixels;
+    }
+
+    public double getVisibleMinX() {
+        return visibleMinX;
+    }
+
+    public double getVisibleMinY() {
+        return visibleMinY;
+    }
+
+    public double getVisibleMaxX() {
+        return visibleMaxX;
+    }
+
+    public double getVisibleMaxY() {
+        return visibleMaxY;
+    }
+}
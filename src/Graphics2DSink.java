@@ -0,0 +1,231 @@
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Line2D;
+import java.awt.geom.Path2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+
+/**
+ * Graphics2DSink class that rasterizes a primitive stream with Java2D.
+ * Colour and stroke objects are created once per id, and state changes are
+ * only sent to the Graphics2D when the id actually changes.
+ * Runs of filled polygons in one colour are collected into a single path and
+ * filled with one call, which keeps the drawing order and is much cheaper
+ * than filling them one by one. Call flush() after the last primitive.
+ */
+public class Graphics2DSink extends GeometrySink {
+    private Graphics2D g2d;
+    private Color[] colorObjects = new Color[8];
+    private BasicStroke[] strokeObjects = new BasicStroke[4];
+    private int currentColor = -1;
+    private int currentStroke = -1;
+
+    // Filled polygons waiting to be drawn together, all in pendingColor
+    private static final int MAX_PENDING_POINTS = 4096; // filled early above this
+    private Path2D.Double pendingFill = new Path2D.Double();
+    private int pendingColor = -1;
+    private int pendingPoints;
+
+    // Scratch arrays for integer polygons
+    private int[] xPoints = new int[8];
+    private int[] yPoints = new int[8];
+
+    /**
+     * Constructor for Graphics2DSink
+     *
+     * @param g2d The graphics to draw on
+     */
+    public Graphics2DSink(Graphics2D g2d) {
+        this.g2d = g2d;
+    }
+
+    @Override
+    protected void colorDefined(int id, int argb) {
+        if (id >= colorObjects.length) {
+            colorObjects = Arrays.copyOf(colorObjects, id * 2);
+        }
+        colorObjects[id] = new Color(argb, true);
+    }
+
+    @Override
+    protected void strokeDefined(int id, float width) {
+        if (id >= strokeObjects.length) {
+            strokeObjects = Arrays.copyOf(strokeObjects, id * 2);
+        }
+        strokeObjects[id] = new BasicStroke(width);
+    }
+
+    @Override
+    public void segment(double x1, double y1, double x2, double y2, int depth, int colorId, int strokeId) {
+        flush();
+        useColor(colorId);
+        useStroke(strokeId);
+        if (isInt(x1) && isInt(y1) && isInt(x2) && isInt(y2)) {
+            g2d.drawLine((int) x1, (int) y1, (int) x2, (int) y2);
+        } else {
+            g2d.draw(new Line2D.Double(x1, y1, x2, y2));
+        }
+    }
+
+    @Override
+    public void polygon(double[] xs, double[] ys, int count, int depth, int colorId, int strokeId,
+            boolean filled) {
+        if (filled) {
+            addPendingFill(xs, ys, count, colorId);
+            return;
+        }
+        flush();
+        useColor(colorId);
+        useStroke(strokeId);
+
+        if (allInts(xs, ys, count)) {
+            if (count > xPoints.length) {
+                xPoints = new int[count];
+                yPoints = new int[count];
+            }
+            for (int i = 0; i < count; i++) {
+                xPoints[i] = (int) xs[i];
+                yPoints[i] = (int) ys[i];
+            }
+            g2d.drawPolygon(xPoints, yPoints, count);
+            return;
+        }
+
+        Path2D.Double path = new Path2D.Double();
+        path.moveTo(xs[0], ys[0]);
+        for (int i = 1; i < count; i++) {
+            path.lineTo(xs[i], ys[i]);
+        }
+        path.closePath();
+        g2d.draw(path);
+    }
+
+    @Override
+    public void oval(double x, double y, double width, double height, int depth, int colorId, int strokeId,
+            boolean filled) {
+        flush();
+        useColor(colorId);
+        if (!filled) {
+            useStroke(strokeId);
+        }
+
+        if (isInt(x) && isInt(y) && isInt(width) && isInt(height)) {
+            if (filled) {
+                g2d.fillOval((int) x, (int) y, (int) width, (int) height);
+            } else {
+                g2d.drawOval((int) x, (int) y, (int) width, (int) height);
+            }
+        } else if (filled) {
+            g2d.fill(new Ellipse2D.Double(x, y, width, height));
+        } else {
+            g2d.draw(new Ellipse2D.Double(x, y, width, height));
+        }
+    }
+
+    @Override
+    public void image(int[] argb, int columns, int rows, double x, double y, double width, double height,
+            int depth) {
+        flush();
+        BufferedImage image = new BufferedImage(columns, rows, BufferedImage.TYPE_INT_RGB);
+        int[] data = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        System.arraycopy(argb, 0, data, 0, columns * rows);
+
+        // Smooth the pixels when the image is stretched, then restore the caller's setting
+        Object interpolation = g2d.getRenderingHint(RenderingHints.KEY_INTERPOLATION);
+        g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g2d.drawImage(image, new AffineTransform(width / columns, 0, 0, height / rows, x, y), null);
+        if (interpolation != null) {
+            g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, interpolation);
+        }
+    }
+
+    /**
+     * Fill the polygons collected so far
+     */
+    public void flush() {
+        if (pendingPoints == 0) {
+            return;
+        }
+        useColor(pendingColor);
+        g2d.fill(pendingFill);
+        pendingFill.reset();
+        pendingPoints = 0;
+    }
+
+    /**
+     * Add a filled polygon to the pending path, filling the path first if it
+     * holds another colour
+     */
+    private void addPendingFill(double[] xs, double[] ys, int count, int colorId) {
+        if (colorId != pendingColor || pendingPoints + count > MAX_PENDING_POINTS) {
+            flush();
+            pendingColor = colorId;
+        }
+        // All polygons in the path must turn the same way, or where two overlap
+        // their windings would cancel and leave a hole
+        boolean reversed = signedArea(xs, ys, count) < 0;
+        for (int i = 0; i < count; i++) {
+            int vertex = reversed ? count - 1 - i : i;
+            if (i == 0) {
+                pendingFill.moveTo(xs[vertex], ys[vertex]);
+            } else {
+                pendingFill.lineTo(xs[vertex], ys[vertex]);
+            }
+        }
+        pendingFill.closePath();
+        pendingPoints += count;
+    }
+
+    /**
+     * Switch colour only if it changed
+     */
+    private void useColor(int colorId) {
+        if (colorId != currentColor) {
+            g2d.setColor(colorObjects[colorId]);
+            currentColor = colorId;
+        }
+    }
+
+    /**
+     * Switch stroke only if it changed
+     */
+    private void useStroke(int strokeId) {
+        if (strokeId != currentStroke) {
+            g2d.setStroke(strokeObjects[strokeId]);
+            currentStroke = strokeId;
+        }
+    }
+
+    /**
+     * Whole-number coordinates can use the integer drawing calls, which match
+     * the original pixel output exactly
+     */
+    private static boolean isInt(double value) {
+        return value == (int) value;
+    }
+
+    /**
+     * Twice a polygon's signed area, positive when it turns clockwise on screen
+     */
+    private static double signedArea(double[] xs, double[] ys, int count) {
+        double area = 0;
+        for (int i = 0, j = count - 1; i < count; j = i++) {
+            area += xs[j] * ys[i] - xs[i] * ys[j];
+        }
+        return area;
+    }
+
+    private static boolean allInts(double[] xs, double[] ys, int count) {
+        for (int i = 0; i < count; i++) {
+            if (!isInt(xs[i]) || !isInt(ys[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -1,50 +1,184 @@
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
 import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
 
 /**
  * GraphicsDisplay class to handle visual rendering of artwork.
  * Creates a window to display the recursive patterns.
+ * Rendering runs on a background worker so the window stays responsive:
+ * coarse previews are shown first and replaced as finer passes complete.
+ * The mouse wheel zooms and dragging pans; each view only generates the
+ * visible part of the artwork. Double-click returns to the whole canvas.
  */
 public class GraphicsDisplay extends JPanel {
     private ArtWork artwork;
     private BufferedImage image;
-    private static final int WIDTH = 800;
-    private static final int HEIGHT = 600;
+    private SwingWorker<BufferedImage, BufferedImage> renderWorker;
+    private static final int WIDTH = ArtRenderer.WIDTH;
+    private static final int HEIGHT = ArtRenderer.HEIGHT;
+
+    // Depth levels removed for each preview pass, coarsest first
+    private static final int[] PREVIEW_LEVELS = { 4, 2 };
+
+    // Zoom limits and the zoom change per mouse wheel notch
+    private static final double MAX_ZOOM = 1000;
+    private static final double ZOOM_STEP = 1.25;
+
+    // Current view: pixels per canvas unit and the canvas point at the top-left
+    private double zoom = 1;
+    private double viewX;
+    private double viewY;
+
+    // View the current image was rendered for, so it can be stretched until
+    // the render for a newer view arrives
+    private double imageZoom = 1;
+    private double imageViewX;
+    private double imageViewY;
+
+    private SwingWorker<BufferedImage, Void> viewportWorker;
+    private boolean viewportPending;
 
     /**
      * Constructor for GraphicsDisplay
-     * 
+     *
      * @param artwork The artwork to display
      */
     public GraphicsDisplay(ArtWork artwork) {
-        this.artwork = artwork;
         this.setPreferredSize(new Dimension(WIDTH, HEIGHT));
         this.setBackground(Color.WHITE);
+        this.setToolTipText("Scroll to zoom, drag to pan, double-click to reset");
 
-        // Create buffered image for drawing
-        image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
-        Graphics2D g2d = image.createGraphics();
-        g2d.setColor(Color.WHITE);
-        g2d.fillRect(0, 0, WIDTH, HEIGHT);
-        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        ViewerMouseHandler mouse = new ViewerMouseHandler();
+        this.addMouseListener(mouse);
+        this.addMouseMotionListener(mouse);
+        this.addMouseWheelListener(mouse);
 
-        // Draw the artwork
-        artwork.drawGraphics(g2d);
-        g2d.dispose();
+        // Start rendering in the background; the panel paints each pass as it arrives
+        requestRender(artwork);
+    }
+
+    /**
+     * Render an artwork into this panel, cancelling any render still in flight.
+     * Must be called on the event dispatch thread.
+     *
+     * @param artwork The artwork to render
+     */
+    public void requestRender(ArtWork artwork) {
+        if (renderWorker != null) {
+            renderWorker.cancel(true);
+        }
+
+        this.artwork = artwork;
+        zoom = 1;
+        viewX = 0;
+        viewY = 0;
+        renderWorker = new ProgressiveRenderWorker(artwork);
+        renderWorker.execute();
+    }
+
+    /**
+     * Change the zoomed view and render it. The view is kept inside the canvas.
+     * Must be called on the event dispatch thread.
+     *
+     * @param newZoom  Pixels per canvas unit (1 to MAX_ZOOM)
+     * @param newViewX Canvas x at the left edge
+     * @param newViewY Canvas y at the top edge
+     */
+    public void setView(double newZoom, double newViewX, double newViewY) {
+        newZoom = Math.max(1, Math.min(MAX_ZOOM, newZoom));
+        if (newZoom == 1) {
+            if (zoom != 1 || viewX != 0 || viewY != 0) {
+                requestRender(artwork); // whole canvas: use the cached progressive render
+            }
+            return;
+        }
+
+        zoom = newZoom;
+        viewX = Math.max(0, Math.min(WIDTH - WIDTH / zoom, newViewX));
+        viewY = Math.max(0, Math.min(HEIGHT - HEIGHT / zoom, newViewY));
+        if (renderWorker != null) {
+            renderWorker.cancel(true);
+            renderWorker = null;
+        }
+        repaint(); // stretch the old image until the new view is ready
+        requestViewport();
+    }
+
+    /**
+     * Render the current view, or remember to once the render in flight finishes.
+     * Renders are never queued up behind each other while the mouse moves.
+     */
+    private void requestViewport() {
+        if (viewportWorker != null && !viewportWorker.isDone()) {
+            viewportPending = true;
+            return;
+        }
+        viewportPending = false;
+        viewportWorker = new ViewportRenderWorker(artwork, zoom, viewX, viewY);
+        viewportWorker.execute();
+    }
+
+    /**
+     * Show a finished image together with the view it was rendered for
+     */
+    private void showImage(BufferedImage newImage, double forZoom, double forViewX, double forViewY) {
+        image = newImage;
+        imageZoom = forZoom;
+        imageViewX = forViewX;
+        imageViewY = forViewY;
+        repaint();
+    }
+
+    /**
+     * Get the artwork currently shown
+     *
+     * @return The artwork
+     */
+    public ArtWork getArtwork() {
+        return artwork;
     }
 
     @Override
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
-        if (image != null) {
+        if (image == null) {
+            return;
+        }
+        if (imageZoom == zoom && imageViewX == viewX && imageViewY == viewY) {
             g.drawImage(image, 0, 0, null);
+            return;
+        }
+
+        // The image is for an older view: place it where that view now appears
+        Graphics2D g2d = (Graphics2D) g.create();
+        g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g2d.translate((imageViewX - viewX) * zoom, (imageViewY - viewY) * zoom);
+        g2d.scale(zoom / imageZoom, zoom / imageZoom);
+        g2d.drawImage(image, 0, 0, null);
+        g2d.dispose();
+    }
+
+    @Override
+    public void removeNotify() {
+        // Window closed: stop working on a picture nobody will see
+        if (renderWorker != null) {
+            renderWorker.cancel(true);
+        }
+        if (viewportWorker != null) {
+            viewportWorker.cancel(true);
         }
+        viewportPending = false;
+        super.removeNotify();
     }
 
     /**
      * Display the artwork in a new window
-     * 
+     *
      * @param artwork The artwork to display
      */
     public static void showArtwork(ArtWork artwork) {
@@ -59,4 +193,238 @@ public class GraphicsDisplay extends JPanel {
             frame.setVisible(true);
         });
     }
+
+    /**
+     * Show a tree swaying in the wind in a new window. Frame times are shown
+     * in the window and their histogram is printed when it closes.
+     *
+     * @param animation The tree's animation
+     * @param title     Window title
+     */
+    public static void showWindAnimation(WindAnimation animation, String title) {
+        SwingUtilities.invokeLater(() -> {
+            JFrame frame = new JFrame("Wind Animation: " + title);
+            frame.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+            frame.add(new WindAnimationPanel(animation, title));
+            frame.pack();
+            frame.setLocationRelativeTo(null);
+            frame.setVisible(true);
+        });
+    }
+
+    /**
+     * Panel that redraws a wind animation about 60 times a second. Each frame
+     * only moves the branches and rasterizes them straight into the image.
+     */
+    private static class WindAnimationPanel extends JPanel {
+        private static final long serialVersionUID = 1L;
+
+        // Timer period and the time each frame may take at 60 frames per second
+        private static final int FRAME_MILLIS = 16;
+        private static final double BUDGET_MILLIS = 1000.0 / 60;
+
+        private final WindAnimation animation;
+        private final String title;
+        private final BufferedImage frameImage = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        private final IntRasterSink sink = new IntRasterSink(frameImage, 1, 0, 0, true);
+        private final FrameTimeHistogram frameTimes = new FrameTimeHistogram();
+        private final Timer timer;
+        private long startNanos;
+        private long lastFrameNanos;
+        private double framesPerSecond;
+
+        public WindAnimationPanel(WindAnimation animation, String title) {
+            this.animation = animation;
+            this.title = title;
+            this.setPreferredSize(new Dimension(WIDTH, HEIGHT));
+            this.timer = new Timer(FRAME_MILLIS, e -> nextFrame());
+            this.timer.setCoalesce(true); // drop ticks rather than queue them when behind
+        }
+
+        /**
+         * Move the tree to the current time and draw it, timing the work
+         */
+        private void nextFrame() {
+            long now = System.nanoTime();
+            if (lastFrameNanos != 0) {
+                // Smoothed rate at which frames are actually delivered
+                framesPerSecond = 0.9 * framesPerSecond + 0.1 * (1e9 / (now - lastFrameNanos));
+            }
+            lastFrameNanos = now;
+
+            sink.clear(0xFFFFFF);
+            animation.draw(sink, (now - startNanos) / 1e9);
+            frameTimes.record(System.nanoTime() - now);
+            repaint();
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            super.paintComponent(g);
+            g.drawImage(frameImage, 0, 0, null);
+            g.setColor(Color.DARK_GRAY);
+            g.drawString(String.format("%.0f fps, frame p50 <= %d ms, p99 <= %d ms, over budget %d/%d",
+                    framesPerSecond, frameTimes.getPercentileMillis(0.5), frameTimes.getPercentileMillis(0.99),
+                    frameTimes.countOver(BUDGET_MILLIS), frameTimes.getFrameCount()), 8, 16);
+        }
+
+        @Override
+        public void addNotify() {
+            super.addNotify();
+            startNanos = System.nanoTime();
+            timer.start();
+        }
+
+        @Override
+        public void removeNotify() {
+            // Window closed: stop the animation and report how it kept up
+            timer.stop();
+            System.out.println("\n=== Frame times: " + title + " ===");
+            System.out.print(frameTimes.toString(BUDGET_MILLIS));
+            super.removeNotify();
+        }
+    }
+
+    /**
+     * Background worker that publishes coarse previews, then the full render
+     */
+    private class ProgressiveRenderWorker extends SwingWorker<BufferedImage, BufferedImage> {
+        private ArtWork target;
+
+        public ProgressiveRenderWorker(ArtWork target) {
+            this.target = target;
+        }
+
+        @Override
+        protected BufferedImage doInBackground() {
+            RenderCache cache = RenderCache.getShared();
+            BufferedImage cached = cache.getCached(target);
+            if (cached != null) {
+                return cached;
+            }
+
+            // Shallow, non-antialiased passes first
+            for (int levels : PREVIEW_LEVELS) {
+                if (isCancelled()) {
+                    return null;
+                }
+                ArtWork preview = target.createPreview(levels);
+                if (preview != null) {
+                    publish(ArtRenderer.renderDraft(preview));
+                }
+            }
+
+            if (isCancelled()) {
+                return null;
+            }
+            BufferedImage full = ArtRenderer.renderParallel(target);
+            cache.store(target, full);
+            return full;
+        }
+
+        @Override
+        protected void process(List<BufferedImage> passes) {
+            // Only the newest pass matters; older ones are already out of date
+            if (!isCancelled() && renderWorker == this) {
+                showImage(passes.get(passes.size() - 1), 1, 0, 0);
+            }
+        }
+
+        @Override
+        protected void done() {
+            if (isCancelled() || renderWorker != this) {
+                return;
+            }
+            try {
+                showImage(get(), 1, 0, 0);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                System.out.println("Error rendering " + target.getTitle() + ": " + e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Background worker that renders one zoomed view
+     */
+    private class ViewportRenderWorker extends SwingWorker<BufferedImage, Void> {
+        private ArtWork target;
+        private double forZoom;
+        private double forViewX;
+        private double forViewY;
+
+        public ViewportRenderWorker(ArtWork target, double forZoom, double forViewX, double forViewY) {
+            this.target = target;
+            this.forZoom = forZoom;
+            this.forViewX = forViewX;
+            this.forViewY = forViewY;
+        }
+
+        @Override
+        protected BufferedImage doInBackground() {
+            return ArtRenderer.renderViewport(target, forViewX, forViewY, forZoom, WIDTH, HEIGHT);
+        }
+
+        @Override
+        protected void done() {
+            if (isCancelled() || viewportWorker != this) {
+                return;
+            }
+            try {
+                // Ignore views the user has already zoomed back out of
+                if (zoom != 1) {
+                    showImage(get(), forZoom, forViewX, forViewY);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                System.out.println("Error rendering " + target.getTitle() + ": " + e.getCause());
+            }
+            if (viewportPending && zoom != 1) {
+                requestViewport();
+            }
+        }
+    }
+
+    /**
+     * Mouse wheel zooms around the pointer, dragging pans, double-click resets
+     */
+    private class ViewerMouseHandler extends MouseAdapter {
+        private int lastX;
+        private int lastY;
+
+        @Override
+        public void mouseWheelMoved(MouseWheelEvent e) {
+            double newZoom = zoom * Math.pow(ZOOM_STEP, -e.getPreciseWheelRotation());
+            newZoom = Math.max(1, Math.min(MAX_ZOOM, newZoom));
+
+            // Keep the canvas point under the pointer in place
+            double canvasX = viewX + e.getX() / zoom;
+            double canvasY = viewY + e.getY() / zoom;
+            setView(newZoom, canvasX - e.getX() / newZoom, canvasY - e.getY() / newZoom);
+        }
+
+        @Override
+        public void mousePressed(MouseEvent e) {
+            lastX = e.getX();
+            lastY = e.getY();
+        }
+
+        @Override
+        public void mouseDragged(MouseEvent e) {
+            if (zoom > 1) {
+                setView(zoom, viewX - (e.getX() - lastX) / zoom, viewY - (e.getY() - lastY) / zoom);
+            }
+            lastX = e.getX();
+            lastY = e.getY();
+        }
+
+        @Override
+        public void mouseClicked(MouseEvent e) {
+            if (e.getClickCount() == 2) {
+                setView(1, 0, 0);
+            }
+        }
+    }
 }
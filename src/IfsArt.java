@@ -0,0 +1,198 @@
+/**
+ * IfsArt class that extends ArtWork to render iterated function systems by the
+ * chaos game: the Barnsley fern, a Sierpinski triangle and a fractal flame.
+ * Demonstrates method overloading and inheritance.
+ * The picture is a density image, so more samples give a smoother result.
+ */
+public class IfsArt extends ArtWork {
+    private static final long serialVersionUID = 1L;
+
+    // Largest histogram computed; bigger outputs, such as posters, stretch it. The histogram is
+    // kept whole rather than split into bands: shading is relative to the densest pixel of the
+    // whole picture, and the same samples spread over more pixels would only look sparser.
+    private static final int MAX_HISTOGRAM_PIXELS = 2048 * 1024;
+
+    // Seed of the random streams, fixed so equal parameters give equal pictures
+    private static final long SEED = 0x5EEDL;
+
+    // Cost of one sample relative to a simulation step, measured with the flame
+    private static final double STEPS_PER_SAMPLE = 6;
+
+    private String ifsType; // "fern", "sierpinski", "flame"
+    private long samples;
+
+    /**
+     * Constructor with title and artist only
+     *
+     * @param title  The title of the artwork
+     * @param artist The artist who created it
+     */
+    public IfsArt(String title, String artist) {
+        this(title, artist, "fern", 20_000_000);
+    }
+
+    /**
+     * Constructor with all parameters (method overloading)
+     *
+     * @param title   The title of the artwork
+     * @param artist  The artist who created it
+     * @param type    Type of system ("fern", "sierpinski", "flame")
+     * @param samples Number of points plotted
+     */
+    public IfsArt(String title, String artist, String type, long samples) {
+        super(title, artist);
+        this.ifsType = type.toLowerCase();
+        this.samples = samples;
+        this.description = "Chaos game " + ifsType + " with " + samples + " samples";
+        this.complexityLevel = calculateComplexity();
+    }
+
+    @Override
+    public void display() {
+        System.out.println("\n=== Displaying IFS Art: " + title + " ===");
+        System.out.println("Type: " + ifsType);
+        System.out.println("Samples: " + samples);
+        GraphicsDisplay.showArtwork(this);
+    }
+
+    @Override
+    public int calculateComplexity() {
+        return (int) Math.max(1, Math.min(Integer.MAX_VALUE, samples / 1_000_000)); // millions of samples
+    }
+
+    @Override
+    public long estimatePrimitives(double pixelScale, double detailPixels) {
+        return 1; // one image; its cost is in the samples
+    }
+
+    @Override
+    protected long estimateSimulationSteps(double pixelScale, double detailPixels) {
+        return (long) (samples * STEPS_PER_SAMPLE / Runtime.getRuntime().availableProcessors());
+    }
+
+    @Override
+    public String getArtType() {
+        return "IFS Fractal";
+    }
+
+    @Override
+    public String getDescription() {
+        return description;
+    }
+
+    @Override
+    public ArtWork createPreview(int levelsRemoved) {
+        // A quarter of the samples per level still shows the shape, only noisier
+        long previewSamples = samples >> (2 * Math.min(levelsRemoved, 31));
+        if (previewSamples < 100_000) {
+            return null;
+        }
+        IfsArt preview = (IfsArt) copy();
+        preview.samples = previewSamples;
+        return preview;
+    }
+
+    @Override
+    protected String getRenderParameters() {
+        return "type=" + ifsType + ";samples=" + samples;
+    }
+
+    @Override
+    public void generateGeometry(GeometrySink sink) {
+        // Only the visible part of the canvas is plotted, at the sink's pixel scale
+        double minX = Math.max(0, sink.getVisibleMinX());
+        double minY = Math.max(0, sink.getVisibleMinY());
+        double maxX = Math.min(CANVAS_WIDTH, sink.getVisibleMaxX());
+        double maxY = Math.min(CANVAS_HEIGHT, sink.getVisibleMaxY());
+        if (maxX <= minX || maxY <= minY) {
+            return;
+        }
+        double scale = sink.getPixelScale();
+        double pixels = (maxX - minX) * (maxY - minY) * scale * scale;
+        if (pixels > MAX_HISTOGRAM_PIXELS) {
+            scale *= Math.sqrt(MAX_HISTOGRAM_PIXELS / pixels);
+        }
+        int columns = Math.max(1, (int) Math.ceil((maxX - minX) * scale - 1e-9));
+        int rows = Math.max(1, (int) Math.ceil((maxY - minY) * scale - 1e-9));
+
+        // Each type shows a window of the plane centred on (centerX, centerY)
+        ChaosGameEngine engine = new ChaosGameEngine();
+        double centerX;
+        double centerY;
+        double height;
+        int[] palette;
+        int background;
+        switch (ifsType) {
+            case "sierpinski":
+                engine.addTransform(1, 0.5, 0, 0, 0, 0.5, 0, ChaosGameEngine.LINEAR, 0);
+                engine.addTransform(1, 0.5, 0, 0.5, 0, 0.5, 0, ChaosGameEngine.LINEAR, 0.5);
+                engine.addTransform(1, 0.5, 0, 0.25, 0, 0.5, 0.433, ChaosGameEngine.LINEAR, 1);
+                centerX = 0.5;
+                centerY = 0.433;
+                height = 1.05;
+                palette = gradient(0x1E3C96, 0x3CB4DC, 0xE6F0FF);
+                background = 0xFFFFFF;
+                break;
+            case "flame":
+                engine.addTransform(0.5, 0.6, -0.35, 0, 0.35, 0.6, 0, ChaosGameEngine.SWIRL, 0);
+                engine.addTransform(0.3, 0.5, 0, 0.4, 0, 0.5, 0.3, ChaosGameEngine.SPHERICAL, 0.6);
+                engine.addTransform(0.2, -0.6, 0.2, -0.2, -0.2, -0.6, 0, ChaosGameEngine.HORSESHOE, 1);
+                centerX = 0;
+                centerY = 0;
+                height = 3;
+                palette = gradient(0x320A5A, 0xC83C1E, 0xFFB428, 0xFFF5C8);
+                background = 0x000000;
+                break;
+            default:
+                engine.addTransform(0.01, 0, 0, 0, 0, 0.16, 0, ChaosGameEngine.LINEAR, 0);
+                engine.addTransform(0.85, 0.85, 0.04, 0, -0.04, 0.85, 1.6, ChaosGameEngine.LINEAR, 0.7);
+                engine.addTransform(0.07, 0.2, -0.26, 0, 0.23, 0.22, 1.6, ChaosGameEngine.LINEAR, 0.3);
+                engine.addTransform(0.07, -0.15, 0.28, 0, 0.26, 0.24, 0.44, ChaosGameEngine.LINEAR, 1);
+                centerX = 0.25;
+                centerY = 5;
+                height = 10.6;
+                palette = gradient(0x0A3C14, 0x28A03C, 0xB4F064);
+                background = 0xFFFFFF;
+                break;
+        }
+
+        // Canvas units per world unit, then the world window of the visible area
+        double unitsPerWorld = CANVAS_HEIGHT / height;
+        double left = centerX + (minX - CANVAS_WIDTH / 2.0) / unitsPerWorld;
+        double top = centerY + (CANVAS_HEIGHT / 2.0 - minY) / unitsPerWorld;
+        ChaosGameEngine.Histogram histogram = engine.run(samples, SEED, left, top, unitsPerWorld * scale, columns,
+                rows);
+        sink.image(histogram.toneMap(palette, background, 2.2), columns, rows, minX, minY, columns / scale,
+                rows / scale, 0);
+    }
+
+    /**
+     * Blend colour stops into a 256-entry palette
+     *
+     * @param stops Colours packed as 0xRRGGBB, from palette position 0 to 1
+     * @return The palette
+     */
+    private static int[] gradient(int... stops) {
+        int[] palette = new int[256];
+        for (int i = 0; i < 256; i++) {
+            double position = i / 255.0 * (stops.length - 1);
+            int from = stops[Math.min((int) position, stops.length - 2)];
+            int to = stops[Math.min((int) position + 1, stops.length - 1)];
+            double t = position - Math.min((int) position, stops.length - 2);
+            int r = (int) Math.round(((from >> 16) & 0xFF) * (1 - t) + ((to >> 16) & 0xFF) * t);
+            int g = (int) Math.round(((from >> 8) & 0xFF) * (1 - t) + ((to >> 8) & 0xFF) * t);
+            int b = (int) Math.round((from & 0xFF) * (1 - t) + (to & 0xFF) * t);
+            palette[i] = (r << 16) | (g << 8) | b;
+        }
+        return palette;
+    }
+
+    // Getters
+    public String getIfsType() {
+        return ifsType;
+    }
+
+    public long getSamples() {
+        return samples;
+    }
+}
@@ -0,0 +1,93 @@
+/**
+ * InstanceTransform class describing how one copy of shared geometry is
+ * placed: a point of the geometry is moved to a point of the canvas, sizes are
+ * scaled around it, and colours can be tinted towards another colour (such as
+ * haze for distant objects). Many copies of one recording can then be drawn
+ * without generating or storing their primitives again.
+ */
+public class InstanceTransform {
+    private final double fromX;
+    private final double fromY;
+    private final double toX;
+    private final double toY;
+    private final double scale;
+    private final int tint;
+    private final double tintAmount;
+
+    /**
+     * Constructor for InstanceTransform
+     *
+     * @param fromX      x of the point in the shared geometry that is placed
+     * @param fromY      y of that point
+     * @param toX        Canvas x it is placed at
+     * @param toY        Canvas y it is placed at
+     * @param scale      Size of the copy relative to the shared geometry
+     * @param tint       Colour to tint towards, packed as 0xRRGGBB
+     * @param tintAmount How much of the tint colour to mix in (0 for none, 1 for all)
+     */
+    public InstanceTransform(double fromX, double fromY, double toX, double toY, double scale, int tint,
+            double tintAmount) {
+        this.fromX = fromX;
+        this.fromY = fromY;
+        this.toX = toX;
+        this.toY = toY;
+        this.scale = scale;
+        this.tint = tint;
+        this.tintAmount = tintAmount;
+    }
+
+    /**
+     * Where an x of the shared geometry lands on the canvas
+     *
+     * @param x Shared geometry x
+     * @return Canvas x
+     */
+    public double mapX(double x) {
+        return toX + (x - fromX) * scale;
+    }
+
+    /**
+     * Where a y of the shared geometry lands on the canvas
+     *
+     * @param y Shared geometry y
+     * @return Canvas y
+     */
+    public double mapY(double y) {
+        return toY + (y - fromY) * scale;
+    }
+
+    /**
+     * Tint a colour, keeping its alpha
+     *
+     * @param argb Colour packed as 0xAARRGGBB
+     * @return The tinted colour
+     */
+    public int mapColor(int argb) {
+        if (tintAmount == 0) {
+            return argb;
+        }
+        int result = argb & 0xFF000000;
+        for (int shift = 0; shift <= 16; shift += 8) {
+            int from = (argb >> shift) & 0xFF;
+            int to = (tint >> shift) & 0xFF;
+            result |= (int) Math.round(from + (to - from) * tintAmount) << shift;
+        }
+        return result;
+    }
+
+    /**
+     * Scale a stroke width, rounded to eighths of a unit so that copies of
+     * similar sizes share strokes
+     *
+     * @param width Shared geometry stroke width
+     * @return Canvas stroke width
+     */
+    public float mapStroke(float width) {
+        return Math.max(0.125f, Math.round(width * scale * 8) / 8f);
+    }
+
+    // Getters
+    public double getScale() {
+        return scale;
+    }
+}
@@ -0,0 +1,342 @@
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+
+/**
+ * IntRasterSink class that rasterizes primitives straight into the int[] pixels
+ * of a BufferedImage, without going through Graphics2D and BasicStroke.
+ * Lines use an integer-stepped span algorithm with optional Wu-style
+ * antialiasing (each pixel gets the fraction of it the line covers).
+ * Polygons and ovals are filled by scanline and are not antialiased, and
+ * images are copied with the nearest source pixel.
+ */
+public class IntRasterSink extends GeometrySink {
+    private int[] pixels;
+    private int width;
+    private int height;
+    private double scale;
+    private double offsetX;
+    private double offsetY;
+    private boolean antialias;
+
+    // Scratch arrays, reused so drawing does not allocate
+    private double[] crossings = new double[16];
+    private double[] clipRange = new double[2];
+
+    /**
+     * Constructor for IntRasterSink
+     *
+     * @param image     Image to draw into (TYPE_INT_RGB or TYPE_INT_ARGB)
+     * @param scale     Canvas units to pixels
+     * @param offsetX   Pixel x of canvas x = 0
+     * @param offsetY   Pixel y of canvas y = 0
+     * @param antialias true for Wu-style antialiased lines
+     */
+    public IntRasterSink(BufferedImage image, double scale, double offsetX, double offsetY, boolean antialias) {
+        if (image.getType() != BufferedImage.TYPE_INT_RGB && image.getType() != BufferedImage.TYPE_INT_ARGB) {
+            throw new IllegalArgumentException("IntRasterSink needs an INT_RGB or INT_ARGB image");
+        }
+        this.pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        this.width = image.getWidth();
+        this.height = image.getHeight();
+        this.scale = scale;
+        this.offsetX = offsetX;
+        this.offsetY = offsetY;
+        this.antialias = antialias;
+    }
+
+    /**
+     * Fill the whole image with one colour
+     *
+     * @param rgb Colour packed as 0xRRGGBB
+     */
+    public void clear(int rgb) {
+        Arrays.fill(pixels, 0, width * height, 0xFF000000 | rgb);
+    }
+
+    @Override
+    public void segment(double x1, double y1, double x2, double y2, int depth, int colorId, int strokeId) {
+        // Lines are centred on pixel centres, like Java2D's normalized strokes
+        drawLine(x1 * scale + offsetX + 0.5, y1 * scale + offsetY + 0.5, x2 * scale + offsetX + 0.5,
+                y2 * scale + offsetY + 0.5, getStroke(strokeId) * scale, getColor(colorId));
+    }
+
+    @Override
+    public void polygon(double[] xs, double[] ys, int count, int depth, int colorId, int strokeId,
+            boolean filled) {
+        if (filled) {
+            fillPolygon(xs, ys, count, getColor(colorId));
+            return;
+        }
+        for (int i = 0; i < count; i++) {
+            int next = (i + 1) % count;
+            segment(xs[i], ys[i], xs[next], ys[next], depth, colorId, strokeId);
+        }
+    }
+
+    @Override
+    public void oval(double x, double y, double w, double h, int depth, int colorId, int strokeId,
+            boolean filled) {
+        double rx = w * scale / 2;
+        double ry = h * scale / 2;
+        double cx = x * scale + offsetX + rx;
+        double cy = y * scale + offsetY + ry;
+        int argb = getColor(colorId);
+
+        if (filled) {
+            int top = Math.max(0, (int) Math.ceil(cy - ry - 0.5));
+            int bottom = Math.min(height - 1, (int) Math.floor(cy + ry - 0.5));
+            for (int row = top; row <= bottom; row++) {
+                double dy = (row + 0.5 - cy) / ry;
+                if (dy * dy < 1) {
+                    double half = rx * Math.sqrt(1 - dy * dy);
+                    fillSpan(row, cx - half, cx + half, argb);
+                }
+            }
+            return;
+        }
+
+        // Outline: a polygon with roughly one side per two pixels of radius
+        int sides = (int) Math.max(8, Math.min(256, rx + ry));
+        double lineWidth = getStroke(strokeId) * scale;
+        double px = cx + rx + 0.5;
+        double py = cy + 0.5;
+        for (int i = 1; i <= sides; i++) {
+            double angle = 2 * Math.PI * i / sides;
+            double nx = cx + rx * Math.cos(angle) + 0.5;
+            double ny = cy + ry * Math.sin(angle) + 0.5;
+            drawLine(px, py, nx, ny, lineWidth, argb);
+            px = nx;
+            py = ny;
+        }
+    }
+
+    @Override
+    public void image(int[] argb, int columns, int rows, double x, double y, double w, double h, int depth) {
+        // Each output pixel takes the source pixel under its centre
+        double left = x * scale + offsetX;
+        double top = y * scale + offsetY;
+        double columnsPerPixel = columns / (w * scale);
+        double rowsPerPixel = rows / (h * scale);
+        int firstRow = Math.max(0, (int) Math.ceil(top - 0.5));
+        int lastRow = Math.min(height, (int) Math.ceil(top + h * scale - 0.5));
+        int firstColumn = Math.max(0, (int) Math.ceil(left - 0.5));
+        int lastColumn = Math.min(width, (int) Math.ceil(left + w * scale - 0.5));
+        for (int row = firstRow; row < lastRow; row++) {
+            int sourceRow = Math.min(rows - 1, (int) ((row + 0.5 - top) * rowsPerPixel));
+            int source = sourceRow * columns;
+            int target = row * width;
+            for (int column = firstColumn; column < lastColumn; column++) {
+                int sourceColumn = Math.min(columns - 1, (int) ((column + 0.5 - left) * columnsPerPixel));
+                pixels[target + column] = argb[source + sourceColumn] | 0xFF000000;
+            }
+        }
+    }
+
+    /**
+     * Draw a line in pixel coordinates, where pixel (i, j) covers [i, i+1) x [j, j+1).
+     * Steps one pixel at a time along the major axis and fills the span the
+     * line's width covers across the minor axis.
+     */
+    private void drawLine(double ax, double ay, double bx, double by, double lineWidth, int argb) {
+        // Clip to the image, grown by the line width (Liang-Barsky)
+        double margin = lineWidth + 1;
+        double dx = bx - ax;
+        double dy = by - ay;
+        double[] t = clipRange;
+        t[0] = 0;
+        t[1] = 1;
+        if (!clip(-dx, ax + margin, t) || !clip(dx, width + margin - ax, t)
+                || !clip(-dy, ay + margin, t) || !clip(dy, height + margin - ay, t)) {
+            return;
+        }
+        double sx = ax + t[0] * dx;
+        double sy = ay + t[0] * dy;
+        double ex = ax + t[1] * dx;
+        double ey = ay + t[1] * dy;
+
+        boolean steep = Math.abs(dy) > Math.abs(dx);
+        double major0 = steep ? sy : sx;
+        double minor0 = steep ? sx : sy;
+        double major1 = steep ? ey : ex;
+        double minor1 = steep ? ex : ey;
+        if (major0 > major1) {
+            double swap = major0;
+            major0 = major1;
+            major1 = swap;
+            swap = minor0;
+            minor0 = minor1;
+            minor1 = swap;
+        }
+
+        double length = major1 - major0;
+        double slope = length > 0 ? (minor1 - minor0) / length : 0;
+        // Half the width measured along the minor axis
+        double half = lineWidth / 2 * Math.sqrt(1 + slope * slope);
+        int limit = (steep ? height : width) - 1;
+
+        if (!antialias) {
+            int first = Math.max(0, (int) Math.floor(major0));
+            int last = Math.min(limit, (int) Math.floor(major1));
+            for (int i = first; i <= last; i++) {
+                double c = minor0 + slope * (Math.min(Math.max(i + 0.5, major0), major1) - major0);
+                int from = (int) Math.ceil(c - half - 0.5);
+                int to = (int) Math.floor(c + half - 0.5);
+                if (to < from) {
+                    from = to = (int) Math.floor(c);
+                }
+                for (int j = from; j <= to; j++) {
+                    plot(steep, i, j, argb, 1);
+                }
+            }
+            return;
+        }
+
+        int first = Math.max(0, (int) Math.floor(major0));
+        int last = Math.min(limit, (int) Math.floor(major1));
+        for (int i = first; i <= last; i++) {
+            // Share of this column the line covers along its length (partial at the ends)
+            double along = Math.min(i + 1, major1) - Math.max(i, major0);
+            if (length == 0) {
+                along = Math.min(1, lineWidth);
+            }
+            if (along <= 0) {
+                continue;
+            }
+            double c = minor0 + slope * (Math.min(Math.max(i + 0.5, major0), major1) - major0);
+            double low = c - half;
+            double high = c + half;
+            for (int j = (int) Math.floor(low); j <= (int) Math.floor(high); j++) {
+                double across = Math.min(j + 1, high) - Math.max(j, low);
+                if (across > 0) {
+                    plot(steep, i, j, argb, along * across);
+                }
+            }
+        }
+    }
+
+    /**
+     * One Liang-Barsky clipping step
+     *
+     * @return false if the line lies entirely outside this edge
+     */
+    private static boolean clip(double p, double q, double[] t) {
+        if (p == 0) {
+            return q >= 0;
+        }
+        double r = q / p;
+        if (p < 0) {
+            if (r > t[1]) {
+                return false;
+            }
+            t[0] = Math.max(t[0], r);
+        } else {
+            if (r < t[0]) {
+                return false;
+            }
+            t[1] = Math.min(t[1], r);
+        }
+        return true;
+    }
+
+    /**
+     * Fill a polygon with the even-odd rule, sampling pixel centres
+     */
+    private void fillPolygon(double[] xs, double[] ys, int count, int argb) {
+        if (count < 3) {
+            return;
+        }
+        if (crossings.length < count) {
+            crossings = new double[count];
+        }
+
+        double minY = Double.POSITIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < count; i++) {
+            double y = ys[i] * scale + offsetY;
+            minY = Math.min(minY, y);
+            maxY = Math.max(maxY, y);
+        }
+
+        int top = Math.max(0, (int) Math.ceil(minY - 0.5));
+        int bottom = Math.min(height - 1, (int) Math.ceil(maxY - 0.5) - 1);
+        for (int row = top; row <= bottom; row++) {
+            double sampleY = row + 0.5;
+            int found = 0;
+            for (int i = 0; i < count; i++) {
+                int next = (i + 1) % count;
+                double y0 = ys[i] * scale + offsetY;
+                double y1 = ys[next] * scale + offsetY;
+                if ((y0 <= sampleY) != (y1 <= sampleY)) {
+                    double x0 = xs[i] * scale + offsetX;
+                    double x1 = xs[next] * scale + offsetX;
+                    double x = x0 + (sampleY - y0) * (x1 - x0) / (y1 - y0);
+
+                    // Insertion sort keeps the handful of crossings ordered
+                    int k = found++;
+                    while (k > 0 && crossings[k - 1] > x) {
+                        crossings[k] = crossings[k - 1];
+                        k--;
+                    }
+                    crossings[k] = x;
+                }
+            }
+            for (int k = 0; k + 1 < found; k += 2) {
+                fillSpan(row, crossings[k], crossings[k + 1], argb);
+            }
+        }
+    }
+
+    /**
+     * Fill the pixels of one row whose centres lie in [left, right)
+     */
+    private void fillSpan(int row, double left, double right, int argb) {
+        int from = Math.max(0, (int) Math.ceil(left - 0.5));
+        int to = Math.min(width, (int) Math.ceil(right - 0.5));
+        if (from >= to) {
+            return;
+        }
+        if (argb >>> 24 == 255) {
+            Arrays.fill(pixels, row * width + from, row * width + to, argb);
+            return;
+        }
+        for (int x = from; x < to; x++) {
+            blend(row * width + x, argb, 1);
+        }
+    }
+
+    /**
+     * Plot one pixel given major/minor axis coordinates
+     */
+    private void plot(boolean steep, int major, int minor, int argb, double coverage) {
+        int x = steep ? minor : major;
+        int y = steep ? major : minor;
+        if (x >= 0 && y >= 0 && x < width && y < height) {
+            blend(y * width + x, argb, coverage);
+        }
+    }
+
+    /**
+     * Blend a colour over one pixel
+     *
+     * @param index    Index into the pixel array
+     * @param argb     Colour packed as 0xAARRGGBB
+     * @param coverage Fraction of the pixel covered, 0 to 1
+     */
+    private void blend(int index, int argb, double coverage) {
+        int a = (int) ((argb >>> 24) * Math.min(1, coverage) + 0.5);
+        if (a >= 255) {
+            pixels[index] = argb | 0xFF000000;
+            return;
+        }
+        if (a <= 0) {
+            return;
+        }
+        int dst = pixels[index];
+        int inv = 255 - a;
+        int r = (((argb >> 16) & 0xFF) * a + ((dst >> 16) & 0xFF) * inv) / 255;
+        int g = (((argb >> 8) & 0xFF) * a + ((dst >> 8) & 0xFF) * inv) / 255;
+        int b = ((argb & 0xFF) * a + (dst & 0xFF) * inv) / 255;
+        pixels[index] = 0xFF000000 | (r << 16) | (g << 8) | b;
+    }
+}
@@ -1,6 +1,6 @@
 import java.awt.*;
+import java.util.Arrays;
 import java.util.Map;
-import java.util.Stack;
 
 /**
  * L-System Artwork
@@ -36,6 +36,7 @@ public class LSystemArt extends ArtWork {
         this.angleDegrees = angleDegrees;
         this.description = "L-System at depth " + depth + " with angle " + angleDegrees + "°";
         this.result = generateLSystem();
+        this.complexityLevel = calculateComplexity();
     }
 
     /**
@@ -62,13 +63,19 @@ public class LSystemArt extends ArtWork {
 
     @Override
     public int calculateComplexity() {
-        int numF = 0;
-        for (char c : result.toCharArray()) {
-            if (c == 'F') {
+        // Each F draws one line, so the line count is the complexity
+        return (int) Math.min(Integer.MAX_VALUE, estimatePrimitives(1));
+    }
+
+    @Override
+    public long estimatePrimitives(double pixelScale, double detailPixels) {
+        long numF = 0;
+        for (int i = 0; i < result.length(); i++) {
+            if (result.charAt(i) == 'F') {
                 numF++;
             }
         }
-        return depth * numF;
+        return numF;
     }
 
     @Override
@@ -81,19 +88,54 @@ public class LSystemArt extends ArtWork {
         return description;
     }
 
+    @Override
+    public ArtWork createPreview(int levelsRemoved) {
+        if (depth - levelsRemoved < 1) {
+            return null;
+        }
+        LSystemArt preview = (LSystemArt) copy();
+        preview.depth = depth - levelsRemoved;
+        preview.result = preview.generateLSystem();
+        return preview;
+    }
+
+    @Override
+    public int getFrameCount() {
+        return depth + 1; // the axiom, then one frame per rewrite
+    }
+
+    @Override
+    public ArtWork createFrame(int frame) {
+        if (frame >= depth) {
+            return this;
+        }
+        LSystemArt still = (LSystemArt) copy();
+        still.depth = frame;
+        still.result = still.generateLSystem();
+        return still;
+    }
+
+    @Override
+    protected String getRenderParameters() {
+        // Sort the rules so insertion order of the map does not change the key
+        return "axiom=" + axiom + ";rules=" + new java.util.TreeMap<>(rules) + ";depth=" + depth
+                + ";angle=" + angleDegrees;
+    }
+
     /*
-     * Draw the L-System using turtle graphics with stack-based branching
+     * Generate the L-System using turtle graphics with stack-based branching
      */
     @Override
-    public void drawGraphics(Graphics2D g2d) {
+    public void generateGeometry(GeometrySink sink) {
         // First pass -> compute bounding box
         double angle = -90;
         double initialStep = 6.0;
         double step = initialStep;
 
-        Stack<Double> angleStack = new Stack<>();
-        Stack<Point.Double> posStack = new Stack<>();
-        Stack<Double> stepStack = new Stack<>();
+        // Turtle stack of (x, y, angle, step) frames in one primitive array,
+        // so branching does not box or allocate per bracket
+        double[] stack = new double[4 * 16];
+        int top = 0;
 
         double x = 0;
         double y = 0;
@@ -104,8 +146,8 @@ public class LSystemArt extends ArtWork {
         double maxY = Double.NEGATIVE_INFINITY;
 
         // First pass: simulate movement and compute bounding box
-        for (char c : result.toCharArray()) {
-            switch (c) {
+        for (int i = 0; i < result.length(); i++) {
+            switch (result.charAt(i)) {
                 case 'F': {
                     double newX = x + step * Math.cos(Math.toRadians(angle));
                     double newY = y + step * Math.sin(Math.toRadians(angle));
@@ -127,20 +169,23 @@ public class LSystemArt extends ArtWork {
                     angle -= angleDegrees;
                     break;
                 case '[':
-                    posStack.push(new Point.Double(x, y));
-                    angleStack.push(angle);
-                    stepStack.push(step);
+                    if (top == stack.length) {
+                        stack = Arrays.copyOf(stack, stack.length * 2);
+                    }
+                    stack[top++] = x;
+                    stack[top++] = y;
+                    stack[top++] = angle;
+                    stack[top++] = step;
 
                     if (angleDegrees <= 40) {
                         step *= 0.75;
                     }
                     break;
                 case ']':
-                    Point.Double pos = posStack.pop();
-                    x = pos.x;
-                    y = pos.y;
-                    angle = angleStack.pop();
-                    step = stepStack.pop();
+                    step = stack[--top];
+                    angle = stack[--top];
+                    y = stack[--top];
+                    x = stack[--top];
                     break;
                 default:
                     break;
@@ -151,8 +196,8 @@ public class LSystemArt extends ArtWork {
         double boundingWidth = maxX - minX;
         double boundingHeight = maxY - minY;
 
-        double offsetX = 400 - (boundingWidth / 2 + minX);
-        double offsetY = 300 - (boundingHeight / 2 + minY);
+        double offsetX = CANVAS_WIDTH / 2 - (boundingWidth / 2 + minX);
+        double offsetY = CANVAS_HEIGHT / 2 - (boundingHeight / 2 + minY);
 
         // Second pass -> actual drawing with offset
         x = offsetX;
@@ -160,26 +205,32 @@ public class LSystemArt extends ArtWork {
         angle = -90;
         step = initialStep;
 
-        angleStack.clear();
-        posStack.clear();
-        stepStack.clear();
+        top = 0;
 
-        g2d.fillRect(0, 0, 800, 600);
-
-        g2d.setColor(new Color(0, 124, 119));
+        int color = sink.defineColor(new Color(0, 124, 119));
         if (angleDegrees <= 40) {
-            g2d.setColor(new Color(34, 139, 34)); // forest green for plants
+            color = sink.defineColor(new Color(34, 139, 34)); // forest green for plants
         }
 
-        g2d.setStroke(new BasicStroke(1));
+        int stroke = sink.defineStroke(1);
+
+        // With a level of detail, find where each branch ends and how many
+        // moves it holds, so branches too small to see can be skipped whole
+        int[] branchEnds = null;
+        int[] movesBefore = null;
+        if (sink.getDetailPixels() > 0 && result.indexOf('[') >= 0) {
+            branchEnds = new int[result.length()];
+            movesBefore = new int[result.length() + 1];
+            findBranches(result, branchEnds, movesBefore);
+        }
 
         // Second pass: draw
-        for (char c : result.toCharArray()) {
-            switch (c) {
+        for (int i = 0; i < result.length(); i++) {
+            switch (result.charAt(i)) {
                 case 'F': {
                     double newX = x + step * Math.cos(Math.toRadians(angle));
                     double newY = y + step * Math.sin(Math.toRadians(angle));
-                    g2d.drawLine((int) x, (int) y, (int) newX, (int) newY);
+                    sink.segment(x, y, newX, newY, top / 4, color, stroke);
                     x = newX;
                     y = newY;
                     break;
@@ -191,20 +242,36 @@ public class LSystemArt extends ArtWork {
                     angle -= angleDegrees;
                     break;
                 case '[':
-                    posStack.push(new Point.Double(x, y));
-                    angleStack.push(angle);
-                    stepStack.push(step);
+                    if (top == stack.length) {
+                        stack = Arrays.copyOf(stack, stack.length * 2);
+                    }
+                    stack[top++] = x;
+                    stack[top++] = y;
+                    stack[top++] = angle;
+                    stack[top++] = step;
 
                     if (angleDegrees <= 40) {
                         step *= 0.75;
                     }
+
+                    // The branch can reach no further than its moves at this step
+                    // length; if that is too small to see, draw a dot and jump to
+                    // the matching ']', which would restore the state anyway
+                    if (branchEnds != null && branchEnds[i] > i) {
+                        int moves = movesBefore[branchEnds[i]] - movesBefore[i];
+                        if (moves > 0 && sink.isBelowDetail(step * moves)) {
+                            top -= 4;
+                            step = stack[top + 3];
+                            sink.segment(x, y, x, y, top / 4 + 1, color, stroke);
+                            i = branchEnds[i];
+                        }
+                    }
                     break;
                 case ']':
-                    Point.Double pos = posStack.pop();
-                    x = pos.x;
-                    y = pos.y;
-                    angle = angleStack.pop();
-                    step = stepStack.pop();
+                    step = stack[--top];
+                    angle = stack[--top];
+                    y = stack[--top];
+                    x = stack[--top];
                     break;
                 default:
                     break;
@@ -212,4 +279,28 @@ public class LSystemArt extends ArtWork {
         }
     }
 
+    /**
+     * Match every '[' with its ']' and count the moves before each position
+     *
+     * @param commands    The L-system string
+     * @param branchEnds  Receives, at each '[', the index of its matching ']'
+     * @param movesBefore Receives, at each index, the number of 'F' before it
+     */
+    private static void findBranches(String commands, int[] branchEnds, int[] movesBefore) {
+        int[] open = new int[16];
+        int depth = 0;
+        for (int i = 0; i < commands.length(); i++) {
+            char c = commands.charAt(i);
+            movesBefore[i + 1] = movesBefore[i] + (c == 'F' ? 1 : 0);
+            if (c == '[') {
+                if (depth == open.length) {
+                    open = Arrays.copyOf(open, depth * 2);
+                }
+                open[depth++] = i;
+            } else if (c == ']' && depth > 0) {
+                branchEnds[open[--depth]] = i;
+            }
+        }
+    }
+
 }
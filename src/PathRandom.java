@@ -0,0 +1,49 @@
+/**
+ * PathRandom class giving random numbers that depend only on a seed and a
+ * position, never on what was drawn before. A recursive artwork gives each
+ * piece a seed derived from its parent's seed and its index among the
+ * children, so a piece's random values follow from its path from the root.
+ * Pieces can then be skipped, cut short or generated on other threads without
+ * changing any other piece. Values come from the SplitMix64 mixing function.
+ */
+public class PathRandom {
+    // Odd constant close to 2^64 / golden ratio, spacing the inputs of the mixer
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private PathRandom() {
+    }
+
+    /**
+     * Seed of one child of a piece
+     *
+     * @param seed  The parent's seed
+     * @param index The child's index among its siblings
+     * @return The child's seed
+     */
+    public static long child(long seed, int index) {
+        return mix(seed + (index + 1L) * GOLDEN_GAMMA);
+    }
+
+    /**
+     * A random number in [0, 1) for one piece
+     *
+     * @param seed The piece's seed
+     * @param draw Which of the piece's numbers to return (0, 1, 2...)
+     * @return The number, always the same for the same seed and draw
+     */
+    public static double unit(long seed, int draw) {
+        return (mix(seed ^ mix(draw + GOLDEN_GAMMA)) >>> 11) * 0x1.0p-53;
+    }
+
+    /**
+     * SplitMix64 finalizer: nearby inputs give unrelated outputs
+     *
+     * @param z Input value
+     * @return Mixed value
+     */
+    public static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,197 @@
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * PngStreamWriter class to write a PNG file row by row.
+ * Rows are compressed as they arrive, so an image of any height can be written
+ * without ever holding the whole raster in memory.
+ */
+public class PngStreamWriter implements Closeable {
+    private static final byte[] SIGNATURE = { (byte) 137, 80, 78, 71, 13, 10, 26, 10 };
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private DataOutputStream out;
+    private DeflaterOutputStream pixels;
+    private Deflater deflater;
+    private int width;
+    private int height;
+    private int rowsWritten;
+    private byte[] rowBytes;
+    private int[] rowPixels;
+
+    /**
+     * Constructor that writes the PNG header for a 24-bit RGB image
+     *
+     * @param out    Stream to write to (closed when this writer is closed)
+     * @param width  Image width in pixels
+     * @param height Image height in pixels
+     */
+    public PngStreamWriter(OutputStream out, int width, int height) throws IOException {
+        this.out = new DataOutputStream(out);
+        this.width = width;
+        this.height = height;
+        this.rowBytes = new byte[1 + width * 3];
+        this.rowPixels = new int[width];
+
+        this.out.write(SIGNATURE);
+
+        byte[] ihdr = new byte[13];
+        writeInt(ihdr, 0, width);
+        writeInt(ihdr, 4, height);
+        ihdr[8] = 8; // bit depth
+        ihdr[9] = 2; // colour type: truecolour RGB
+        writeChunk("IHDR", ihdr, ihdr.length);
+
+        // Fast compression keeps poster writes from being dominated by deflate
+        deflater = new Deflater(Deflater.BEST_SPEED);
+        pixels = new DeflaterOutputStream(new IdatStream(), deflater, CHUNK_SIZE);
+    }
+
+    /**
+     * Append every row of an image band to the file
+     *
+     * @param band Image whose width matches the PNG width
+     */
+    public void writeRows(BufferedImage band) throws IOException {
+        if (band.getWidth() != width) {
+            throw new IllegalArgumentException("Band width " + band.getWidth() + " does not match " + width);
+        }
+        if (rowsWritten + band.getHeight() > height) {
+            throw new IOException("Too many rows: image height is " + height);
+        }
+
+        int[] data = null;
+        if (band.getType() == BufferedImage.TYPE_INT_RGB
+                && band.getRaster().getDataBuffer() instanceof DataBufferInt) {
+            data = ((DataBufferInt) band.getRaster().getDataBuffer()).getData();
+        }
+
+        for (int y = 0; y < band.getHeight(); y++) {
+            if (data != null) {
+                System.arraycopy(data, y * width, rowPixels, 0, width);
+            } else {
+                band.getRGB(0, y, width, 1, rowPixels, 0, width);
+            }
+            writeRow(rowPixels);
+        }
+    }
+
+    /**
+     * Filter one row with the PNG "Sub" filter and compress it
+     */
+    private void writeRow(int[] row) throws IOException {
+        rowBytes[0] = 1; // Sub filter: each byte minus the same byte of the pixel to its left
+        int previous = 0;
+        for (int x = 0, i = 1; x < width; x++, i += 3) {
+            int rgb = row[x];
+            rowBytes[i] = (byte) ((rgb >> 16) - (previous >> 16));
+            rowBytes[i + 1] = (byte) ((rgb >> 8) - (previous >> 8));
+            rowBytes[i + 2] = (byte) (rgb - previous);
+            previous = rgb;
+        }
+        pixels.write(rowBytes);
+        rowsWritten++;
+    }
+
+    /**
+     * Get the number of rows written so far
+     *
+     * @return Rows written
+     */
+    public int getRowsWritten() {
+        return rowsWritten;
+    }
+
+    /**
+     * Finish the compressed data and write the end chunk
+     */
+    @Override
+    public void close() throws IOException {
+        if (pixels == null) {
+            return;
+        }
+        try {
+            pixels.finish();
+            pixels.flush();
+            deflater.end();
+            writeChunk("IEND", new byte[0], 0);
+        } finally {
+            pixels = null;
+            out.close();
+        }
+        if (rowsWritten != height) {
+            throw new IOException("Incomplete PNG: wrote " + rowsWritten + " of " + height + " rows");
+        }
+    }
+
+    /**
+     * Write a chunk with its length, type and CRC
+     */
+    private void writeChunk(String type, byte[] data, int length) throws IOException {
+        byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+        CRC32 crc = new CRC32();
+        crc.update(typeBytes);
+        crc.update(data, 0, length);
+
+        out.writeInt(length);
+        out.write(typeBytes);
+        out.write(data, 0, length);
+        out.writeInt((int) crc.getValue());
+    }
+
+    /**
+     * Store a big-endian int into a byte array
+     */
+    private static void writeInt(byte[] buffer, int offset, int value) {
+        buffer[offset] = (byte) (value >>> 24);
+        buffer[offset + 1] = (byte) (value >>> 16);
+        buffer[offset + 2] = (byte) (value >>> 8);
+        buffer[offset + 3] = (byte) value;
+    }
+
+    /**
+     * Output stream that turns compressed bytes into IDAT chunks
+     */
+    private class IdatStream extends OutputStream {
+        private byte[] buffer = new byte[CHUNK_SIZE];
+        private int count;
+
+        @Override
+        public void write(int b) throws IOException {
+            if (count == buffer.length) {
+                flush();
+            }
+            buffer[count++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                if (count == buffer.length) {
+                    flush();
+                }
+                int n = Math.min(len, buffer.length - count);
+                System.arraycopy(b, off, buffer, count, n);
+                count += n;
+                off += n;
+                len -= n;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (count > 0) {
+                writeChunk("IDAT", buffer, count);
+                count = 0;
+            }
+        }
+    }
+}
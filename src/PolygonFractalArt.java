@@ -13,6 +13,7 @@ public class PolygonFractalArt extends ArtWork {
         this.depth = depth;
         this.scaleFactor = scaleFactor;
         this.description = "Recursive Polygon Fractal with " + sides + " sides, depth " + depth;
+        this.complexityLevel = calculateComplexity();
     }
 
     @Override
@@ -24,7 +25,28 @@ public class PolygonFractalArt extends ArtWork {
     public int calculateComplexity() {
         if (sides <= 1)
             return 0;
-        return (int) ((Math.pow(sides, depth + 1) - 1) / (sides - 1));
+        // Polygons in a full tree of the given depth, capped instead of overflowing
+        return (int) Math.min(Integer.MAX_VALUE, piecesInLevels(sides, depth));
+    }
+
+    @Override
+    public long estimatePrimitives(double pixelScale, double detailPixels) {
+        // Levels stop once polygons are under 2 pixels, or below the level of detail
+        int levels = 0;
+        double radius = 150;
+        while (levels < depth && radius * pixelScale >= 2) {
+            levels++;
+            if (2 * radius * pixelScale < detailPixels) {
+                break;
+            }
+            radius *= scaleFactor;
+        }
+        return (long) piecesInLevels(sides, levels);
+    }
+
+    @Override
+    protected double estimatePrimitiveWeight() {
+        return sides * 3; // each outline is one long line per side
     }
 
     @Override
@@ -38,25 +60,56 @@ public class PolygonFractalArt extends ArtWork {
     }
 
     @Override
-    public void drawGraphics(Graphics2D g2d) {
-        g2d.fillRect(0, 0, 800, 600);
+    public ArtWork createPreview(int levelsRemoved) {
+        if (depth - levelsRemoved < 1) {
+            return null;
+        }
+        PolygonFractalArt preview = (PolygonFractalArt) copy();
+        preview.depth = depth - levelsRemoved;
+        return preview;
+    }
 
-        g2d.setStroke(new BasicStroke(1));
+    @Override
+    protected String getRenderParameters() {
+        return "sides=" + sides + ";depth=" + depth + ";scale=" + scaleFactor;
+    }
+
+    @Override
+    public void generateGeometry(GeometrySink sink) {
+        int stroke = sink.defineStroke(1);
+        DepthPalette palette = new DepthPalette(depth);
+        for (int level = 1; level <= depth; level++) {
+            palette.set(level, sink.defineColor(randomColor(level)), stroke);
+        }
 
         // Start with a big polygon in the center
-        drawPolygonFractal(g2d, 400, 300, 150, depth);
+        drawPolygonFractal(sink, palette, new double[sides], new double[sides], CANVAS_WIDTH / 2,
+                CANVAS_HEIGHT / 2, 150, depth);
     }
 
     /*
-     * Recursive method to draw polygon fractal
+     * Recursive method to generate polygon fractal.
+     * xs and ys are scratch arrays reused for every polygon.
      */
-    private void drawPolygonFractal(Graphics2D g2d, double x, double y, double radius, int currentDepth) {
-        if (currentDepth == 0 || radius < 2)
+    private void drawPolygonFractal(GeometrySink sink, DepthPalette palette, double[] xs, double[] ys, double x,
+            double y, double radius, int currentDepth) {
+        // Stop at polygons under 2 pixels across at the output scale
+        if (currentDepth == 0 || radius * sink.getPixelScale() < 2)
+            return;
+
+        // Child polygons sit on this one's vertices, each a fixed ratio smaller
+        if (!sink.isVisible(x, y, subtreeReach(radius, scaleFactor, currentDepth) + 2)) {
             return;
+        }
 
-        Polygon poly = createPolygon(x, y, radius, sides);
-        g2d.setColor(randomColor(currentDepth));
-        g2d.draw(poly);
+        createPolygon(xs, ys, x, y, radius, sides);
+        sink.polygon(xs, ys, sides, currentDepth, palette.getColor(currentDepth),
+                palette.getStroke(currentDepth), false);
+
+        // Below the level of detail this polygon stands for its children
+        if (sink.isBelowDetail(2 * radius)) {
+            return;
+        }
 
         // For each vertex -> recurse
         double angleStep = 2 * Math.PI / sides;
@@ -65,26 +118,22 @@ public class PolygonFractalArt extends ArtWork {
             double vx = x + radius * Math.cos(angle);
             double vy = y + radius * Math.sin(angle);
 
-            drawPolygonFractal(g2d, vx, vy, radius * scaleFactor, currentDepth - 1);
+            drawPolygonFractal(sink, palette, xs, ys, vx, vy, radius * scaleFactor, currentDepth - 1);
         }
     }
 
     /**
-     * Create a regular polygon as a Polygon object
+     * Fill xs and ys with the vertices of a regular polygon
      */
-    private Polygon createPolygon(double x, double y, double radius, int sides) {
-        Polygon poly = new Polygon();
+    private void createPolygon(double[] xs, double[] ys, double x, double y, double radius, int sides) {
         double angleStep = 2 * Math.PI / sides;
         double startAngle = -Math.PI / 2; // Start from the top
 
         for (int i = 0; i < sides; i++) {
             double angle = startAngle + i * angleStep;
-            int px = (int) (x + radius * Math.cos(angle));
-            int py = (int) (y + radius * Math.sin(angle));
-            poly.addPoint(px, py);
+            xs[i] = x + radius * Math.cos(angle);
+            ys[i] = y + radius * Math.sin(angle);
         }
-
-        return poly;
     }
 
     /**
@@ -0,0 +1,119 @@
+import java.awt.image.BufferedImage;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * PosterRenderer class to render artwork at print resolution.
+ * The image is produced in horizontal bands that are streamed to a PNG file,
+ * so memory use depends on the band size rather than the poster size.
+ * Escape-time fractals are computed band by band at full resolution. IFS
+ * density images are the exception: their histogram is computed once for
+ * the whole canvas, at most 2048x1024 pixels, and stretched to the poster.
+ */
+public class PosterRenderer {
+    public static final int MAX_DIMENSION = 20000;
+
+    // Total pixel memory allowed for bands in flight (all workers together)
+    private static final long BAND_MEMORY_BUDGET = 64L * 1024 * 1024;
+
+    /**
+     * Render an artwork to a PNG poster of any size up to 20000x20000
+     *
+     * @param artwork The artwork to render
+     * @param width   Poster width in pixels
+     * @param height  Poster height in pixels
+     * @param file    The PNG file to write
+     */
+    public static void renderPoster(ArtWork artwork, int width, int height, File file) throws IOException {
+        if (width <= 0 || height <= 0 || width > MAX_DIMENSION || height > MAX_DIMENSION) {
+            throw new IllegalArgumentException("Poster size must be between 1x1 and "
+                    + MAX_DIMENSION + "x" + MAX_DIMENSION + ": " + width + "x" + height);
+        }
+
+        int workers = Runtime.getRuntime().availableProcessors();
+        int bandHeight = (int) Math.max(1, Math.min(height, BAND_MEMORY_BUDGET / (4L * width * workers)));
+        int bandCount = (height + bandHeight - 1) / bandHeight;
+
+        // Every band replays the same primitives, recorded with the detail a poster needs.
+        // Artworks computed per pixel are instead computed band by band at full resolution.
+        if (!artwork.isComputedPerPixel()) {
+            artwork.getGeometry(Math.min((double) width / ArtWork.CANVAS_WIDTH,
+                    (double) height / ArtWork.CANVAS_HEIGHT));
+        }
+        ExecutorService pool = ArtRenderer.getTilePool();
+        ArrayDeque<Future<BufferedImage>> inFlight = new ArrayDeque<>();
+        int nextBand = 0;
+
+        try (PngStreamWriter png = new PngStreamWriter(
+                new BufferedOutputStream(new FileOutputStream(file), 1 << 16), width, height)) {
+            // Keep one band per worker rendering while finished bands are written in order
+            while (nextBand < bandCount || !inFlight.isEmpty()) {
+                while (nextBand < bandCount && inFlight.size() < workers) {
+                    int top = nextBand * bandHeight;
+                    int rows = Math.min(bandHeight, height - top);
+                    inFlight.add(pool.submit(() -> renderBand(artwork, top, rows, width, height)));
+                    nextBand++;
+                }
+                png.writeRows(inFlight.poll().get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while rendering poster of " + artwork.getTitle(), e);
+        } catch (ExecutionException e) {
+            throw new IOException("Poster band failed for " + artwork.getTitle(), e.getCause());
+        } finally {
+            for (Future<BufferedImage> band : inFlight) {
+                band.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Render one horizontal band of the poster
+     *
+     * @param artwork The artwork to render
+     * @param top     First poster row covered by the band
+     * @param rows    Number of rows in the band
+     * @param width   Poster width
+     * @param height  Poster height
+     * @return Image holding the band
+     */
+    private static BufferedImage renderBand(ArtWork artwork, int top, int rows, int width, int height) {
+        BufferedImage band = new BufferedImage(width, rows, BufferedImage.TYPE_INT_RGB);
+        ArtRenderer.renderRegion(artwork, band, 0, top, width, height);
+        return band;
+    }
+
+    /**
+     * Command line entry point: PosterRenderer portfolio.ser "Title" width height out.png
+     */
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+
+        if (args.length < 5) {
+            System.out.println("Usage: java PosterRenderer <portfolio.ser> <title> <width> <height> <out.png>");
+            return;
+        }
+
+        try {
+            ArtPortfolio portfolio = ArtPortfolio.loadFromFile(args[0]);
+            ArtWork artwork = portfolio.findArtworkByTitle(args[1]);
+            if (artwork == null) {
+                System.out.println("Artwork not found: " + args[1]);
+                return;
+            }
+
+            long start = System.nanoTime();
+            renderPoster(artwork, Integer.parseInt(args[2]), Integer.parseInt(args[3]), new File(args[4]));
+            System.out.printf("Poster written to %s in %.1f s\n", args[4], (System.nanoTime() - start) / 1e9);
+        } catch (Exception e) {
+            System.out.println("Poster render failed: " + e.getMessage());
+        }
+    }
+}
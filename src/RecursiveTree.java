@@ -1,9 +1,16 @@
-import java.util.Random;
 import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /*
  * RecursiveTree class that extends ArtWork to create recursive tree patterns.
  * Demonstrates advanced recursion with customizable parameters.
+ * Random trees take every random number from PathRandom, keyed on the
+ * branch's path from the trunk, so the artwork's seed fixes the whole tree
+ * and large trees can generate their subtrees in parallel.
+ * Seasonal variants share one tree's branches and only repaint them.
  */
 public class RecursiveTree extends ArtWork {
     private static final long serialVersionUID = 1L;
@@ -12,9 +19,34 @@ public class RecursiveTree extends ArtWork {
     private double lengthReduction;
     private boolean randomized;
     private int branchCount;
-    private Random random;
     private String season = "default"; // Track current season for coloring
 
+    // Tree whose branches this seasonal variant repaints (null for an ordinary tree)
+    private RecursiveTree skeleton;
+
+    // Where the trunk starts on the canvas
+    public static final int TRUNK_X = CANVAS_WIDTH / 2;
+    public static final int TRUNK_Y = 550;
+
+    // Trees estimated to have more primitives than this generate subtrees in parallel
+    private static final long PARALLEL_MIN_PRIMITIVES = 50_000;
+    // Subtrees to split such a tree into, at least
+    private static final int PARALLEL_SUBTREES = 64;
+
+    // Which random number of a branch each choice uses (children use branch indexes)
+    private static final int DRAW_LENGTH = 0;
+    private static final int DRAW_ANGLE = 1; // plus the child's index
+    private static final int DRAW_EXTRA = 6;
+    private static final int DRAW_EXTRA_ANGLE = 7;
+    private static final int DRAW_LEAF = 8;
+
+    // Branch paths packed into a long: a leading 1, then three bits per level
+    // for the child taken (EXTRA_CHILD for the occasional extra branch). Codes
+    // stop growing after 20 levels, so deeper branches share their ancestor's.
+    private static final long ROOT_PATH = 1;
+    private static final int PATH_BITS = 3;
+    private static final int EXTRA_CHILD = 7;
+
     /**
      * Basic constructor
      * 
@@ -28,7 +60,6 @@ public class RecursiveTree extends ArtWork {
         this.lengthReduction = 0.75;
         this.randomized = false;
         this.branchCount = 2;
-        this.random = new Random();
         this.complexityLevel = calculateComplexity();
     }
 
@@ -46,7 +77,6 @@ public class RecursiveTree extends ArtWork {
         this.lengthReduction = 0.75;
         this.randomized = false;
         this.branchCount = 2;
-        this.random = new Random();
         this.complexityLevel = calculateComplexity();
     }
 
@@ -66,7 +96,6 @@ public class RecursiveTree extends ArtWork {
         this.lengthReduction = 0.75;
         this.randomized = randomized;
         this.branchCount = Math.max(2, Math.min(5, branchCount)); // Limit branches 2-5
-        this.random = new Random();
         this.complexityLevel = calculateComplexity();
     }
 
@@ -76,26 +105,23 @@ public class RecursiveTree extends ArtWork {
         System.out.println("Max Depth: " + maxDepth);
         System.out.println("Branch Count: " + branchCount);
         System.out.println("Randomized: " + randomized);
+        if (randomized) {
+            System.out.println("Seed: " + seed);
+        }
         System.out.println("Generating tree structure...\n");
 
-        // Clear previous description
-        description = "";
-
-        // Start tree generation from base
-        int startX = 400;
-        int startY = 600;
-        double initialLength = 150;
-        double initialAngle = -Math.PI / 2; // Pointing up
-
-        // Draw trunk
-        description += "=== Tree Structure ===\n";
-        description += "Trunk: Base at (" + startX + ", " + startY + ")\n\n";
+        // Summarize the same branches that will be drawn
+        DescriptionSink text = createTraceSink(new StringBuilder(), DescriptionSink.SUMMARY_LINES);
+        text.addLine("=== Tree Structure ===");
+        text.addLine("Trunk: Base at (" + TRUNK_X + ", " + TRUNK_Y + ")\n");
 
-        // Generate recursive tree
-        drawBranch(startX, startY, initialLength, initialAngle, maxDepth, "Root");
+        GeometryRecording geometry = getGeometry();
+        geometry.replay(text);
+        text.finish();
+        description = text.toString();
 
         System.out.println("\nTree generation complete!");
-        System.out.println("Total branches created: " + countBranches(maxDepth));
+        System.out.println("Total branches created: " + geometry.getSegmentCount());
 
         // Show graphical display
         GraphicsDisplay.showArtwork(this);
@@ -107,6 +133,29 @@ public class RecursiveTree extends ArtWork {
         return calculateTreeComplexity(maxDepth);
     }
 
+    @Override
+    public long estimatePrimitives(double pixelScale, double detailPixels) {
+        // Branches down to the level of detail; then two leaves per last branch,
+        // or one where the level of detail cut the branch short. Random lengths
+        // average out to the same ratio. A random tree's extra branch (0.3 per
+        // node) starts two levels down, so each level grows by the root of
+        // x^2 = branches * x + 0.3 instead.
+        double children = branchCount;
+        if (randomized) {
+            children = (branchCount + Math.sqrt(branchCount * branchCount + 1.2)) / 2;
+        }
+        int levels = levelsAboveDetail(120, lengthReduction, maxDepth, pixelScale, detailPixels);
+        boolean cut = 120 * Math.pow(lengthReduction, levels - 1) * pixelScale < detailPixels;
+        double branches = piecesInLevels(children, levels);
+        double leaves = Math.pow(children, cut ? levels - 1 : levels);
+        return (long) (branches + leaves);
+    }
+
+    @Override
+    protected double estimatePrimitiveWeight() {
+        return 1.3; // leaves are filled ovals
+    }
+
     @Override
     public String getArtType() {
         return "Recursive Tree";
@@ -120,71 +169,6 @@ public class RecursiveTree extends ArtWork {
         return description;
     }
 
-    /**
-     * Recursive method to draw a branch and its sub-branches
-     * 
-     * @param x      Starting x coordinate
-     * @param y      Starting y coordinate
-     * @param length Branch length
-     * @param angle  Branch angle
-     * @param depth  Current recursion depth
-     * @param path   Path string for tracking position in tree
-     */
-    private void drawBranch(int x, int y, double length, double angle, int depth, String path) {
-        if (depth == 0) {
-            description += String.format("  Leaf at %s: (%d, %d)\n", path, x, y);
-            return; // Base case
-        }
-
-        // Calculate end point of current branch
-        int endX = x + (int) (length * Math.cos(angle));
-        int endY = y + (int) (length * Math.sin(angle));
-
-        // Add branch to description
-        String depthIndent = "  ".repeat(maxDepth - depth);
-        description += String.format("%sBranch %s [Depth %d]: (%d,%d) to (%d,%d) - Length: %.1f\n",
-                depthIndent, path, depth, x, y, endX, endY, length);
-
-        // Calculate parameters for sub-branches
-        double newLength = length * lengthReduction;
-        if (randomized) {
-            newLength *= (0.8 + random.nextDouble() * 0.4); // Random factor 0.8-1.2
-        }
-
-        // Generate sub-branches based on branchCount
-        if (branchCount == 2) {
-            // Classic binary tree
-            double leftAngle = angle - branchAngle;
-            double rightAngle = angle + branchAngle;
-
-            if (randomized) {
-                leftAngle += (random.nextDouble() - 0.5) * 0.3;
-                rightAngle += (random.nextDouble() - 0.5) * 0.3;
-            }
-
-            drawBranch(endX, endY, newLength, leftAngle, depth - 1, path + "-L");
-            drawBranch(endX, endY, newLength, rightAngle, depth - 1, path + "-R");
-        } else {
-            // Multi-branch tree
-            double angleStep = (2 * branchAngle) / (branchCount - 1);
-            double startAngle = angle - branchAngle;
-
-            for (int i = 0; i < branchCount; i++) {
-                double branchAngle = startAngle + (i * angleStep);
-                if (randomized) {
-                    branchAngle += (random.nextDouble() - 0.5) * 0.3;
-                }
-                drawBranch(endX, endY, newLength, branchAngle, depth - 1, path + "-" + i);
-            }
-        }
-
-        // Occasionally add an extra branch for variety
-        if (randomized && random.nextDouble() > 0.7 && depth > 2) {
-            double extraAngle = angle + (random.nextDouble() - 0.5) * Math.PI / 4;
-            drawBranch(endX, endY, newLength * 0.6, extraAngle, depth - 2, path + "-X");
-        }
-    }
-
     /**
      * Calculate the complexity of the tree based on branch count
      * 
@@ -199,20 +183,6 @@ public class RecursiveTree extends ArtWork {
         return 1 + branchCount * calculateTreeComplexity(depth - 1);
     }
 
-    /**
-     * Count total branches in the tree recursively
-     * 
-     * @param depth Current depth
-     * @return Total number of branches
-     */
-    private int countBranches(int depth) {
-        if (depth <= 0) {
-            return 0;
-        }
-        // Recursive calculation: current level + all sub-branches
-        return (int) Math.pow(branchCount, maxDepth - depth + 1) - 1;
-    }
-
     /**
      * Generate a nature-inspired tree with seasonal variations
      * 
@@ -222,6 +192,7 @@ public class RecursiveTree extends ArtWork {
         System.out.println("\nGenerating " + season + " tree...");
 
         this.season = season.toLowerCase(); // Store the season
+        this.skeleton = null; // the season changes the shape, so grow this tree itself
 
         switch (this.season) {
             case "spring":
@@ -248,9 +219,43 @@ public class RecursiveTree extends ArtWork {
                 break;
         }
 
+        releaseGeometry();
         display();
     }
 
+    /**
+     * Create the tree in all four seasons from one set of branches. The
+     * branches are generated once, by this tree; each variant only repaints
+     * them with its season's colours and leaves, and winter drops the two
+     * finest levels. Unlike generateSeasonalTree, every season keeps this
+     * tree's shape.
+     *
+     * @return Spring, summer, fall and winter variants
+     */
+    public RecursiveTree[] createSeasonalVariants() {
+        String[] seasons = { "spring", "summer", "fall", "winter" };
+        RecursiveTree[] variants = new RecursiveTree[seasons.length];
+        for (int i = 0; i < seasons.length; i++) {
+            RecursiveTree variant = (RecursiveTree) copy();
+            variant.title = title + " (" + seasons[i] + ")";
+            variant.season = seasons[i];
+            variant.skeleton = skeleton != null ? skeleton : this;
+            variant.description = "";
+            variants[i] = variant;
+        }
+        return variants;
+    }
+
+    /**
+     * Create an animation of this tree swaying in the wind. The tree is
+     * generated once; frames only move its recorded branches.
+     *
+     * @return The animation
+     */
+    public WindAnimation createWindAnimation() {
+        return new WindAnimation(getGeometry());
+    }
+
     // Getters and setters
     public int getMaxDepth() {
         return maxDepth;
@@ -258,7 +263,9 @@ public class RecursiveTree extends ArtWork {
 
     public void setMaxDepth(int maxDepth) {
         this.maxDepth = maxDepth;
+        this.skeleton = null;
         this.complexityLevel = calculateComplexity();
+        releaseGeometry();
     }
 
     public boolean isRandomized() {
@@ -267,101 +274,324 @@ public class RecursiveTree extends ArtWork {
 
     public void setRandomized(boolean randomized) {
         this.randomized = randomized;
+        this.skeleton = null;
+        releaseGeometry();
+    }
+
+    @Override
+    public ArtWork createPreview(int levelsRemoved) {
+        if (maxDepth - levelsRemoved < 1) {
+            return null;
+        }
+        RecursiveTree preview = (RecursiveTree) copy();
+        preview.maxDepth = maxDepth - levelsRemoved;
+        if (skeleton != null) {
+            preview.skeleton = (RecursiveTree) skeleton.createPreview(levelsRemoved);
+        }
+        return preview;
+    }
+
+    @Override
+    public int getFrameCount() {
+        return maxDepth; // the trunk alone, then one more level per frame
+    }
+
+    @Override
+    public ArtWork createFrame(int frame) {
+        return frame + 1 >= maxDepth ? this : createPreview(maxDepth - (frame + 1));
+    }
+
+    @Override
+    protected String getRenderParameters() {
+        if (skeleton != null) {
+            // Fall leaf colours are picked with this variant's seed
+            return skeleton.getRenderParameters() + ";variant=" + season
+                    + (season.equals("fall") ? ";seed=" + seed : "");
+        }
+        String parameters = "depth=" + maxDepth + ";angle=" + branchAngle + ";reduction=" + lengthReduction
+                + ";randomized=" + randomized + ";branches=" + branchCount + ";season=" + season;
+        if (randomized || season.equals("fall")) {
+            parameters += ";seed=" + seed; // random lengths, angles or leaf colours
+        }
+        return parameters;
     }
 
     @Override
-    public void drawGraphics(Graphics2D g2d) {
-        // Set rendering hints for smooth lines
-        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+    protected DescriptionSink createTraceSink(Appendable out, int maxLines) {
+        // Branches are tagged with their packed paths, named only for the lines written
+        return new DescriptionSink("Branch", "Shape", "Leaf", maxDepth, out, maxLines) {
+            @Override
+            protected String describeTag(long tag) {
+                return pathText(tag);
+            }
+        };
+    }
+
+    /**
+     * Packed path of one child of a branch
+     *
+     * @param path  The branch's path
+     * @param child The child's index, or EXTRA_CHILD
+     * @return The child's path
+     */
+    private static long childPath(long path, int child) {
+        if (path >>> (63 - PATH_BITS) != 0) {
+            return path; // no room for another level
+        }
+        return (path << PATH_BITS) | child;
+    }
+
+    /**
+     * Turn a packed path into text such as "Root-L-R-X"
+     *
+     * @param path The packed path
+     * @return The path as text
+     */
+    public String pathText(long path) {
+        StringBuilder text = new StringBuilder("Root");
+        int leadingOne = 63 - Long.numberOfLeadingZeros(path);
+        for (int shift = leadingOne - PATH_BITS; shift >= 0; shift -= PATH_BITS) {
+            int child = (int) (path >>> shift) & ((1 << PATH_BITS) - 1);
+            text.append('-');
+            if (child == EXTRA_CHILD) {
+                text.append('X');
+            } else if (branchCount == 2) {
+                text.append(child == 0 ? 'L' : 'R');
+            } else {
+                text.append(child);
+            }
+        }
+        return text.toString();
+    }
 
+    @Override
+    public void generateGeometry(GeometrySink sink) {
         // Start tree from base
-        int startX = 400;
-        int startY = 550;
         double initialLength = 120;
         double initialAngle = -Math.PI / 2;
 
-        // Set base color
-        Color baseColor = new Color(101, 67, 33); // Brown
+        if (skeleton != null) {
+            SeasonPainter painter = new SeasonPainter(sink);
+            if (sink.getDetailPixels() == getDetailPixels()) {
+                // Repaint the shared branches, generated once for all the seasons
+                skeleton.getGeometry(sink.getPixelScale()).replay(painter);
+            } else {
+                // The shared recording is cut at the global threshold, so a sink with its
+                // own (0 for full traces and SVG) gets the branches generated for it
+                painter.copyView(sink);
+                skeleton.generateGeometry(painter);
+            }
+            sink.setTag(0);
+            return;
+        }
+
+        // Sinks without a level of detail (full traces, SVG) get the whole tree in
+        // one pass, so memory stays constant however deep it is
+        if (sink.getDetailPixels() > 0
+                && estimatePrimitives(sink.getPixelScale(), sink.getDetailPixels()) > PARALLEL_MIN_PRIMITIVES) {
+            generateInParallel(sink, initialLength, initialAngle);
+            return;
+        }
 
-        // Draw the tree recursively
-        drawGraphicalBranch(g2d, startX, startY, initialLength, initialAngle, maxDepth, "Root", baseColor);
+        // Generate the tree recursively
+        int[] leafColors = defineLeafColors(sink);
+        DepthPalette palette = definePalette(sink, leafColors);
+        drawGraphicalBranch(sink, palette, leafColors, TRUNK_X, TRUNK_Y, initialLength, initialAngle, maxDepth,
+                seed, ROOT_PATH, null);
+        sink.setTag(0);
     }
 
     /**
-     * Draw branch with graphics recursively
+     * Generate the top levels of the tree, then its subtrees on all cores.
+     * Each subtree is recorded separately and the recordings are sent to the
+     * sink in the order a single thread would have drawn them, so the picture
+     * is identical on any number of cores. Only a few subtrees per core are
+     * generated ahead of the one being sent, to bound the memory held.
+     *
+     * @param sink          Sink receiving the branches and leaves
+     * @param initialLength Trunk length
+     * @param initialAngle  Trunk angle
      */
-    private void drawGraphicalBranch(Graphics2D g2d, int x, int y, double length, double angle,
-            int depth, String path, Color baseColor) {
-        if (depth == 0) {
-            // Draw leaves/flowers at the end based on season
-            if (season.equals("spring")) {
-                g2d.setColor(new Color(255, 182, 193)); // Pink flowers
-                g2d.fillOval(x - 4, y - 4, 8, 8);
-            } else if (season.equals("summer")) {
-                g2d.setColor(new Color(34, 139, 34)); // Forest green leaves
-                g2d.fillOval(x - 3, y - 3, 6, 6);
-            } else if (season.equals("fall")) {
-                // Fall leaves in various colors
-                Color[] fallColors = { new Color(255, 69, 0), new Color(255, 140, 0), new Color(255, 215, 0) };
-                g2d.setColor(fallColors[(int) (Math.random() * fallColors.length)]);
-                g2d.fillOval(x - 3, y - 3, 6, 6);
-            } else if (season.equals("winter")) {
-                // No leaves in winter, just show branch tips
-                g2d.setColor(new Color(200, 200, 200));
-                g2d.fillOval(x - 2, y - 2, 4, 4);
-            } else {
-                g2d.setColor(new Color(34, 139, 34)); // Default green
-                g2d.fillOval(x - 3, y - 3, 6, 6);
+    private void generateInParallel(GeometrySink sink, double initialLength, double initialAngle) {
+        // Split deep enough to give every core several subtrees
+        int levels = 1;
+        while (Math.pow(branchCount, levels) < PARALLEL_SUBTREES && levels < maxDepth - 1) {
+            levels++;
+        }
+        SubtreeSplit split = new SubtreeSplit(sink, maxDepth - levels);
+
+        // The top levels, with a note of where each subtree belongs
+        int[] leafColors = defineLeafColors(split.top);
+        DepthPalette palette = definePalette(split.top, leafColors);
+        drawGraphicalBranch(split.top, palette, leafColors, TRUNK_X, TRUNK_Y, initialLength, initialAngle,
+                maxDepth, seed, ROOT_PATH, split);
+
+        ForkJoinPool pool = ArtRenderer.getComputePool();
+        List<SubtreeTask> subtrees = split.subtrees;
+        int ahead = 2 * pool.getParallelism();
+        for (int i = 0; i < Math.min(ahead, subtrees.size()); i++) {
+            pool.execute(subtrees.get(i));
+        }
+        int replayed = 0;
+        for (int i = 0; i < subtrees.size(); i++) {
+            SubtreeTask task = subtrees.get(i);
+            split.top.replay(sink, replayed, task.position);
+            replayed = task.position;
+            task.join();
+            if (i + ahead < subtrees.size()) {
+                pool.execute(subtrees.get(i + ahead));
             }
-            return;
+            task.recording.replay(sink);
+            task.recording = null; // free it as soon as it has been drawn
         }
+        split.top.replay(sink, replayed, split.top.getPrimitiveCount());
+    }
 
-        // Calculate end point
-        int endX = x + (int) (length * Math.cos(angle));
-        int endY = y + (int) (length * Math.sin(angle));
+    /**
+     * Register the colour and stroke of every depth with a sink
+     *
+     * @param sink       The sink to register them with
+     * @param leafColors Leaf colour ids, the first of which is used for depth 0
+     * @return Ids indexed by depth
+     */
+    private DepthPalette definePalette(GeometrySink sink, int[] leafColors) {
+        // Colours and strokes are looked up by depth, never created per branch
+        DepthPalette palette = new DepthPalette(maxDepth);
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            palette.set(depth, sink.defineColor(branchColor(depth)), sink.defineStroke(Math.max(1, depth / 2.0f)));
+        }
+        palette.set(0, leafColors[0], sink.defineStroke(1));
+        return palette;
+    }
+
+    /**
+     * Register the colours of the leaves or flowers for the current season
+     *
+     * @param sink The sink to register them with
+     * @return Colour ids to pick leaves from
+     */
+    private int[] defineLeafColors(GeometrySink sink) {
+        // Leaves/flowers at the branch tips based on season
+        int[] leafColors;
+        if (season.equals("spring")) {
+            leafColors = new int[] { sink.defineColor(new Color(255, 182, 193)) }; // Pink flowers
+        } else if (season.equals("fall")) {
+            // Fall leaves in various colors
+            leafColors = new int[] { sink.defineColor(new Color(255, 69, 0)),
+                    sink.defineColor(new Color(255, 140, 0)), sink.defineColor(new Color(255, 215, 0)) };
+        } else if (season.equals("winter")) {
+            // No leaves in winter, just show branch tips
+            leafColors = new int[] { sink.defineColor(new Color(200, 200, 200)) };
+        } else {
+            leafColors = new int[] { sink.defineColor(new Color(34, 139, 34)) }; // Forest green leaves
+        }
+        return leafColors;
+    }
 
-        // Set color and stroke based on depth and season
+    /**
+     * Colour of the branches at one depth for the current season
+     *
+     * @param depth Branch depth (maxDepth at the trunk)
+     * @return The branch colour
+     */
+    private Color branchColor(int depth) {
         float colorFactor = (float) depth / maxDepth;
         if (season.equals("spring")) {
             // Spring colors - light greens and pinks
             if (depth <= 2) {
                 // Flowers/buds at tips
-                g2d.setColor(new Color(255, 182, 193)); // Light pink
-            } else {
-                g2d.setColor(new Color((int) (100 * colorFactor), (int) (200 * colorFactor + 55),
-                        (int) (100 * colorFactor)));
+                return new Color(255, 182, 193); // Light pink
             }
+            return new Color((int) (100 * colorFactor), (int) (200 * colorFactor + 55), (int) (100 * colorFactor));
         } else if (season.equals("summer")) {
             // Summer - deep greens
-            g2d.setColor(new Color((int) (34 * colorFactor), (int) (139 * colorFactor), (int) (34 * colorFactor)));
+            return new Color((int) (34 * colorFactor), (int) (139 * colorFactor), (int) (34 * colorFactor));
         } else if (season.equals("fall")) {
             // Fall colors - oranges and reds
             if (depth <= 3) {
                 // More colorful at the tips
-                g2d.setColor(new Color(255, (int) (140 - depth * 20), 0)); // Orange to red
-            } else {
-                g2d.setColor(new Color((int) (139 * colorFactor), (int) (69 * colorFactor), (int) (19 * colorFactor))); // Saddle
-                                                                                                                        // brown
+                return new Color(255, (int) (140 - depth * 20), 0); // Orange to red
             }
+            // Saddle brown
+            return new Color((int) (139 * colorFactor), (int) (69 * colorFactor), (int) (19 * colorFactor));
         } else if (season.equals("winter")) {
             // Winter - grays and whites
             int gray = (int) (150 * colorFactor + 50);
-            g2d.setColor(new Color(gray, gray, gray));
-        } else {
-            // Default brown to green gradient
-            g2d.setColor(new Color((int) (101 * colorFactor), (int) (67 * colorFactor + 100 * (1 - colorFactor)),
-                    (int) (33 * colorFactor)));
+            return new Color(gray, gray, gray);
+        }
+        // Default brown to green gradient
+        return new Color((int) (101 * colorFactor), (int) (67 * colorFactor + 100 * (1 - colorFactor)),
+                (int) (33 * colorFactor));
+    }
+
+    /**
+     * Size of the leaf or flower drawn at each branch tip
+     *
+     * @return Diameter in pixels
+     */
+    private int leafSize() {
+        if (season.equals("spring")) {
+            return 8;
+        } else if (season.equals("winter")) {
+            return 4;
+        }
+        return 6;
+    }
+
+    /**
+     * Generate a branch and its sub-branches recursively
+     *
+     * @param sink       Sink receiving the branch lines and leaves
+     * @param palette    Colour and stroke ids for each depth
+     * @param leafColors Colour ids to pick leaves from
+     * @param x          Starting x coordinate
+     * @param y          Starting y coordinate
+     * @param length     Branch length
+     * @param angle      Branch angle
+     * @param depth      Current recursion depth
+     * @param seed       Seed of this branch's random numbers
+     * @param path       Packed path from the trunk, attached to the primitives as their tag
+     * @param split      Where to hand subtrees to other threads (null to draw everything here)
+     */
+    private void drawGraphicalBranch(GeometrySink sink, DepthPalette palette, int[] leafColors, double x, double y,
+            double length, double angle, int depth, long seed, long path, SubtreeSplit split) {
+        // Skip subtrees outside the visible area. Random lengths grow by at most
+        // 1.2 times, and each branch's numbers depend only on its own path, so
+        // skipping a random subtree changes nothing else.
+        double reachRatio = randomized ? lengthReduction * 1.2 : lengthReduction;
+        if (!sink.isVisible(x, y, subtreeReach(length, reachRatio, depth) + 2 * depth + 8)) {
+            return;
+        }
+
+        if (split != null && depth <= split.depth) {
+            split.defer(x, y, length, angle, depth, seed, path);
+            return;
+        }
+        sink.setTag(path);
+
+        if (depth == 0) {
+            drawLeaf(sink, palette, leafColors, x, y, seed);
+            return;
         }
 
-        g2d.setStroke(new BasicStroke(Math.max(1, depth / 2.0f)));
+        // Calculate end point
+        double endX = x + length * Math.cos(angle);
+        double endY = y + length * Math.sin(angle);
 
         // Draw branch
-        g2d.drawLine(x, y, endX, endY);
+        sink.segment(x, y, endX, endY, depth, palette.getColor(depth), palette.getStroke(depth));
+
+        // Once branches are smaller than the level of detail, this one and a leaf
+        // stand for the subtree
+        if (sink.isBelowDetail(length)) {
+            drawLeaf(sink, palette, leafColors, endX, endY, seed);
+            return;
+        }
 
         // Calculate parameters for sub-branches
         double newLength = length * lengthReduction;
         if (randomized) {
-            newLength *= (0.8 + random.nextDouble() * 0.4);
+            newLength *= (0.8 + PathRandom.unit(seed, DRAW_LENGTH) * 0.4);
         }
 
         // Generate sub-branches
@@ -371,12 +601,14 @@ public class RecursiveTree extends ArtWork {
             double rightAngle = angle + branchAngle;
 
             if (randomized) {
-                leftAngle += (random.nextDouble() - 0.5) * 0.3;
-                rightAngle += (random.nextDouble() - 0.5) * 0.3;
+                leftAngle += (PathRandom.unit(seed, DRAW_ANGLE) - 0.5) * 0.3;
+                rightAngle += (PathRandom.unit(seed, DRAW_ANGLE + 1) - 0.5) * 0.3;
             }
 
-            drawGraphicalBranch(g2d, endX, endY, newLength, leftAngle, depth - 1, path + "-L", baseColor);
-            drawGraphicalBranch(g2d, endX, endY, newLength, rightAngle, depth - 1, path + "-R", baseColor);
+            drawGraphicalBranch(sink, palette, leafColors, endX, endY, newLength, leftAngle, depth - 1,
+                    PathRandom.child(seed, 0), childPath(path, 0), split);
+            drawGraphicalBranch(sink, palette, leafColors, endX, endY, newLength, rightAngle, depth - 1,
+                    PathRandom.child(seed, 1), childPath(path, 1), split);
         } else {
             // Multi-branch tree
             double angleStep = (2 * branchAngle) / (branchCount - 1);
@@ -385,16 +617,167 @@ public class RecursiveTree extends ArtWork {
             for (int i = 0; i < branchCount; i++) {
                 double branchAngle = startAngle + (i * angleStep);
                 if (randomized) {
-                    branchAngle += (random.nextDouble() - 0.5) * 0.3;
+                    branchAngle += (PathRandom.unit(seed, DRAW_ANGLE + i) - 0.5) * 0.3;
                 }
-                drawGraphicalBranch(g2d, endX, endY, newLength, branchAngle, depth - 1, path + "-" + i, baseColor);
+                drawGraphicalBranch(sink, palette, leafColors, endX, endY, newLength, branchAngle, depth - 1,
+                        PathRandom.child(seed, i), childPath(path, i), split);
             }
         }
 
         // Occasionally add extra branch
-        if (randomized && random.nextDouble() > 0.7 && depth > 2) {
-            double extraAngle = angle + (random.nextDouble() - 0.5) * Math.PI / 4;
-            drawGraphicalBranch(g2d, endX, endY, newLength * 0.6, extraAngle, depth - 2, path + "-X", baseColor);
+        if (randomized && PathRandom.unit(seed, DRAW_EXTRA) > 0.7 && depth > 2) {
+            double extraAngle = angle + (PathRandom.unit(seed, DRAW_EXTRA_ANGLE) - 0.5) * Math.PI / 4;
+            drawGraphicalBranch(sink, palette, leafColors, endX, endY, newLength * 0.6, extraAngle, depth - 2,
+                    PathRandom.child(seed, branchCount), childPath(path, EXTRA_CHILD), split);
+        }
+    }
+
+    /**
+     * Generate one leaf centred on a point
+     *
+     * @param sink       Sink receiving the leaf
+     * @param palette    Colour and stroke ids for each depth
+     * @param leafColors Colour ids to pick the leaf from
+     * @param x          Centre x
+     * @param y          Centre y
+     * @param seed       Seed of the branch the leaf grows on
+     */
+    private void drawLeaf(GeometrySink sink, DepthPalette palette, int[] leafColors, double x, double y, long seed) {
+        int leaf = leafColors.length == 1 ? leafColors[0]
+                : leafColors[(int) (PathRandom.unit(seed, DRAW_LEAF) * leafColors.length)];
+        int size = leafSize();
+        sink.oval(x - size / 2.0, y - size / 2.0, size, size, 0, leaf, palette.getStroke(0), true);
+    }
+
+    /**
+     * The top of a tree being generated in parallel: the recording of its top
+     * levels, and the subtrees to generate separately
+     */
+    private class SubtreeSplit {
+        private final GeometryRecording top = new GeometryRecording();
+        private final int depth;
+        private final List<SubtreeTask> subtrees = new ArrayList<>();
+
+        SubtreeSplit(GeometrySink sink, int depth) {
+            this.depth = depth;
+            top.copyView(sink);
+        }
+
+        /**
+         * Leave a subtree for another thread, remembering where it goes among
+         * the top level's primitives
+         */
+        void defer(double x, double y, double length, double angle, int depth, long seed, long path) {
+            // The top recording has the sink's visible area and level of detail
+            subtrees.add(new SubtreeTask(top, x, y, length, angle, depth, seed, path, top.getPrimitiveCount()));
+        }
+    }
+
+    /**
+     * One subtree generated into its own recording
+     */
+    private class SubtreeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final GeometrySink view;
+        private final double x;
+        private final double y;
+        private final double length;
+        private final double angle;
+        private final int depth;
+        private final long seed;
+        private final long path;
+        private final int position; // top-level primitives drawn before this subtree
+        private GeometryRecording recording;
+
+        SubtreeTask(GeometrySink view, double x, double y, double length, double angle, int depth, long seed, long path,
+                int position) {
+            this.view = view;
+            this.x = x;
+            this.y = y;
+            this.length = length;
+            this.angle = angle;
+            this.depth = depth;
+            this.seed = seed;
+            this.path = path;
+            this.position = position;
+        }
+
+        @Override
+        protected void compute() {
+            GeometryRecording subtree = new GeometryRecording();
+            subtree.copyView(view);
+            int[] leafColors = defineLeafColors(subtree);
+            DepthPalette palette = definePalette(subtree, leafColors);
+            drawGraphicalBranch(subtree, palette, leafColors, x, y, length, angle, depth, seed, path, null);
+            recording = subtree;
+        }
+    }
+
+    /**
+     * Sink that repaints a tree's branches and leaves in this tree's season
+     * while passing them on to another sink
+     */
+    private class SeasonPainter extends GeometrySink {
+        private final GeometrySink target;
+        private final int[] leafColors;
+        private final DepthPalette palette;
+        private final int size;
+        private final int trim; // finest levels left out (winter only)
+        private int lastDepth = Integer.MAX_VALUE;
+
+        SeasonPainter(GeometrySink target) {
+            this.target = target;
+            this.leafColors = defineLeafColors(target);
+            this.palette = definePalette(target, leafColors);
+            this.size = leafSize();
+            // Same depth as a winter tree from generateSeasonalTree, never below 5
+            this.trim = season.equals("winter") ? Math.max(0, Math.min(2, maxDepth - 5)) : 0;
+        }
+
+        @Override
+        public void segment(double x1, double y1, double x2, double y2, int depth, int colorId, int strokeId) {
+            lastDepth = depth;
+            if (depth <= trim) {
+                return;
+            }
+            target.setTag(getTag());
+            target.segment(x1, y1, x2, y2, depth, palette.getColor(depth), palette.getStroke(depth));
+            if (trim > 0 && depth == trim + 1) {
+                leaf(x2, y2); // the tip of a trimmed branch
+            }
+        }
+
+        @Override
+        public void polygon(double[] xs, double[] ys, int count, int depth, int colorId, int strokeId,
+                boolean filled) {
+            // Trees draw no polygons
+        }
+
+        @Override
+        public void oval(double x, double y, double width, double height, int depth, int colorId, int strokeId,
+                boolean filled) {
+            // Leaves on trimmed branches go with them; the tips of the
+            // trimmed branches already have theirs
+            if (trim == 0 || lastDepth > trim + 1) {
+                leaf(x + width / 2, y + height / 2);
+            }
+        }
+
+        @Override
+        public void image(int[] argb, int columns, int rows, double x, double y, double width, double height,
+                int depth) {
+            // Trees draw no images
+        }
+
+        /**
+         * Draw this season's leaf centred on a point
+         */
+        private void leaf(double x, double y) {
+            int leaf = leafColors.length == 1 ? leafColors[0]
+                    : leafColors[(int) (PathRandom.unit(seed ^ PathRandom.mix(getTag()), DRAW_LEAF)
+                            * leafColors.length)];
+            target.setTag(getTag());
+            target.oval(x - size / 2.0, y - size / 2.0, size, size, 0, leaf, palette.getStroke(0), true);
         }
     }
 }
@@ -0,0 +1,201 @@
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * RenderCache class to reuse rendered images of artworks with identical parameters.
+ * Entries are weighted by their pixel memory and evicted least-recently-used
+ * first once the configured memory budget is exceeded.
+ */
+public class RenderCache {
+    // Default budget, overridable with -Dart.renderCache.bytes=...
+    public static final long DEFAULT_BUDGET_BYTES = 64L * 1024 * 1024;
+
+    private static RenderCache shared;
+
+    private LinkedHashMap<String, BufferedImage> entries;
+    private long budgetBytes;
+    private long usedBytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Constructor with a memory budget
+     *
+     * @param budgetBytes Maximum pixel memory held by cached images
+     */
+    public RenderCache(long budgetBytes) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true); // access order = LRU order
+        this.budgetBytes = Math.max(0, budgetBytes);
+    }
+
+    /**
+     * Get the cache shared by all displays
+     *
+     * @return The shared cache
+     */
+    public static synchronized RenderCache getShared() {
+        if (shared == null) {
+            shared = new RenderCache(Long.getLong("art.renderCache.bytes", DEFAULT_BUDGET_BYTES));
+        }
+        return shared;
+    }
+
+    /**
+     * Get the rendered image of an artwork, rendering it only on a cache miss
+     *
+     * @param artwork The artwork to render
+     * @return The rendered 800x600 image (shared; callers must not draw on it)
+     */
+    public BufferedImage render(ArtWork artwork) {
+        BufferedImage image = getCached(artwork);
+        if (image == null) {
+            image = ArtRenderer.renderParallel(artwork);
+            store(artwork, image);
+        }
+        return image;
+    }
+
+    /**
+     * Look up the cached 800x600 render of an artwork, counting the hit or miss
+     *
+     * @param artwork The artwork
+     * @return The cached image, or null if it must be rendered
+     */
+    public BufferedImage getCached(ArtWork artwork) {
+        return get(keyFor(artwork));
+    }
+
+    /**
+     * Store the finished 800x600 render of an artwork
+     *
+     * @param artwork The artwork that was rendered
+     * @param image   Its image
+     */
+    public void store(ArtWork artwork, BufferedImage image) {
+        put(keyFor(artwork), image);
+    }
+
+    /**
+     * Build the cache key for an artwork rendered at the default size
+     */
+    private static String keyFor(ArtWork artwork) {
+        return artwork.getRenderKey() + "@" + ArtRenderer.WIDTH + "x" + ArtRenderer.HEIGHT;
+    }
+
+    /**
+     * Look up an image, counting the hit or miss
+     *
+     * @param key The cache key
+     * @return The cached image, or null
+     */
+    public synchronized BufferedImage get(String key) {
+        BufferedImage image = entries.get(key);
+        if (image != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+        return image;
+    }
+
+    /**
+     * Store an image, evicting older entries to stay within budget
+     *
+     * @param key   The cache key
+     * @param image The image to cache
+     */
+    public synchronized void put(String key, BufferedImage image) {
+        long weight = weightOf(image);
+        if (weight > budgetBytes) {
+            return; // Would evict everything and still not fit
+        }
+
+        BufferedImage previous = entries.put(key, image);
+        if (previous != null) {
+            usedBytes -= weightOf(previous);
+        }
+        usedBytes += weight;
+        evictToBudget();
+    }
+
+    /**
+     * Change the memory budget, evicting entries if it shrank
+     *
+     * @param budgetBytes New budget in bytes
+     */
+    public synchronized void setBudgetBytes(long budgetBytes) {
+        this.budgetBytes = Math.max(0, budgetBytes);
+        evictToBudget();
+    }
+
+    /**
+     * Remove every entry and reset the counters
+     */
+    public synchronized void clear() {
+        entries.clear();
+        usedBytes = 0;
+        hits = 0;
+        misses = 0;
+        evictions = 0;
+    }
+
+    /**
+     * Evict least-recently-used entries until the budget is met
+     */
+    private void evictToBudget() {
+        Iterator<Map.Entry<String, BufferedImage>> it = entries.entrySet().iterator();
+        while (usedBytes > budgetBytes && it.hasNext()) {
+            usedBytes -= weightOf(it.next().getValue());
+            it.remove();
+            evictions++;
+        }
+    }
+
+    /**
+     * Estimate the memory held by an image's pixels
+     *
+     * @param image The image
+     * @return Size in bytes
+     */
+    private static long weightOf(BufferedImage image) {
+        DataBuffer buffer = image.getRaster().getDataBuffer();
+        return (long) buffer.getSize() * buffer.getNumBanks() * DataBuffer.getDataTypeSize(buffer.getDataType()) / 8;
+    }
+
+    // Getters for tuning
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+
+    public synchronized long getBudgetBytes() {
+        return budgetBytes;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    @Override
+    public synchronized String toString() {
+        long lookups = hits + misses;
+        double hitRate = lookups == 0 ? 0.0 : 100.0 * hits / lookups;
+        return String.format("Render cache: %d entries, %.1f/%.1f MB, %d hits, %d misses (%.1f%% hit rate), %d evictions",
+                entries.size(), usedBytes / 1048576.0, budgetBytes / 1048576.0, hits, misses, hitRate, evictions);
+    }
+}
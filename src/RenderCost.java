@@ -0,0 +1,80 @@
+/**
+ * RenderCost class holding an estimate of what rendering an artwork will take,
+ * worked out from its parameters before any geometry is generated.
+ * Batch jobs compare it with a budget to reject or downgrade artworks that
+ * would take too long or need too much memory.
+ */
+public class RenderCost {
+    // Per-unit costs measured with "BatchRenderer ... calibrate" on the demo
+    // portfolio plus deep trees and fractals (generation and drawing together,
+    // for a short line; artworks scale it by their primitive weight)
+    private static final double JAVA2D_NANOS_PER_PRIMITIVE = 1000;
+    private static final double RASTER_NANOS_PER_PRIMITIVE = 350;
+    private static final double NANOS_PER_PIXEL = 6; // clearing, image setup and copying
+    private static final double NANOS_PER_SIMULATION_STEP = 6;
+
+    // Recorded primitive (kind, depth, colour, stroke and about four coordinates)
+    // plus slack for the recording's arrays doubling as they grow
+    private static final long BYTES_PER_PRIMITIVE = 64;
+
+    private long primitives;
+    private long memoryBytes;
+    private double millis;
+
+    /**
+     * Constructor working the estimate out from its inputs
+     *
+     * @param primitives      Estimated primitive count
+     * @param primitiveWeight Cost of one primitive relative to a short line
+     * @param simulationSteps Work done before drawing, such as cell updates
+     * @param width           Image width in pixels
+     * @param height          Image height in pixels
+     * @param directRaster    true for the int[] raster backend, false for Graphics2D
+     */
+    public RenderCost(long primitives, double primitiveWeight, long simulationSteps, int width, int height,
+            boolean directRaster) {
+        long pixels = (long) width * height;
+        this.primitives = primitives;
+        this.memoryBytes = saturatedAdd(saturatedMultiply(primitives, BYTES_PER_PRIMITIVE), pixels * 4);
+        double perPrimitive = directRaster ? RASTER_NANOS_PER_PRIMITIVE : JAVA2D_NANOS_PER_PRIMITIVE;
+        this.millis = (primitives * primitiveWeight * perPrimitive + simulationSteps * NANOS_PER_SIMULATION_STEP
+                + pixels * NANOS_PER_PIXEL) / 1e6;
+    }
+
+    /**
+     * Whether the estimate stays within a budget
+     *
+     * @param maxMillis Longest acceptable render time
+     * @param maxBytes  Most memory the render may hold at once
+     * @return true if neither limit is exceeded
+     */
+    public boolean fitsWithin(double maxMillis, long maxBytes) {
+        return millis <= maxMillis && memoryBytes <= maxBytes;
+    }
+
+    private static long saturatedMultiply(long a, long b) {
+        return a > Long.MAX_VALUE / b ? Long.MAX_VALUE : a * b;
+    }
+
+    private static long saturatedAdd(long a, long b) {
+        return a > Long.MAX_VALUE - b ? Long.MAX_VALUE : a + b;
+    }
+
+    // Getters
+    public long getPrimitives() {
+        return primitives;
+    }
+
+    public long getMemoryBytes() {
+        return memoryBytes;
+    }
+
+    public double getMillis() {
+        return millis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d primitives, %.1f MB, %.0f ms", primitives, memoryBytes / 1048576.0, millis);
+    }
+}
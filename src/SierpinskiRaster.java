@@ -0,0 +1,159 @@
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * SierpinskiRaster class that computes a filled Sierpinski triangle pixel by
+ * pixel instead of triangle by triangle. A point's place in the triangle,
+ * measured along two sides in units of the smallest sub-triangle, gives two
+ * whole numbers i and j. The point is filled when i and j share no set bit
+ * (the cells where Pascal's triangle is odd) and it lies in the upright half
+ * of its cell. Every pixel costs the same however many subdivisions there are,
+ * and rows are computed on all cores. Pixels are shaded by how many of a
+ * small grid of points inside them are filled, so holes narrower than a pixel
+ * blend in smoothly instead of breaking up into dots.
+ */
+public class SierpinskiRaster {
+    // Rows computed by one task before it stops splitting
+    private static final int ROWS_PER_TASK = 16;
+
+    // Points tested along each side of a pixel
+    private static final int SAMPLES_PER_SIDE = 3;
+
+    private double x1;
+    private double y1;
+    private double sideX1; // first side, from the first corner to the second
+    private double sideY1;
+    private double sideX2; // second side, from the first corner to the third
+    private double sideY2;
+    private double cellsPerArea; // subdivision cells per side, divided by the determinant
+    private long cells;
+    private int[] shades; // colour for each number of filled points
+
+    /**
+     * Constructor for SierpinskiRaster
+     *
+     * @param x1           First corner x
+     * @param y1           First corner y
+     * @param x2           Second corner x
+     * @param y2           Second corner y
+     * @param x3           Third corner x
+     * @param y3           Third corner y
+     * @param subdivisions Number of subdivisions (at most 52, the precision of a double)
+     * @param fillColor    Colour of the triangle, packed as 0xRRGGBB
+     * @param background   Colour of the holes and the outside, packed as 0xRRGGBB
+     */
+    public SierpinskiRaster(double x1, double y1, double x2, double y2, double x3, double y3, int subdivisions,
+            int fillColor, int background) {
+        this.x1 = x1;
+        this.y1 = y1;
+        this.sideX1 = x2 - x1;
+        this.sideY1 = y2 - y1;
+        this.sideX2 = x3 - x1;
+        this.sideY2 = y3 - y1;
+        this.cells = 1L << Math.max(0, Math.min(52, subdivisions));
+        this.cellsPerArea = cells / (sideX1 * sideY2 - sideY1 * sideX2);
+
+        int samples = SAMPLES_PER_SIDE * SAMPLES_PER_SIDE;
+        this.shades = new int[samples + 1];
+        for (int filled = 0; filled <= samples; filled++) {
+            int shade = 0xFF000000;
+            for (int shift = 0; shift <= 16; shift += 8) {
+                int from = (background >> shift) & 0xFF;
+                int to = (fillColor >> shift) & 0xFF;
+                shade |= (from + ((to - from) * filled + samples / 2) / samples) << shift;
+            }
+            shades[filled] = shade;
+        }
+    }
+
+    /**
+     * Compute a grid of pixels on all cores
+     *
+     * @param minX    x at the centre of the first column
+     * @param minY    y at the centre of the first row
+     * @param step    Distance between neighbouring pixel centres
+     * @param columns Pixels per row
+     * @param rows    Number of rows
+     * @return Colours packed as 0xAARRGGBB, row by row
+     */
+    public int[] render(double minX, double minY, double step, int columns, int rows) {
+        int[] pixels = new int[columns * rows];
+        ArtRenderer.getComputePool().invoke(new RowTask(pixels, minX, minY, step, columns, 0, rows));
+        return pixels;
+    }
+
+    /**
+     * Whether a point is in the triangle and not in one of its holes
+     *
+     * @param x Point x
+     * @param y Point y
+     * @return true if the point is filled
+     */
+    public boolean isFilled(double x, double y) {
+        // Position along each side, in cells
+        double dx = x - x1;
+        double dy = y - y1;
+        double u = (dx * sideY2 - dy * sideX2) * cellsPerArea;
+        double v = (dy * sideX1 - dx * sideY1) * cellsPerArea;
+        if (!(u >= 0 && v >= 0 && u < cells && v < cells)) {
+            return false;
+        }
+        long i = (long) u;
+        long j = (long) v;
+        // C(i + j, i) is odd exactly when i and j share no bit; the cell's other
+        // half is an upside-down triangle, which is always a hole
+        return (i & j) == 0 && (u - i) + (v - j) < 1;
+    }
+
+    /**
+     * A range of rows, split in half until it is small enough to compute
+     */
+    private class RowTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final int[] pixels;
+        private final double minX;
+        private final double minY;
+        private final double step;
+        private final int columns;
+        private final int firstRow;
+        private final int endRow;
+
+        RowTask(int[] pixels, double minX, double minY, double step, int columns, int firstRow, int endRow) {
+            this.pixels = pixels;
+            this.minX = minX;
+            this.minY = minY;
+            this.step = step;
+            this.columns = columns;
+            this.firstRow = firstRow;
+            this.endRow = endRow;
+        }
+
+        @Override
+        protected void compute() {
+            if (endRow - firstRow <= ROWS_PER_TASK) {
+                // Test points spread evenly over each pixel, around its centre
+                double spacing = step / SAMPLES_PER_SIDE;
+                double offset = (SAMPLES_PER_SIDE - 1) * spacing / 2;
+                for (int row = firstRow; row < endRow; row++) {
+                    double y = minY + row * step - offset;
+                    int index = row * columns;
+                    for (int column = 0; column < columns; column++) {
+                        double x = minX + column * step - offset;
+                        int filled = 0;
+                        for (int sy = 0; sy < SAMPLES_PER_SIDE; sy++) {
+                            for (int sx = 0; sx < SAMPLES_PER_SIDE; sx++) {
+                                if (isFilled(x + sx * spacing, y + sy * spacing)) {
+                                    filled++;
+                                }
+                            }
+                        }
+                        pixels[index + column] = shades[filled];
+                    }
+                }
+                return;
+            }
+            int middle = (firstRow + endRow) >>> 1;
+            invokeAll(new RowTask(pixels, minX, minY, step, columns, firstRow, middle),
+                    new RowTask(pixels, minX, minY, step, columns, middle, endRow));
+        }
+    }
+}
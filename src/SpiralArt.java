@@ -13,6 +13,10 @@ public class SpiralArt extends ArtWork {
     private String spiralType; // "archimedean", "logarithmic", "golden"
     private boolean bidirectional;
 
+    // Centre of every spiral on the canvas
+    private static final int CENTER_X = CANVAS_WIDTH / 2;
+    private static final int CENTER_Y = CANVAS_HEIGHT / 2;
+
     /**
      * Basic constructor
      * 
@@ -89,27 +93,14 @@ public class SpiralArt extends ArtWork {
         System.out.println("Bidirectional: " + bidirectional);
         System.out.println("Generating spiral pattern...\n");
 
-        // Clear previous description
-        description = "";
-
-        // Start spiral generation from center
-        int centerX = 400;
-        int centerY = 300;
-
-        description += "=== Spiral Pattern ===\n";
-        description += "Center: (" + centerX + ", " + centerY + ")\n";
-        description += "Type: " + spiralType + " spiral\n\n";
-
-        // Generate the spiral
-        if (bidirectional) {
-            // Generate outward spiral
-            generateSpiral(centerX, centerY, 5, 0, segments / 2, 1, "Outward");
-            // Generate inward spiral
-            generateSpiral(centerX, centerY, initialRadius, Math.PI, segments / 2, -1, "Inward");
-        } else {
-            // Generate single spiral
-            generateSpiral(centerX, centerY, 5, 0, segments, 1, "Main");
-        }
+        // Summarize the same segments that will be drawn
+        DescriptionSink text = createTraceSink(new StringBuilder(), DescriptionSink.SUMMARY_LINES);
+        text.addLine("=== Spiral Pattern ===");
+        text.addLine("Center: (" + CENTER_X + ", " + CENTER_Y + ")");
+        text.addLine("Type: " + spiralType + " spiral\n");
+        getGeometry().replay(text);
+        text.finish();
+        description = text.toString();
 
         System.out.println("\nSpiral generation complete!");
         System.out.println("Total segments drawn: " + segments);
@@ -125,61 +116,44 @@ public class SpiralArt extends ArtWork {
     }
 
     @Override
-    public String getArtType() {
-        return "Spiral Art";
-    }
-
-    @Override
-    public String getDescription() {
-        if (description.isEmpty()) {
-            return "A " + spiralType + " spiral with " + segments + " segments";
+    public long estimatePrimitives(double pixelScale, double detailPixels) {
+        // Plus one for the centre dot
+        if (bidirectional) {
+            return countSpiralPrimitives(5, segments / 2, 1) + countSpiralPrimitives(initialRadius, segments / 2, -1)
+                    + 1;
         }
-        return description;
+        return countSpiralPrimitives(5, segments, 1) + 1;
     }
 
     /**
-     * Recursive method to generate spiral
-     * 
-     * @param centerX           Center x coordinate
-     * @param centerY           Center y coordinate
-     * @param radius            Current radius
-     * @param angle             Current angle
-     * @param remainingSegments Segments left to draw
+     * Follow the radius the way drawSpiral does, without drawing, to count
+     * its segments and stars before it leaves the canvas or reaches the centre
+     *
+     * @param radius            Starting radius
+     * @param remainingSegments Segments asked for
      * @param direction         1 for outward, -1 for inward
-     * @param spiralName        Name of the spiral (for description)
+     * @return Number of primitives drawSpiral would emit
      */
-    private void generateSpiral(int centerX, int centerY, double radius, double angle,
-            int remainingSegments, int direction, String spiralName) {
-        // Base case
-        if (remainingSegments <= 0 || radius <= 1 || radius > 300) {
-            description += String.format("  %s spiral ended at radius %.1f\n", spiralName, radius);
-            return;
-        }
-
-        // Calculate current point
-        int x = centerX + (int) (radius * Math.cos(angle));
-        int y = centerY + (int) (radius * Math.sin(angle));
-
-        // Calculate next point for line segment
-        double nextRadius = calculateNextRadius(radius, angle, direction);
-        double nextAngle = angle + angleIncrement;
-        int nextX = centerX + (int) (nextRadius * Math.cos(nextAngle));
-        int nextY = centerY + (int) (nextRadius * Math.sin(nextAngle));
-
-        // Add segment to description (only log every 10th segment to avoid clutter)
-        if (remainingSegments % 10 == 0) {
-            description += String.format("  Segment %d: (%d,%d) to (%d,%d) - Radius: %.1f\n",
-                    segments - remainingSegments + 1, x, y, nextX, nextY, radius);
+    private long countSpiralPrimitives(double radius, int remainingSegments, int direction) {
+        long count = 0;
+        for (; remainingSegments > 0 && radius > 1 && radius <= 300; remainingSegments--) {
+            radius = calculateNextRadius(radius, 0, direction);
+            count += remainingSegments % 20 == 0 && remainingSegments > 20 ? 5 : 1; // a star is 4 lines
         }
+        return count;
+    }
 
-        // Recursive call
-        generateSpiral(centerX, centerY, nextRadius, nextAngle,
-                remainingSegments - 1, direction, spiralName);
+    @Override
+    public String getArtType() {
+        return "Spiral Art";
+    }
 
-        // Add decorative elements at certain intervals
-        if (remainingSegments % 20 == 0) {
-            generateDecorativeElement(nextX, nextY, nextRadius / 10, remainingSegments / 20);
+    @Override
+    public String getDescription() {
+        if (description.isEmpty()) {
+            return "A " + spiralType + " spiral with " + segments + " segments";
         }
+        return description;
     }
 
     /**
@@ -223,30 +197,6 @@ public class SpiralArt extends ArtWork {
         return 1 + calculateSpiralComplexity(segments / 2) + calculateSpiralComplexity(segments / 2);
     }
 
-    /**
-     * Generate decorative elements along the spiral recursively
-     * 
-     * @param x     Center x of decoration
-     * @param y     Center y of decoration
-     * @param size  Size of decoration
-     * @param depth Recursion depth for decoration
-     */
-    private void generateDecorativeElement(int x, int y, double size, int depth) {
-        if (depth <= 0 || size < 2) {
-            return; // Base case
-        }
-
-        // Add small spiral or star pattern
-        description += String.format("    * Decoration at (%d,%d) - Size: %.1f\n", x, y, size);
-
-        // Recursive decorations in cardinal directions
-        int offset = (int) (size * 2);
-        generateDecorativeElement(x + offset, y, size * 0.5, depth - 1);
-        generateDecorativeElement(x - offset, y, size * 0.5, depth - 1);
-        generateDecorativeElement(x, y + offset, size * 0.5, depth - 1);
-        generateDecorativeElement(x, y - offset, size * 0.5, depth - 1);
-    }
-
     /**
      * Generate a Fibonacci spiral (special case of golden spiral)
      */
@@ -270,6 +220,7 @@ public class SpiralArt extends ArtWork {
         }
         description += "...\n\n";
 
+        releaseGeometry();
         display();
     }
 
@@ -281,20 +232,22 @@ public class SpiralArt extends ArtWork {
     public void generateGalaxySpiral(int arms) {
         System.out.println("\nGenerating Galaxy Spiral with " + arms + " arms...");
 
-        int centerX = 400;
-        int centerY = 300;
-
-        description = "=== Galaxy Spiral Pattern ===\n";
-        description += "Arms: " + arms + "\n\n";
+        DescriptionSink text = new DescriptionSink("Segment", "Shape", "Star", 0);
+        text.addLine("=== Galaxy Spiral Pattern ===");
+        text.addLine("Arms: " + arms + "\n");
 
         // Generate multiple spiral arms
+        int color = text.defineColor(Color.WHITE);
+        int stroke = text.defineStroke(2.0f);
         for (int i = 0; i < arms; i++) {
             double startAngle = (2 * Math.PI * i) / arms;
-            description += "Arm " + (i + 1) + " starting at angle " +
-                    String.format("%.1f", Math.toDegrees(startAngle)) + " degrees\n";
+            text.addLine("Arm " + (i + 1) + " starting at angle " +
+                    String.format("%.1f", Math.toDegrees(startAngle)) + " degrees");
 
-            generateSpiral(centerX, centerY, 10, startAngle, segments / arms, 1, "Arm" + (i + 1));
+            drawSpiral(text, color, color, stroke, 10, startAngle, segments / arms, 1);
         }
+        text.finish();
+        description = text.toString();
     }
 
     // Getters and setters
@@ -311,93 +264,101 @@ public class SpiralArt extends ArtWork {
     }
 
     @Override
-    public void drawGraphics(Graphics2D g2d) {
-        // Set rendering hints for smooth curves
-        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-        g2d.setStroke(new BasicStroke(2.0f));
+    protected String getRenderParameters() {
+        return "type=" + spiralType + ";segments=" + segments + ";radius=" + initialRadius
+                + ";decay=" + radiusDecay + ";angle=" + angleIncrement + ";bidirectional=" + bidirectional;
+    }
 
-        // Center of spiral
-        int centerX = 400;
-        int centerY = 300;
+    @Override
+    protected DescriptionSink createTraceSink(Appendable out, int maxLines) {
+        return new DescriptionSink("Segment", "Shape", "Center", 0, out, maxLines);
+    }
+
+    @Override
+    public void generateGeometry(GeometrySink sink) {
+        int stroke = sink.defineStroke(2.0f);
 
         // Set color based on spiral type
+        Color spiralColor;
         switch (spiralType) {
             case "golden":
-                g2d.setColor(new Color(255, 215, 0)); // Gold
+                spiralColor = new Color(255, 215, 0); // Gold
                 break;
             case "logarithmic":
-                g2d.setColor(new Color(138, 43, 226)); // Blue violet
+                spiralColor = new Color(138, 43, 226); // Blue violet
                 break;
             default:
-                g2d.setColor(new Color(0, 100, 0)); // Dark green
+                spiralColor = new Color(0, 100, 0); // Dark green
         }
+        int color = sink.defineColor(spiralColor);
+        int starColor = sink.defineColor(spiralColor.brighter());
 
         // Draw the spiral
         if (bidirectional) {
             // Draw outward spiral
-            drawSpiral(g2d, centerX, centerY, 5, 0, segments / 2, 1);
+            drawSpiral(sink, color, starColor, stroke, 5, 0, segments / 2, 1);
             // Draw inward spiral in different color
-            g2d.setColor(new Color(220, 20, 60)); // Crimson
-            drawSpiral(g2d, centerX, centerY, initialRadius, Math.PI, segments / 2, -1);
+            Color crimson = new Color(220, 20, 60);
+            drawSpiral(sink, sink.defineColor(crimson), sink.defineColor(crimson.brighter()), stroke,
+                    initialRadius, Math.PI, segments / 2, -1);
         } else {
             // Draw single spiral
-            drawSpiral(g2d, centerX, centerY, 5, 0, segments, 1);
+            drawSpiral(sink, color, starColor, stroke, 5, 0, segments, 1);
         }
 
         // Draw center point
-        g2d.setColor(Color.BLACK);
-        g2d.fillOval(centerX - 3, centerY - 3, 6, 6);
+        sink.oval(CENTER_X - 3, CENTER_Y - 3, 6, 6, 0, sink.defineColor(Color.BLACK), stroke, true);
     }
 
     /**
-     * Draw spiral recursively with graphics
+     * Generate spiral segments recursively
+     *
+     * @param sink              Sink receiving the segments
+     * @param color             Colour id of the spiral
+     * @param starColor         Colour id of the decorative stars
+     * @param stroke            Stroke id
+     * @param radius            Current radius
+     * @param angle             Current angle
+     * @param remainingSegments Segments left to draw
+     * @param direction         1 for outward, -1 for inward
      */
-    private void drawSpiral(Graphics2D g2d, int centerX, int centerY, double radius,
+    private void drawSpiral(GeometrySink sink, int color, int starColor, int stroke, double radius,
             double angle, int remainingSegments, int direction) {
         if (remainingSegments <= 0 || radius <= 1 || radius > 300) {
             return;
         }
 
         // Calculate current and next points
-        int x1 = centerX + (int) (radius * Math.cos(angle));
-        int y1 = centerY + (int) (radius * Math.sin(angle));
+        double x1 = CENTER_X + radius * Math.cos(angle);
+        double y1 = CENTER_Y + radius * Math.sin(angle);
 
         double nextRadius = calculateNextRadius(radius, angle, direction);
         double nextAngle = angle + angleIncrement;
-        int x2 = centerX + (int) (nextRadius * Math.cos(nextAngle));
-        int y2 = centerY + (int) (nextRadius * Math.sin(nextAngle));
+        double x2 = CENTER_X + nextRadius * Math.cos(nextAngle);
+        double y2 = CENTER_Y + nextRadius * Math.sin(nextAngle);
 
         // Draw line segment
-        g2d.drawLine(x1, y1, x2, y2);
+        sink.segment(x1, y1, x2, y2, 0, color, stroke);
 
         // Add decorative elements at intervals
         if (remainingSegments % 20 == 0 && remainingSegments > 20) {
-            drawDecorativeElement(g2d, x2, y2, nextRadius / 15);
+            drawDecorativeElement(sink, starColor, stroke, x2, y2, nextRadius / 15);
         }
 
         // Recursive call
-        drawSpiral(g2d, centerX, centerY, nextRadius, nextAngle,
-                remainingSegments - 1, direction);
+        drawSpiral(sink, color, starColor, stroke, nextRadius, nextAngle, remainingSegments - 1, direction);
     }
 
     /**
-     * Draw decorative elements along the spiral
+     * Generate a small star along the spiral
      */
-    private void drawDecorativeElement(Graphics2D g2d, int x, int y, double size) {
-        // Save current color
-        Color currentColor = g2d.getColor();
-
-        // Draw small star pattern
-        g2d.setColor(currentColor.brighter());
-        int intSize = (int) size;
+    private void drawDecorativeElement(GeometrySink sink, int color, int stroke, double x, double y, double size) {
+        double half = size / 2;
 
         // Draw star
-        g2d.drawLine(x - intSize, y, x + intSize, y);
-        g2d.drawLine(x, y - intSize, x, y + intSize);
-        g2d.drawLine(x - intSize / 2, y - intSize / 2, x + intSize / 2, y + intSize / 2);
-        g2d.drawLine(x - intSize / 2, y + intSize / 2, x + intSize / 2, y - intSize / 2);
-
-        // Restore color
-        g2d.setColor(currentColor);
+        sink.segment(x - size, y, x + size, y, 1, color, stroke);
+        sink.segment(x, y - size, x, y + size, 1, color, stroke);
+        sink.segment(x - half, y - half, x + half, y + half, 1, color, stroke);
+        sink.segment(x - half, y + half, x + half, y - half, 1, color, stroke);
     }
 }
@@ -0,0 +1,292 @@
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.Base64;
+import javax.imageio.ImageIO;
+
+/**
+ * SvgSink class that writes primitives as SVG elements straight to a Writer
+ * as they are generated, so no DOM, string or raster of the whole picture is
+ * ever held in memory.
+ * Connected lines of the same colour and width are joined into one path, and
+ * consecutive collinear moves along it are merged into a single command.
+ */
+public class SvgSink extends GeometrySink {
+    // Points closer than this (in canvas units) count as the same point
+    private static final double EPSILON = 1e-6;
+
+    private Writer out;
+    private StringBuilder number = new StringBuilder(16);
+
+    // The open path: its style, the last point written, and one pending point
+    // that may still be extended by a collinear move
+    private boolean pathOpen;
+    private int pathColor;
+    private int pathStroke;
+    private double lastX;
+    private double lastY;
+    private double pendingX;
+    private double pendingY;
+    private int elements;
+    private long mergedMoves;
+
+    /**
+     * Constructor that writes the SVG header
+     *
+     * @param out    Writer receiving the document (buffer it for speed)
+     * @param width  Document width in pixels
+     * @param height Document height in pixels
+     */
+    public SvgSink(Writer out, int width, int height) throws IOException {
+        this.out = out;
+        out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        out.write("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"" + width + "\" height=\"" + height
+                + "\" viewBox=\"0 0 " + ArtWork.CANVAS_WIDTH + " " + ArtWork.CANVAS_HEIGHT + "\">\n");
+        out.write("<rect width=\"100%\" height=\"100%\" fill=\"white\"/>\n");
+        out.write("<g fill=\"none\" stroke-linecap=\"square\" stroke-linejoin=\"miter\">\n");
+    }
+
+    @Override
+    public void segment(double x1, double y1, double x2, double y2, int depth, int colorId, int strokeId) {
+        try {
+            boolean continues = pathOpen && pathColor == colorId && pathStroke == strokeId
+                    && Math.abs(x1 - pendingX) < EPSILON && Math.abs(y1 - pendingY) < EPSILON;
+            if (!continues) {
+                closePath();
+                out.write("<path");
+                writeStroke(colorId, strokeId);
+                out.write(" d=\"M");
+                writePoint(x1, y1);
+                pathOpen = true;
+                pathColor = colorId;
+                pathStroke = strokeId;
+                lastX = x1;
+                lastY = y1;
+            } else if (isCollinear(lastX, lastY, pendingX, pendingY, x2, y2)) {
+                // Same direction as the pending move: just move its end further
+                pendingX = x2;
+                pendingY = y2;
+                mergedMoves++;
+                return;
+            } else {
+                out.write(" L");
+                writePoint(pendingX, pendingY);
+                lastX = pendingX;
+                lastY = pendingY;
+            }
+            pendingX = x2;
+            pendingY = y2;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void polygon(double[] xs, double[] ys, int count, int depth, int colorId, int strokeId,
+            boolean filled) {
+        try {
+            closePath();
+            if (count == 4 && isAxisAlignedRect(xs, ys)) {
+                // Grid cells and other rectangles get the shorter rect element
+                out.write("<rect x=\"");
+                writeNumber(Math.min(xs[0], xs[2]));
+                out.write("\" y=\"");
+                writeNumber(Math.min(ys[0], ys[2]));
+                out.write("\" width=\"");
+                writeNumber(Math.abs(xs[2] - xs[0]));
+                out.write("\" height=\"");
+                writeNumber(Math.abs(ys[2] - ys[0]));
+                out.write('"');
+            } else {
+                out.write("<polygon points=\"");
+                for (int i = 0; i < count; i++) {
+                    if (i > 0) {
+                        out.write(' ');
+                    }
+                    writePoint(xs[i], ys[i]);
+                }
+                out.write('"');
+            }
+            writePaint(colorId, strokeId, filled);
+            out.write("/>\n");
+            elements++;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void oval(double x, double y, double width, double height, int depth, int colorId, int strokeId,
+            boolean filled) {
+        try {
+            closePath();
+            out.write("<ellipse cx=\"");
+            writeNumber(x + width / 2);
+            out.write("\" cy=\"");
+            writeNumber(y + height / 2);
+            out.write("\" rx=\"");
+            writeNumber(width / 2);
+            out.write("\" ry=\"");
+            writeNumber(height / 2);
+            out.write('"');
+            writePaint(colorId, strokeId, filled);
+            out.write("/>\n");
+            elements++;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void image(int[] argb, int columns, int rows, double x, double y, double width, double height,
+            int depth) {
+        try {
+            closePath();
+            BufferedImage image = new BufferedImage(columns, rows, BufferedImage.TYPE_INT_RGB);
+            System.arraycopy(argb, 0, ((DataBufferInt) image.getRaster().getDataBuffer()).getData(), 0,
+                    columns * rows);
+            ByteArrayOutputStream png = new ByteArrayOutputStream();
+            ImageIO.write(image, "png", png);
+
+            // Embedded as a PNG data URI so the SVG stays a single file
+            out.write("<image x=\"");
+            writeNumber(x);
+            out.write("\" y=\"");
+            writeNumber(y);
+            out.write("\" width=\"");
+            writeNumber(width);
+            out.write("\" height=\"");
+            writeNumber(height);
+            out.write("\" preserveAspectRatio=\"none\" href=\"data:image/png;base64,");
+            out.write(Base64.getEncoder().encodeToString(png.toByteArray()));
+            out.write("\"/>\n");
+            elements++;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Finish the document. The Writer itself is left open.
+     */
+    public void finish() throws IOException {
+        closePath();
+        out.write("</g>\n</svg>\n");
+        out.flush();
+    }
+
+    /**
+     * Write any open path, including its pending point
+     */
+    private void closePath() throws IOException {
+        if (pathOpen) {
+            out.write(" L");
+            writePoint(pendingX, pendingY);
+            out.write("\"/>\n");
+            pathOpen = false;
+            elements++;
+        }
+    }
+
+    /**
+     * Whether c lies on the ray from a through b, so a-b-c can be one move
+     */
+    private static boolean isCollinear(double ax, double ay, double bx, double by, double cx, double cy) {
+        double abx = bx - ax;
+        double aby = by - ay;
+        double bcx = cx - bx;
+        double bcy = cy - by;
+        double cross = abx * bcy - aby * bcx;
+        double dot = abx * bcx + aby * bcy;
+        return dot > 0 && Math.abs(cross) <= EPSILON * Math.hypot(abx, aby) * Math.hypot(bcx, bcy);
+    }
+
+    private static boolean isAxisAlignedRect(double[] xs, double[] ys) {
+        return (xs[0] == xs[3] && xs[1] == xs[2] && ys[0] == ys[1] && ys[2] == ys[3])
+                || (xs[0] == xs[1] && xs[2] == xs[3] && ys[0] == ys[3] && ys[1] == ys[2]);
+    }
+
+    /**
+     * Write stroke colour and width attributes for an outline
+     */
+    private void writeStroke(int colorId, int strokeId) throws IOException {
+        int argb = getColor(colorId);
+        out.write(" stroke=\"");
+        writeColor(argb);
+        out.write("\" stroke-width=\"");
+        writeNumber(getStroke(strokeId));
+        out.write('"');
+        writeOpacity("stroke-opacity", argb);
+    }
+
+    /**
+     * Write fill or stroke attributes for a shape
+     */
+    private void writePaint(int colorId, int strokeId, boolean filled) throws IOException {
+        if (!filled) {
+            writeStroke(colorId, strokeId);
+            return;
+        }
+        int argb = getColor(colorId);
+        out.write(" fill=\"");
+        writeColor(argb);
+        out.write('"');
+        writeOpacity("fill-opacity", argb);
+    }
+
+    private void writeOpacity(String attribute, int argb) throws IOException {
+        int alpha = argb >>> 24;
+        if (alpha < 255) {
+            out.write(' ');
+            out.write(attribute);
+            out.write("=\"");
+            writeNumber(alpha / 255.0);
+            out.write('"');
+        }
+    }
+
+    private void writeColor(int argb) throws IOException {
+        String hex = Integer.toHexString(0x1000000 | (argb & 0xFFFFFF));
+        out.write('#');
+        out.write(hex, 1, 6);
+    }
+
+    private void writePoint(double x, double y) throws IOException {
+        writeNumber(x);
+        out.write(',');
+        writeNumber(y);
+    }
+
+    /**
+     * Write a coordinate rounded to two decimals, without trailing zeros
+     */
+    private void writeNumber(double value) throws IOException {
+        long hundredths = Math.round(value * 100);
+        number.setLength(0);
+        if (hundredths < 0) {
+            number.append('-');
+            hundredths = -hundredths;
+        }
+        number.append(hundredths / 100);
+        long fraction = hundredths % 100;
+        if (fraction != 0) {
+            number.append('.').append(fraction / 10);
+            if (fraction % 10 != 0) {
+                number.append(fraction % 10);
+            }
+        }
+        out.append(number);
+    }
+
+    // Getters
+    public int getElementCount() {
+        return elements;
+    }
+
+    public long getMergedMoves() {
+        return mergedMoves;
+    }
+}
@@ -0,0 +1,80 @@
+import java.util.Arrays;
+
+/**
+ * TransformSink class that places a copy of shared geometry with an
+ * InstanceTransform while passing it on to another sink. Colour and stroke
+ * ids are translated once per copy, when the geometry defines them.
+ */
+public class TransformSink extends GeometrySink {
+    private GeometrySink target;
+    private InstanceTransform transform;
+    private int[] colorMap = new int[16];
+    private int[] strokeMap = new int[4];
+
+    // Scratch arrays for moved polygons
+    private double[] xs = new double[8];
+    private double[] ys = new double[8];
+
+    /**
+     * Constructor for TransformSink
+     *
+     * @param target    The sink receiving the placed primitives
+     * @param transform How to place them
+     */
+    public TransformSink(GeometrySink target, InstanceTransform transform) {
+        this.target = target;
+        this.transform = transform;
+    }
+
+    @Override
+    protected void colorDefined(int id, int argb) {
+        if (id >= colorMap.length) {
+            colorMap = Arrays.copyOf(colorMap, id * 2);
+        }
+        colorMap[id] = target.defineColor(transform.mapColor(argb));
+    }
+
+    @Override
+    protected void strokeDefined(int id, float width) {
+        if (id >= strokeMap.length) {
+            strokeMap = Arrays.copyOf(strokeMap, id * 2);
+        }
+        strokeMap[id] = target.defineStroke(transform.mapStroke(width));
+    }
+
+    @Override
+    public void segment(double x1, double y1, double x2, double y2, int depth, int colorId, int strokeId) {
+        target.segment(transform.mapX(x1), transform.mapY(y1), transform.mapX(x2), transform.mapY(y2), depth,
+                colorMap[colorId], strokeMap[strokeId]);
+    }
+
+    @Override
+    public void polygon(double[] pxs, double[] pys, int count, int depth, int colorId, int strokeId,
+            boolean filled) {
+        if (count > xs.length) {
+            xs = new double[count];
+            ys = new double[count];
+        }
+        for (int i = 0; i < count; i++) {
+            xs[i] = transform.mapX(pxs[i]);
+            ys[i] = transform.mapY(pys[i]);
+        }
+        target.polygon(xs, ys, count, depth, colorMap[colorId], strokeMap[strokeId], filled);
+    }
+
+    @Override
+    public void oval(double x, double y, double width, double height, int depth, int colorId, int strokeId,
+            boolean filled) {
+        double scale = transform.getScale();
+        target.oval(transform.mapX(x), transform.mapY(y), width * scale, height * scale, depth,
+                colorMap[colorId], strokeMap[strokeId], filled);
+    }
+
+    @Override
+    public void image(int[] argb, int columns, int rows, double x, double y, double width, double height,
+            int depth) {
+        double scale = transform.getScale();
+        target.image(argb, columns, rows, transform.mapX(x), transform.mapY(y), width * scale, height * scale,
+                depth);
+    }
+}
@@ -0,0 +1,334 @@
+import java.util.Arrays;
+
+/**
+ * WindAnimation class that makes a recorded tree sway in the wind.
+ * The tree is generated once; its branches are read back from the recording
+ * into flat arrays holding each branch's parent, length, angle relative to
+ * its parent, colour and stroke. A frame only works out every branch's new
+ * angle and end point in one pass over those arrays (parents come before
+ * their children) and draws the result, so no recursion or random numbers
+ * are needed per frame. Branches bend more the thinner they are, and each
+ * bend adds to the ones below it, so the tips move most.
+ */
+public class WindAnimation {
+    // Matching end and start points closer than this are taken as joined
+    private static final double JOIN_TOLERANCE = 0.5;
+
+    // Largest bend of one joint, in radians, for the trunk and for the tips
+    private static final double TRUNK_FLEX = 0.01;
+    private static final double TIP_FLEX = 0.06;
+
+    // Sway speeds in radians per second: slow gusts, faster flutter at the tips
+    private static final double GUST_SPEED = 0.9;
+    private static final double TRUNK_FLUTTER_SPEED = 1.6;
+    private static final double TIP_FLUTTER_SPEED = 4.0;
+
+    // Seed of each branch's flutter phase, so the animation is the same every run
+    private static final long PHASE_SEED = 0x57494E44L;
+
+    private GeometryRecording source;
+    private double strength = 1;
+
+    // Branches, parents first
+    private int branchCount;
+    private int[] parent = new int[64]; // -1 for the trunk
+    private double[] startX = new double[64]; // used for the trunk only
+    private double[] startY = new double[64];
+    private double[] length = new double[64];
+    private double[] relativeAngle = new double[64]; // angle to the parent (absolute for the trunk)
+    private double[] restAngle = new double[64];
+    private int[] depth = new int[64];
+    private int[] colorId = new int[64];
+    private int[] strokeId = new int[64];
+    private double[] flex = new double[64];
+    private double[] speed = new double[64];
+    private double[] phase = new double[64];
+
+    // Leaves, each carried by the end of one branch
+    private int leafCount;
+    private int[] leafBranch = new int[64]; // -1 for a leaf that stays still
+    private double[] leafX = new double[64]; // top-left corner relative to the branch end
+    private double[] leafY = new double[64];
+    private double[] leafWidth = new double[64];
+    private double[] leafHeight = new double[64];
+    private int[] leafColorId = new int[64];
+    private int[] leafStrokeId = new int[64];
+    private boolean[] leafFilled = new boolean[64];
+
+    // Drawing order: a branch index, or ~index for a leaf
+    private int orderCount;
+    private int[] order = new int[128];
+
+    // Positions worked out for the current frame (the recorded ones until then)
+    private double[] angle;
+    private double[] endX = new double[64];
+    private double[] endY = new double[64];
+
+    // The recording's colour and stroke ids as numbered by the sink drawn last
+    private GeometrySink mappedSink;
+    private int[] sinkColors;
+    private int[] sinkStrokes;
+
+    /**
+     * Constructor for WindAnimation
+     *
+     * @param tree Recorded tree: segments for the branches, ovals for the leaves
+     */
+    public WindAnimation(GeometryRecording tree) {
+        this.source = tree;
+        tree.replay(new BranchCollector());
+
+        // Until the first update the tree stands still, as it was recorded
+        angle = Arrays.copyOf(restAngle, branchCount);
+        endX = Arrays.copyOf(endX, branchCount);
+        endY = Arrays.copyOf(endY, branchCount);
+
+        // How bendy and how fast each branch is depends on how far it is from the trunk
+        int trunkDepth = 1;
+        for (int i = 0; i < branchCount; i++) {
+            trunkDepth = Math.max(trunkDepth, depth[i]);
+        }
+        for (int i = 0; i < branchCount; i++) {
+            double thinness = trunkDepth > 1 ? (double) (trunkDepth - depth[i]) / (trunkDepth - 1) : 1;
+            flex[i] = TRUNK_FLEX + (TIP_FLEX - TRUNK_FLEX) * thinness;
+            speed[i] = TRUNK_FLUTTER_SPEED + (TIP_FLUTTER_SPEED - TRUNK_FLUTTER_SPEED) * thinness;
+            phase[i] = PathRandom.unit(PHASE_SEED, i) * 2 * Math.PI;
+        }
+    }
+
+    /**
+     * Move every branch to where the wind has pushed it at a given time
+     *
+     * @param time Seconds since the animation started
+     */
+    public void update(double time) {
+        double gust = 0.6 + 0.4 * Math.sin(time * GUST_SPEED);
+        for (int i = 0; i < branchCount; i++) {
+            // Bend with the wind, plus a flutter of the branch's own
+            double bend = flex[i] * strength * (0.5 * gust + 0.5 * Math.sin(time * speed[i] + phase[i]));
+            int p = parent[i];
+            double x;
+            double y;
+            if (p < 0) {
+                angle[i] = relativeAngle[i] + bend;
+                x = startX[i];
+                y = startY[i];
+            } else {
+                angle[i] = angle[p] + relativeAngle[i] + bend;
+                x = endX[p];
+                y = endY[p];
+            }
+            endX[i] = x + length[i] * Math.cos(angle[i]);
+            endY[i] = y + length[i] * Math.sin(angle[i]);
+        }
+    }
+
+    /**
+     * Draw the branches and leaves where the last update put them
+     *
+     * @param sink Sink receiving the frame
+     */
+    public void draw(GeometrySink sink) {
+        if (sink != mappedSink) {
+            mapIds(sink);
+        }
+        int[] colors = sinkColors;
+        int[] strokes = sinkStrokes;
+
+        for (int k = 0; k < orderCount; k++) {
+            int i = order[k];
+            if (i >= 0) {
+                int p = parent[i];
+                double x = p < 0 ? startX[i] : endX[p];
+                double y = p < 0 ? startY[i] : endY[p];
+                sink.segment(x, y, endX[i], endY[i], depth[i], colors[colorId[i]], strokes[strokeId[i]]);
+            } else {
+                int leaf = ~i;
+                int b = leafBranch[leaf];
+                double x = b < 0 ? leafX[leaf] : endX[b] + leafX[leaf];
+                double y = b < 0 ? leafY[leaf] : endY[b] + leafY[leaf];
+                sink.oval(x, y, leafWidth[leaf], leafHeight[leaf], 0, colors[leafColorId[leaf]],
+                        strokes[leafStrokeId[leaf]], leafFilled[leaf]);
+            }
+        }
+    }
+
+    /**
+     * Register the recording's colours and strokes with a sink, which may
+     * number them differently. Done once per sink rather than every frame.
+     *
+     * @param sink Sink the frames will be drawn into
+     */
+    private void mapIds(GeometrySink sink) {
+        sinkColors = new int[source.getColorCount()];
+        for (int i = 0; i < sinkColors.length; i++) {
+            sinkColors[i] = sink.defineColor(source.getColor(i));
+        }
+        sinkStrokes = new int[source.getStrokeCount()];
+        for (int i = 0; i < sinkStrokes.length; i++) {
+            sinkStrokes[i] = sink.defineStroke(source.getStroke(i));
+        }
+        mappedSink = sink;
+    }
+
+    /**
+     * Update the tree to a time and draw it (method overloading)
+     *
+     * @param sink Sink receiving the frame
+     * @param time Seconds since the animation started
+     */
+    public void draw(GeometrySink sink, double time) {
+        update(time);
+        draw(sink);
+    }
+
+    /**
+     * Set how hard the wind blows
+     *
+     * @param strength 0 for still air, 1 for a breeze, more for a gale
+     */
+    public void setStrength(double strength) {
+        this.strength = Math.max(0, strength);
+    }
+
+    /**
+     * Sink that reads a recorded tree back into the branch and leaf arrays.
+     * A branch starts where its parent ends; the branches a parent could
+     * still have children from are kept on a stack, as the tree was drawn
+     * depth first.
+     */
+    private class BranchCollector extends GeometrySink {
+        private int[] open = new int[64];
+        private int openCount;
+
+        @Override
+        public void segment(double x1, double y1, double x2, double y2, int depth, int colorId, int strokeId) {
+            // Close branches until reaching the thicker one this starts from
+            while (openCount > 0 && !(joins(open[openCount - 1], x1, y1)
+                    && WindAnimation.this.depth[open[openCount - 1]] > depth)) {
+                openCount--;
+            }
+            int p = openCount > 0 ? open[openCount - 1] : -1;
+
+            int i = addBranch();
+            double rest = Math.atan2(y2 - y1, x2 - x1);
+            parent[i] = p;
+            startX[i] = x1;
+            startY[i] = y1;
+            length[i] = Math.hypot(x2 - x1, y2 - y1);
+            restAngle[i] = rest;
+            relativeAngle[i] = p < 0 ? rest : rest - restAngle[p];
+            WindAnimation.this.depth[i] = depth;
+            WindAnimation.this.colorId[i] = colorId;
+            WindAnimation.this.strokeId[i] = strokeId;
+            endX[i] = x2;
+            endY[i] = y2;
+
+            if (openCount == open.length) {
+                open = Arrays.copyOf(open, openCount * 2);
+            }
+            open[openCount++] = i;
+            addOrder(i);
+        }
+
+        @Override
+        public void polygon(double[] xs, double[] ys, int count, int depth, int colorId, int strokeId,
+                boolean filled) {
+            // Trees draw no polygons
+        }
+
+        @Override
+        public void oval(double x, double y, double width, double height, int depth, int colorId, int strokeId,
+                boolean filled) {
+            // A leaf sits on the end of the branch it is centred on
+            double centreX = x + width / 2;
+            double centreY = y + height / 2;
+            while (openCount > 0 && !joins(open[openCount - 1], centreX, centreY)) {
+                openCount--;
+            }
+            int b = openCount > 0 ? open[openCount - 1] : -1;
+
+            if (leafCount == leafBranch.length) {
+                int size = leafCount * 2;
+                leafBranch = Arrays.copyOf(leafBranch, size);
+                leafX = Arrays.copyOf(leafX, size);
+                leafY = Arrays.copyOf(leafY, size);
+                leafWidth = Arrays.copyOf(leafWidth, size);
+                leafHeight = Arrays.copyOf(leafHeight, size);
+                leafColorId = Arrays.copyOf(leafColorId, size);
+                leafStrokeId = Arrays.copyOf(leafStrokeId, size);
+                leafFilled = Arrays.copyOf(leafFilled, size);
+            }
+            int leaf = leafCount++;
+            leafBranch[leaf] = b;
+            leafX[leaf] = b < 0 ? x : x - endX[b];
+            leafY[leaf] = b < 0 ? y : y - endY[b];
+            leafWidth[leaf] = width;
+            leafHeight[leaf] = height;
+            leafColorId[leaf] = colorId;
+            leafStrokeId[leaf] = strokeId;
+            leafFilled[leaf] = filled;
+            addOrder(~leaf);
+        }
+
+        @Override
+        public void image(int[] argb, int columns, int rows, double x, double y, double width, double height,
+                int depth) {
+            // Trees draw no images
+        }
+
+        /**
+         * Whether a point is where a branch ends
+         */
+        private boolean joins(int branch, double x, double y) {
+            return Math.abs(endX[branch] - x) <= JOIN_TOLERANCE && Math.abs(endY[branch] - y) <= JOIN_TOLERANCE;
+        }
+
+        /**
+         * Make room for one more branch and return its index
+         */
+        private int addBranch() {
+            if (branchCount == parent.length) {
+                int size = branchCount * 2;
+                parent = Arrays.copyOf(parent, size);
+                startX = Arrays.copyOf(startX, size);
+                startY = Arrays.copyOf(startY, size);
+                length = Arrays.copyOf(length, size);
+                relativeAngle = Arrays.copyOf(relativeAngle, size);
+                restAngle = Arrays.copyOf(restAngle, size);
+                WindAnimation.this.depth = Arrays.copyOf(WindAnimation.this.depth, size);
+                WindAnimation.this.colorId = Arrays.copyOf(WindAnimation.this.colorId, size);
+                WindAnimation.this.strokeId = Arrays.copyOf(WindAnimation.this.strokeId, size);
+                flex = Arrays.copyOf(flex, size);
+                speed = Arrays.copyOf(speed, size);
+                phase = Arrays.copyOf(phase, size);
+                endX = Arrays.copyOf(endX, size);
+                endY = Arrays.copyOf(endY, size);
+            }
+            return branchCount++;
+        }
+
+        /**
+         * Append a branch or ~leaf to the drawing order
+         */
+        private void addOrder(int item) {
+            if (orderCount == order.length) {
+                order = Arrays.copyOf(order, orderCount * 2);
+            }
+            order[orderCount++] = item;
+        }
+    }
+
+    // Getters
+    public int getBranchCount() {
+        return branchCount;
+    }
+
+    public int getLeafCount() {
+        return leafCount;
+    }
+
+    public double getStrength() {
+        return strength;
+    }
+}